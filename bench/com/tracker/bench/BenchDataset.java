@@ -0,0 +1,74 @@
+package com.tracker.bench;
+
+import com.tracker.main.DatasetGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+/**
+ * Puts a generated dataset with the requested number of sales lines in ./data, where
+ * the DAOs expect it. Each size is generated once: datasets not in use are parked in
+ * bench-data/<lines>/ and swapped in and out by renaming directories.
+ * Refuses to touch a ./data directory that it did not create.
+ */
+final class BenchDataset {
+
+    static final int DAYS = 730;
+
+    private static final Path DATA = Paths.get("data");
+    private static final Path PARKED = Paths.get("bench-data");
+    private static final String MARKER = ".bench-lines";
+
+    private BenchDataset() {
+    }
+
+    /**
+     * Catalog size for a dataset: 1 product per 100 lines, between 1,000 and 100,000.
+     */
+    static int productCount(int lines) {
+        return Math.max(1_000, Math.min(100_000, lines / 100));
+    }
+
+    static String productId(int i) {
+        return DatasetGenerator.productId(i);
+    }
+
+    static LocalDate lastDay() {
+        return LocalDate.of(2025, 12, 31);
+    }
+
+    static void install(int lines) throws IOException {
+        if (Files.exists(DATA)) {
+            Path marker = DATA.resolve(MARKER);
+            if (!Files.exists(marker)) {
+                throw new IllegalStateException("./data is not a benchmark dataset. Run the benchmarks from an empty directory.");
+            }
+            String installed = new String(Files.readAllBytes(marker), StandardCharsets.UTF_8).trim();
+            if (installed.equals(Integer.toString(lines))) {
+                return;
+            }
+            Files.createDirectories(PARKED);
+            Files.move(DATA, PARKED.resolve(installed));
+        }
+        Path parked = PARKED.resolve(Integer.toString(lines));
+        if (Files.exists(parked)) {
+            Files.move(parked, DATA);
+            return;
+        }
+        generate(lines);
+        Files.write(DATA.resolve(MARKER), Integer.toString(lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A realistic history over DAYS days (DatasetGenerator: Zipfian products, seasonality,
+     * baskets, restocking), seeded by the size so each dataset is always the same.
+     */
+    private static void generate(int lines) {
+        new DatasetGenerator(lines, lines, productCount(lines), DAYS, lastDay(),
+                Runtime.getRuntime().availableProcessors()).generate();
+    }
+}
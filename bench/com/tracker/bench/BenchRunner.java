@@ -0,0 +1,25 @@
+package com.tracker.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suite with the GC profiler, so every result also reports its
+ * allocation rate (gc.alloc.rate, gc.alloc.rate.norm). Takes the usual JMH command-line
+ * options, e.g. a benchmark regex or -p lines=10000 for a quick run.
+ */
+public class BenchRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("com\\.tracker\\.bench\\..*");
+        }
+        options.addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.tracker.bench;
+
+import com.tracker.model.Staff;
+import com.tracker.model.User;
+import com.tracker.service.SalesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SalesService.recordSaleTransaction end to end: stock locks, journal commit (fsync)
+ * and the in-memory store updates, for a 3-line cart. Sales recorded here stay in the
+ * dataset; they are a negligible share of it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CheckoutBenchmark {
+
+    private static final int CART_LINES = 3;
+
+    private SalesService salesService;
+    private final User cashier = new Staff(200, "benchcashier", "pw", "Bench Cashier");
+    private List<List<SalesService.SaleRequest>> carts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(DatasetState dataset) {
+        salesService = dataset.context.getSalesService();
+        Random random = new Random(2);
+        carts = new ArrayList<>();
+        for (int c = 0; c < 256; c++) {
+            List<SalesService.SaleRequest> cart = new ArrayList<>();
+            for (int l = 0; l < CART_LINES; l++) {
+                String productId = BenchDataset.productId(random.nextInt(dataset.productCount()));
+                cart.add(new SalesService.SaleRequest(productId, 1));
+                // Generated stock is realistic (days of demand); make sure repeated runs never sell out
+                dataset.context.getInventoryService().getProductById(productId)
+                        .ifPresent(p -> p.setStockQuantity(Integer.MAX_VALUE / 2));
+            }
+            carts.add(cart);
+        }
+    }
+
+    @Benchmark
+    public String recordSaleTransaction() {
+        String result = salesService.recordSaleTransaction(cashier, carts.get(next++ & 255), "Cash");
+        if (!result.startsWith("Sale recorded")) {
+            throw new IllegalStateException(result);
+        }
+        return result;
+    }
+}
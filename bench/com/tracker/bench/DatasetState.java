@@ -0,0 +1,44 @@
+package com.tracker.bench;
+
+import com.tracker.model.ShopKeeper;
+import com.tracker.model.User;
+import com.tracker.service.DataContext;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * The application's data stores loaded over a generated dataset (see BenchDataset).
+ * JMH runs every parameter value in its own fork, so the process-wide DataContext
+ * always matches the installed dataset.
+ */
+@State(Scope.Benchmark)
+public class DatasetState {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int lines;
+
+    public DataContext context;
+    public final User owner = new ShopKeeper(1, "bench", "bench", "Bench Owner");
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        BenchDataset.install(lines);
+        // First load of a new dataset also builds its daily rollup
+        context = DataContext.getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        DataContext.shutdown();
+    }
+
+    public int productCount() {
+        return BenchDataset.productCount(lines);
+    }
+}
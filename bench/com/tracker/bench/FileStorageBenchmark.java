@@ -0,0 +1,73 @@
+package com.tracker.bench;
+
+import com.tracker.dao.FileStorageUtil;
+import com.tracker.model.Purchase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileStorageUtil.loadData / saveData: the Java-serialized list format still used for
+ * purchases.dat and users.dat. Measured on a purchase list of `records` entries in a
+ * temporary file (not ./data). 10M records is left out by default (several GB of heap
+ * for one list); pass -p records=10000000 to include it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileStorageBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int records;
+
+    private List<Purchase> purchases;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        purchases = new ArrayList<>(records);
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < records; i++) {
+            purchases.add(new Purchase("PU" + i, BenchDataset.productId(i % 10_000), 1 + i % 50,
+                    1 + (i % 5000) / 100.0, day.plusDays(i % 365), "Supplier " + (i % 20)));
+        }
+        file = Files.createTempFile("bench-purchases", ".dat").toFile();
+        FileStorageUtil.saveData(purchases, file.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public List<Purchase> loadData() {
+        return FileStorageUtil.loadData(file.getPath());
+    }
+
+    @Benchmark
+    public void saveData() {
+        FileStorageUtil.saveData(purchases, file.getPath());
+    }
+}
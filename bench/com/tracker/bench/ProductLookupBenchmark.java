@@ -0,0 +1,56 @@
+package com.tracker.bench;
+
+import com.tracker.dao.ProductDAO;
+import com.tracker.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductDAO.findById (case-insensitive ID lookup) over the dataset's catalog.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductLookupBenchmark {
+
+    private ProductDAO productDAO;
+    private String[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(DatasetState dataset) {
+        productDAO = dataset.context.getProductDAO();
+        Random random = new Random(1);
+        ids = new String[1 << 12];
+        for (int i = 0; i < ids.length; i++) {
+            String id = BenchDataset.productId(random.nextInt(dataset.productCount()));
+            ids[i] = i % 4 == 0 ? id.toLowerCase() : id;
+        }
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productDAO.findById(ids[next++ & (ids.length - 1)]);
+    }
+
+    @Benchmark
+    public Optional<Product> findByIdMissing() {
+        return productDAO.findById("NO-SUCH-ID");
+    }
+}
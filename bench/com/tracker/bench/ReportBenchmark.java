@@ -0,0 +1,101 @@
+package com.tracker.bench;
+
+import com.tracker.model.BestSellingRecord;
+import com.tracker.model.PnlRecord;
+import com.tracker.model.Report;
+import com.tracker.service.ReportExporter;
+import com.tracker.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every ReportService entry point (and the streaming CSV exports) over the dataset's
+ * last `rangeDays` days. The report cache is cleared before each call, so these measure
+ * computing the report; *Cached measures a repeat request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportBenchmark {
+
+    private static final int TOP_N = 10;
+
+    @Param({"7"})
+    public int spanDays;
+
+    @Param({"30", "730"})
+    public int rangeDays;
+
+    private DatasetState dataset;
+    private ReportService reportService;
+    private final ReportExporter exporter = new ReportExporter();
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup(Level.Trial)
+    public void setUp(DatasetState dataset) {
+        this.dataset = dataset;
+        reportService = dataset.context.getReportService();
+        end = BenchDataset.lastDay();
+        start = end.minusDays(rangeDays - 1);
+    }
+
+    @Benchmark
+    public Report generateProfitLossReport() {
+        reportService.clearCache();
+        return reportService.generateProfitLossReport(dataset.owner, start, end, spanDays);
+    }
+
+    @Benchmark
+    public Report generateBestSellingReport() {
+        reportService.clearCache();
+        return reportService.generateBestSellingReport(dataset.owner, start, end, TOP_N, spanDays);
+    }
+
+    @Benchmark
+    public List<PnlRecord> getPnlRecords() {
+        reportService.clearCache();
+        return reportService.getPnlRecords(dataset.owner, start, end, spanDays);
+    }
+
+    @Benchmark
+    public List<BestSellingRecord> getBestSellingRecords() {
+        reportService.clearCache();
+        return reportService.getBestSellingRecords(dataset.owner, start, end, TOP_N, spanDays);
+    }
+
+    @Benchmark
+    public void writePnlCsv() throws Exception {
+        reportService.clearCache();
+        exporter.writePnlCsv(reportService, dataset.owner, start, end, spanDays, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void writeBestSellingCsv() throws Exception {
+        reportService.clearCache();
+        exporter.writeBestSellingCsv(reportService, dataset.owner, start, end, TOP_N, spanDays, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public Report generateProfitLossReportCached() {
+        return reportService.generateProfitLossReport(dataset.owner, start, end, spanDays);
+    }
+}
@@ -0,0 +1,98 @@
+package com.tracker.dao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the encodings written by BinaryWriter from a byte array.
+ * Malformed input raises IOException rather than returning garbage.
+ */
+public final class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readByte() throws IOException {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    public long readSignedVarLong() throws IOException {
+        long zigzag = readVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public long readLong() throws IOException {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public double readMoney() throws IOException {
+        long tagged = readVarLong();
+        if ((tagged & 1) != 0) {
+            return readDouble();
+        }
+        long zigzag = tagged >>> 1;
+        long cents = (zigzag >>> 1) ^ -(zigzag & 1);
+        return cents / 100.0;
+    }
+
+    public String readString() throws IOException {
+        int lengthPlusOne = readVarInt();
+        if (lengthPlusOne == 0) {
+            return null;
+        }
+        int length = lengthPlusOne - 1;
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public byte[] readBytes() throws IOException {
+        int length = readVarInt();
+        require(length);
+        byte[] value = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return value;
+    }
+
+    public boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (bytes < 0 || position + bytes > buffer.length) {
+            throw new IOException("Unexpected end of record");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.tracker.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer with the primitive encodings used by the binary record codecs:
+ * LEB128 varints (zigzag for signed values), length-prefixed UTF-8 strings,
+ * compact money amounts and packed IDs.
+ */
+public final class BinaryWriter {
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter() {
+        this(128);
+    }
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Unsigned LEB128 varint: 1 byte for values below 128.
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Signed varint using zigzag encoding, so small negative numbers stay small.
+     */
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    public void writeDouble(double value) {
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Writes a currency amount. Values with at most two decimals (the normal case)
+     * are stored as a zigzag varint of cents; anything else falls back to a raw double.
+     * The low bit of the first varint tells the two forms apart.
+     */
+    public void writeMoney(double value) {
+        double scaled = value * 100;
+        long cents = Math.round(scaled);
+        if (Math.abs(cents) < (1L << 52) && cents / 100.0 == value) {
+            long zigzag = (cents << 1) ^ (cents >> 63);
+            writeVarLong(zigzag << 1);
+        } else {
+            writeVarLong(1);
+            writeDouble(value);
+        }
+    }
+
+    /**
+     * Writes a nullable string as varint(length + 1) followed by UTF-8 bytes; 0 means null.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Writes a nested record (e.g. an encoded transaction) as varint(length) followed by its bytes.
+     */
+    public void writeBytes(byte[] value) {
+        writeVarInt(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
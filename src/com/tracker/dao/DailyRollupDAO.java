@@ -0,0 +1,266 @@
+package com.tracker.dao;
+
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
+import com.tracker.model.DailySales;
+import com.tracker.model.SalesTransaction;
+
+import java.io.File;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Handles persistence for the daily sales rollup (per day, per product: quantity, revenue, cost).
+ * The rollup is stored as one small file per month under data/rollup/ plus an index,
+ * so a checkpoint only rewrites the months that changed and a report only reads the
+ * months it covers.
+ */
+public class DailyRollupDAO {
+
+    private static final String ROLLUP_DIR = "data/rollup/";
+    private static final String INDEX_PATH = ROLLUP_DIR + "index.dat";
+
+    private static final Timer OPEN_TIMER = Metrics.timer("dao.rollup.open");
+    private static final Timer MONTH_LOAD_TIMER = Metrics.timer("dao.rollup.loadMonth");
+    private static final Timer CHECKPOINT_TIMER = Metrics.timer("dao.rollup.checkpoint");
+    private static final Timer REBUILD_TIMER = Metrics.timer("dao.rollup.rebuild");
+
+    /**
+     * Which months exist and how many sales transactions the rollup has absorbed.
+     * The transaction count is compared with the sales store to detect a stale rollup.
+     */
+    private static class Index implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private long coveredTransactions;
+        private final TreeSet<String> months = new TreeSet<>();
+        // Last TransactionJournal record counted in coveredTransactions
+        private long checkpointLsn;
+    }
+
+    /**
+     * One month file. Each month carries its own checkpoint LSN, so a crash between
+     * saving a month and saving the index never counts a journaled sale twice.
+     */
+    private static class Month implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private long checkpointLsn;
+        private final TreeMap<LocalDate, DailySales> days = new TreeMap<>();
+    }
+
+    private Index index;
+    // Months read from disk so far
+    private final Map<String, Month> loadedMonths = new HashMap<>();
+    // Months changed since the last checkpoint
+    private final TreeSet<String> dirtyMonths = new TreeSet<>();
+    private long appliedLsn;
+
+    /**
+     * Loads the rollup index and rebuilds the rollup if it does not match the sales store
+     * (first start, or sales recorded by a version that did not maintain the rollup).
+     */
+    public DailyRollupDAO(SalesDAO salesDAO) {
+        this(salesDAO, true);
+    }
+
+    /**
+     * @param rebuildIfStale False to open the rollup as it is on disk (empty if it is missing),
+     *                       for a caller that rebuilds it itself (see RebuildRollup).
+     */
+    public DailyRollupDAO(SalesDAO salesDAO, boolean rebuildIfStale) {
+        long start = System.nanoTime();
+        this.index = FileStorageUtil.loadObject(INDEX_PATH);
+        if (rebuildIfStale
+                && (this.index == null || this.index.coveredTransactions != salesDAO.getTransactionCount())) {
+            rebuildFrom(salesDAO);
+        } else if (this.index == null) {
+            this.index = new Index();
+        }
+        this.appliedLsn = index.checkpointLsn;
+        OPEN_TIMER.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Adds one journaled transaction to the rollup in memory. Parts of the rollup that
+     * already contain the record (replay after a crash) are left alone.
+     * Corresponds to the rollup update step after 'insertSaleRecord'.
+     */
+    public synchronized void applyTransaction(SalesTransaction transaction, long lsn) {
+        if (lsn > index.checkpointLsn) {
+            index.coveredTransactions++;
+        }
+        if (transaction.getDateTime() != null) {
+            LocalDate day = transaction.getDateTime().toLocalDate();
+            String month = monthKey(day);
+            Month rollup = loadMonth(month);
+            if (lsn > rollup.checkpointLsn) {
+                // Copy-on-write: reports may be reading the current DailySales on another thread
+                DailySales current = rollup.days.get(day);
+                rollup.days.put(day, (current != null ? current : new DailySales(day)).withTransaction(transaction));
+                index.months.add(month);
+                dirtyMonths.add(month);
+            }
+        }
+        appliedLsn = Math.max(appliedLsn, lsn);
+    }
+
+    /**
+     * Takes back a transaction added by applyTransaction whose journal record never became
+     * durable (see TransactionJournal.rollBackSale). No checkpoint has run since it was
+     * added, so it is only in memory.
+     */
+    public synchronized void revertTransaction(SalesTransaction transaction) {
+        index.coveredTransactions--;
+        if (transaction.getDateTime() == null) {
+            return;
+        }
+        LocalDate day = transaction.getDateTime().toLocalDate();
+        String month = monthKey(day);
+        Month rollup = loadMonth(month);
+        DailySales current = rollup.days.get(day);
+        if (current == null) {
+            return;
+        }
+        DailySales reverted = current.withoutTransaction(transaction);
+        if (reverted.isEmpty()) {
+            rollup.days.remove(day);
+        } else {
+            rollup.days.put(day, reverted);
+        }
+        dirtyMonths.add(month);
+    }
+
+    /**
+     * Saves the changed months, then the index (queued on the PersistenceExecutor).
+     */
+    public synchronized void checkpoint() {
+        if (dirtyMonths.isEmpty() && index.checkpointLsn == appliedLsn) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (String month : dirtyMonths) {
+            Month rollup = loadedMonths.get(month);
+            rollup.checkpointLsn = appliedLsn;
+            PersistenceExecutor.getInstance().saveObject(rollup, monthPath(month));
+        }
+        dirtyMonths.clear();
+        index.checkpointLsn = appliedLsn;
+        PersistenceExecutor.getInstance().saveObject(index, INDEX_PATH);
+        CHECKPOINT_TIMER.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the rollup days within [startDate, endDate] (inclusive), in date order.
+     * Only the months overlapping the range are read. The returned days are never changed
+     * afterwards (see applyTransaction), so callers may read them on any thread.
+     */
+    public synchronized NavigableMap<LocalDate, DailySales> getDays(LocalDate startDate, LocalDate endDate) {
+        TreeMap<LocalDate, DailySales> result = new TreeMap<>();
+        for (String month : index.months.subSet(monthKey(startDate), true, monthKey(endDate), true)) {
+            result.putAll(loadMonth(month).days.subMap(startDate, true, endDate, true));
+        }
+        return result;
+    }
+
+    /**
+     * Passes the rollup days within [startDate, endDate] to the action in date order, one
+     * month at a time. Months not already in memory are read for the call and dropped
+     * afterwards, so walking several years holds at most one extra month.
+     */
+    public void forEachDay(LocalDate startDate, LocalDate endDate, Consumer<DailySales> action) {
+        List<String> months;
+        synchronized (this) {
+            months = new ArrayList<>(index.months.subSet(monthKey(startDate), true, monthKey(endDate), true));
+        }
+        for (String month : months) {
+            // The action runs outside the lock so sales are not held up by a long export
+            List<DailySales> days;
+            synchronized (this) {
+                Month rollup = loadedMonths.get(month);
+                if (rollup == null) {
+                    rollup = readMonth(month);
+                }
+                days = new ArrayList<>(rollup.days.subMap(startDate, true, endDate, true).values());
+            }
+            days.forEach(action);
+        }
+    }
+
+    /**
+     * Regenerates the whole rollup from the sales store.
+     * Run from the command line with com.tracker.main.RebuildRollup.
+     */
+    public synchronized void rebuildFrom(SalesDAO salesDAO) {
+        long start = System.nanoTime();
+        // Deletes and rewrites the files directly, so queued writes to them must land first
+        PersistenceExecutor.getInstance().flush();
+        File[] existing = new File(ROLLUP_DIR).listFiles();
+        if (existing != null) {
+            for (File file : existing) {
+                file.delete();
+            }
+        }
+        this.index = new Index();
+        this.index.checkpointLsn = salesDAO.getAppliedLsn();
+        this.appliedLsn = index.checkpointLsn;
+        this.loadedMonths.clear();
+        this.dirtyMonths.clear();
+
+        // Stream the sales store so a rebuild never holds the whole history in memory
+        salesDAO.forEachTransaction(t -> {
+            index.coveredTransactions++;
+            if (t.getDateTime() == null) {
+                return; // Legacy records without a date never appear in reports
+            }
+            LocalDate day = t.getDateTime().toLocalDate();
+            String month = monthKey(day);
+            index.months.add(month);
+            loadedMonths.computeIfAbsent(month, m -> new Month())
+                    .days.computeIfAbsent(day, DailySales::new)
+                    .addTransaction(t);
+        });
+
+        for (Map.Entry<String, Month> entry : loadedMonths.entrySet()) {
+            entry.getValue().checkpointLsn = index.checkpointLsn;
+            FileStorageUtil.saveObject(entry.getValue(), monthPath(entry.getKey()));
+        }
+        FileStorageUtil.saveObject(index, INDEX_PATH);
+        REBUILD_TIMER.record(System.nanoTime() - start);
+    }
+
+    // --- Month helpers ---
+
+    private Month loadMonth(String month) {
+        return loadedMonths.computeIfAbsent(month, m -> MONTH_LOAD_TIMER.time(() -> readMonth(m)));
+    }
+
+    private static Month readMonth(String month) {
+        Object stored = FileStorageUtil.loadObject(monthPath(month));
+        if (stored instanceof Month) {
+            return (Month) stored;
+        }
+        Month loaded = new Month();
+        if (stored instanceof TreeMap) {
+            // Month file written before months carried a checkpoint LSN
+            @SuppressWarnings("unchecked")
+            TreeMap<LocalDate, DailySales> days = (TreeMap<LocalDate, DailySales>) stored;
+            loaded.days.putAll(days);
+        }
+        return loaded;
+    }
+
+    private static String monthKey(LocalDate date) {
+        return PartitionScheme.MONTHLY.segmentKey(date);
+    }
+
+    private static String monthPath(String month) {
+        return ROLLUP_DIR + month + ".dat";
+    }
+}
@@ -1,12 +1,21 @@
 package com.tracker.dao;
 
+import com.tracker.metrics.StorageLoadEvent;
+import com.tracker.metrics.StorageSaveEvent;
+
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
 
 /**
- * Utility class for reading and writing data to local files using Java Serialization.
+ * Utility class for reading and writing data to local files using Java Serialization
+ * or the binary record codecs.
  * This implements the 'Database' lifeline for your offline-only application (NFR-1).
+ * All writes are crash-safe and group-committed (see GroupCommitter).
  */
 public class FileStorageUtil {
 
@@ -27,11 +36,15 @@ public class FileStorageUtil {
             return new ArrayList<>();
         }
 
+        StorageLoadEvent event = new StorageLoadEvent();
+        event.begin();
         try (FileInputStream fileIn = new FileInputStream(file);
              ObjectInputStream objectIn = new ObjectInputStream(fileIn)) {
             
             // The file is expected to contain a serialized List
-            return (List<T>) objectIn.readObject();
+            List<T> data = (List<T>) objectIn.readObject();
+            event.finish(filePath, file.length(), data.size());
+            return data;
 
         } catch (IOException e) {
             System.err.println("Error reading data from " + filePath + ": " + e.getMessage());
@@ -43,25 +56,496 @@ public class FileStorageUtil {
 
     /**
      * Writes a list of objects to a specified file path.
+     * The file is replaced atomically (temp file, fsync, rename), so a crash
+     * leaves either the old or the new contents, never a truncated file.
      * @param <T> The type of objects in the list.
      * @param data The list of objects to save.
      * @param filePath The local path to the data file.
      */
     public static <T> void saveData(List<T> data, String filePath) {
         try {
-            File file = new File(filePath);
-            // Ensure the directory 'data/' exists
-            file.getParentFile().mkdirs();
-
-            try (FileOutputStream fileOut = new FileOutputStream(file);
-                 ObjectOutputStream objectOut = new ObjectOutputStream(fileOut)) {
-                
-                objectOut.writeObject(data);
-                // System.out.println("Data successfully saved to " + filePath); // Optional feedback
-                
-            }
+            write(filePath, serialize(data), false, data.size());
+        } catch (IOException e) {
+            System.err.println("Error writing data to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a single serialized object (e.g. a manifest) from a file.
+     * @return The object, or null if the file is missing or unreadable.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T loadObject(String filePath) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return null;
+        }
+        StorageLoadEvent event = new StorageLoadEvent();
+        event.begin();
+        try (FileInputStream fileIn = new FileInputStream(file);
+             ObjectInputStream objectIn = new ObjectInputStream(fileIn)) {
+            T object = (T) objectIn.readObject();
+            event.finish(filePath, file.length(), 1);
+            return object;
+        } catch (IOException e) {
+            System.err.println("Error reading data from " + filePath + ": " + e.getMessage());
+        } catch (ClassNotFoundException e) {
+            System.err.println("Class not found during deserialization: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Writes a single serializable object (e.g. a manifest) to a file, replacing it atomically.
+     */
+    public static void saveObject(Serializable object, String filePath) {
+        try {
+            write(filePath, serialize(object), false, 1);
         } catch (IOException e) {
             System.err.println("Error writing data to " + filePath + ": " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads a whole file as raw bytes (for files written by a binary codec).
+     * @return The file contents, or null if the file is missing or unreadable.
+     */
+    public static byte[] loadBytes(String filePath) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return null;
+        }
+        StorageLoadEvent event = new StorageLoadEvent();
+        event.begin();
+        try {
+            byte[] data = java.nio.file.Files.readAllBytes(file.toPath());
+            event.finish(filePath, data.length, 0);
+            return data;
+        } catch (IOException e) {
+            System.err.println("Error reading data from " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes raw bytes (produced by a binary codec) to a file, replacing it atomically.
+     */
+    public static void saveBytes(byte[] data, String filePath) {
+        try {
+            write(filePath, data, false, 0);
+        } catch (IOException e) {
+            System.err.println("Error writing data to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    // =========================================================================
+    // DURABLE WRITES AND GROUP COMMIT
+    // =========================================================================
+    //
+    // Every write goes through the GroupCommitter thread: appends are fsynced,
+    // replacements use temp file + fsync + atomic rename, and commits that arrive
+    // together (from any DAO) share one flush. Callers block until their data is on disk.
+
+    private static final ThreadLocal<WriteBatch> CURRENT_BATCH = new ThreadLocal<>();
+
+    /**
+     * Starts collecting this thread's writes into one commit, e.g. all the files
+     * touched by recording one sale. The writes are flushed together, with one
+     * fsync per file, when the batch is closed. Nested batches join the outer one.
+     * <pre>
+     * FileStorageUtil.WriteBatch batch = FileStorageUtil.beginBatch();
+     * try {
+     *     productDAO.saveProducts();
+     *     salesDAO.addTransaction(transaction);
+     * } finally {
+     *     batch.close();
+     * }
+     * </pre>
+     */
+    public static WriteBatch beginBatch() {
+        WriteBatch batch = CURRENT_BATCH.get();
+        if (batch != null) {
+            batch.depth++;
+            return batch;
+        }
+        batch = new WriteBatch();
+        CURRENT_BATCH.set(batch);
+        return batch;
+    }
+
+    /**
+     * Writes collected between beginBatch() and close(), committed as one unit.
+     */
+    public static final class WriteBatch implements AutoCloseable {
+        private final List<GroupCommitter.WriteOp> ops = new ArrayList<>();
+        private int depth = 1;
+        private boolean failed;
+
+        private WriteBatch() {}
+
+        @Override
+        public void close() {
+            if (--depth > 0) {
+                return;
+            }
+            CURRENT_BATCH.remove();
+            try {
+                GroupCommitter.getInstance().commit(ops);
+            } catch (IOException e) {
+                failed = true;
+                System.err.println("Error committing " + ops.size() + " file writes: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Whether any write of the batch failed (known once the outermost close() returns).
+         */
+        public boolean hasFailed() {
+            return failed;
+        }
+    }
+
+    /**
+     * @param records Objects or frames in the data, for the StorageSave event (0 if not known).
+     */
+    private static void write(String filePath, byte[] data, boolean append, long records) throws IOException {
+        StorageSaveEvent event = new StorageSaveEvent();
+        event.begin();
+        GroupCommitter.WriteOp op = new GroupCommitter.WriteOp(filePath, data, append);
+        WriteBatch batch = CURRENT_BATCH.get();
+        if (batch != null) {
+            batch.ops.add(op);
+            event.finish(filePath, data.length, records, append, true);
+            return;
+        }
+        GroupCommitter.getInstance().commit(Collections.singletonList(op));
+        event.finish(filePath, data.length, records, append, false);
+    }
+
+    // =========================================================================
+    // APPEND-ONLY JOURNAL FILES
+    // =========================================================================
+    //
+    // A journal file is a sequence of framed records:
+    //   [int payloadLength][long crc32(payload)][payload bytes]
+    // The payload is either one Java-serialized object (appendRecord/loadRecords)
+    // or a binary record produced by a codec (appendFrame/openFrames).
+    // Each record is written on its own, so appending never touches the
+    // records already on disk.
+
+    private static final int FRAME_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    /**
+     * Appends one payload to the end of a journal file as a framed record.
+     * The cost of this call depends only on the size of the payload, not on the
+     * number of records already stored in the file.
+     * @param payload The encoded record.
+     * @param filePath The local path to the journal file (e.g., "data/sales/2025-10.seg").
+     * @throws IOException If the record could not be made durable; a commit that depends
+     *         on it (e.g. a dictionary entry referenced by a sale) must fail with it.
+     */
+    public static void appendFrame(byte[] payload, String filePath) throws IOException {
+        write(filePath, frame(payload), true, 1);
+    }
+
+    /**
+     * Queues an append without waiting for it to reach disk, so the caller can release
+     * its locks first and let other threads' appends join the same group commit.
+     * Appends reach the file in the order this method is called. Not part of any WriteBatch.
+     * @return A future that completes when the record is durable.
+     */
+    public static CompletableFuture<Void> appendFrameAsync(byte[] payload, String filePath) {
+        return GroupCommitter.getInstance().submit(
+                Collections.singletonList(new GroupCommitter.WriteOp(filePath, frame(payload), true)));
+    }
+
+    /**
+     * Appends several payloads in one write (one fsync), e.g. when a checkpoint
+     * moves journaled sales into their segment file.
+     * @throws IOException If the append failed; the file keeps its previous length.
+     */
+    public static void appendFrames(List<byte[]> payloads, String filePath) throws IOException {
+        write(filePath, concatFrames(payloads), true, payloads.size());
+    }
+
+    /**
+     * Rewrites a journal file so it contains exactly the given payloads, in order.
+     * Used for migrating legacy files and for compaction.
+     */
+    public static void writeFrames(List<byte[]> payloads, String filePath) {
+        try {
+            write(filePath, concatFrames(payloads), false, payloads.size());
+        } catch (IOException e) {
+            System.err.println("Error writing records to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Number of bytes a payload occupies in a journal file, including its frame header.
+     */
+    public static long frameSize(byte[] payload) {
+        return FRAME_HEADER_BYTES + payload.length;
+    }
+
+    /**
+     * Cuts a journal file back to the given length, discarding anything written after it
+     * (e.g. records appended by a checkpoint that did not complete). No-op if the file is shorter.
+     */
+    public static void truncate(String filePath, long length) {
+        File file = new File(filePath);
+        if (!file.exists() || file.length() <= length) {
+            return;
+        }
+        System.err.println("Truncating " + filePath + " from " + file.length() + " to " + length + " bytes");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+            raf.getFD().sync();
+        } catch (IOException e) {
+            System.err.println("Error truncating " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens a journal file for streaming, one frame at a time. Read-only: the reader sees
+     * the frames that were complete when it was opened and never modifies the file, so it
+     * is safe while other threads append to it. A missing file behaves like an empty journal.
+     */
+    public static FrameReader openFrames(String filePath) {
+        return new FrameReader(filePath, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * openFrames, but reads no further than the first byteLength bytes of the file.
+     */
+    public static FrameReader openFrames(String filePath, long byteLength) {
+        return new FrameReader(filePath, byteLength, false);
+    }
+
+    /**
+     * Opens a journal file for recovery on startup, before anything appends to it: like
+     * openFrames, but if the file ends with a torn or corrupt frame, close() truncates
+     * that tail so later appends start from a clean boundary.
+     */
+    public static FrameReader recoverFrames(String filePath) {
+        return new FrameReader(filePath, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Appends a single object to the end of a journal file as one Java-serialized record.
+     * @param record The object to append.
+     * @param filePath The local path to the journal file.
+     */
+    public static void appendRecord(Object record, String filePath) {
+        try {
+            appendFrame(serialize(record), filePath);
+        } catch (IOException e) {
+            System.err.println("Error appending record to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites a journal file so it contains exactly the given Java-serialized records.
+     * @param <T> The type of objects in the list.
+     * @param records The records to write, in order.
+     * @param filePath The local path to the journal file.
+     */
+    public static <T> void writeRecords(List<T> records, String filePath) {
+        try {
+            List<byte[]> payloads = new ArrayList<>(records.size());
+            for (T record : records) {
+                payloads.add(serialize(record));
+            }
+            writeFrames(payloads, filePath);
+        } catch (IOException e) {
+            System.err.println("Error writing records to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays a journal of Java-serialized records and returns every complete record in append order.
+     * @param <T> The type of objects in the journal.
+     * @param filePath The local path to the journal file.
+     * @return List of records, or an empty list if the file does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> loadRecords(String filePath) {
+        List<T> records = new ArrayList<>();
+        try (FrameReader reader = openFrames(filePath)) {
+            byte[] payload;
+            while ((payload = reader.next()) != null) {
+                // The frame passed its checksum, so a decode failure is not a torn write: skip it
+                Object record = deserialize(payload);
+                if (record != null) {
+                    records.add((T) record);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Streams the frames of a journal file. If the file ends with a torn or corrupt
+     * frame (e.g. the app was killed mid-append), reading stops at the last good
+     * frame; a reader opened by recoverFrames then truncates the damaged tail on close().
+     */
+    public static final class FrameReader implements Closeable {
+        private final File file;
+        private final boolean repair;
+        // File length when opened (or the length asked for): frames appended later are not read
+        private final long fileLength;
+        private DataInputStream dataIn;
+        private long validLength;
+        private long frames;
+        private boolean damaged;
+        // Covers the whole stream, open to close
+        private final StorageLoadEvent event = new StorageLoadEvent();
+
+        private FrameReader(String filePath, long maxLength, boolean repair) {
+            event.begin();
+            this.file = new File(filePath);
+            this.repair = repair;
+            this.fileLength = Math.min(file.length(), maxLength);
+            if (file.exists()) {
+                try {
+                    this.dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+                } catch (IOException e) {
+                    System.err.println("Error reading journal " + filePath + ": " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * @return The next frame's payload, or null at the end of the journal.
+         */
+        public byte[] next() {
+            if (dataIn == null || damaged) {
+                return null;
+            }
+            try {
+                byte[] payload = readFrame(dataIn, fileLength - validLength);
+                if (payload == null) {
+                    damaged = validLength < fileLength;
+                    return null;
+                }
+                validLength += FRAME_HEADER_BYTES + payload.length;
+                frames++;
+                return payload;
+            } catch (IOException e) {
+                System.err.println("Error reading journal " + file.getPath() + ": " + e.getMessage());
+                damaged = true;
+                return null;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (dataIn == null) {
+                return;
+            }
+            event.finish(file.getPath(), validLength, frames);
+            try {
+                dataIn.close();
+            } catch (IOException e) {
+                // Nothing useful to do; the file was only read
+            }
+            if (repair && damaged && validLength < file.length()) {
+                System.err.println("Truncating damaged tail of " + file.getPath() + " at byte " + validLength);
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(validLength);
+                } catch (IOException e) {
+                    System.err.println("Error truncating journal " + file.getPath() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static byte[] concatFrames(List<byte[]> payloads) {
+        int total = 0;
+        for (byte[] payload : payloads) {
+            total += FRAME_HEADER_BYTES + payload.length;
+        }
+        ByteBuffer frames = ByteBuffer.allocate(total);
+        for (byte[] payload : payloads) {
+            frames.put(frame(payload));
+        }
+        return frames.array();
+    }
+
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+        frame.putInt(payload.length);
+        frame.putLong(crc.getValue());
+        frame.put(payload);
+        return frame.array();
+    }
+
+    /**
+     * Reads one frame and returns its payload. Returns null at a clean end of file, or when
+     * the frame is incomplete or fails its checksum (the caller treats this as the end of the journal).
+     * @param remaining Bytes left in the file from the start of this frame.
+     */
+    private static byte[] readFrame(DataInputStream dataIn, long remaining) throws IOException {
+        if (remaining < FRAME_HEADER_BYTES) {
+            return null;
+        }
+        byte[] header = new byte[FRAME_HEADER_BYTES];
+        if (!readFully(dataIn, header)) {
+            return null;
+        }
+        int length = ((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16)
+                   | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+        long expectedCrc = 0;
+        for (int i = Integer.BYTES; i < FRAME_HEADER_BYTES; i++) {
+            expectedCrc = (expectedCrc << 8) | (header[i] & 0xFF);
+        }
+        // A torn or corrupt header can claim any length: never allocate more than the file holds
+        if (length < 0 || length > remaining - FRAME_HEADER_BYTES) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        if (!readFully(dataIn, payload)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (crc.getValue() != expectedCrc) {
+            return null;
+        }
+        return payload;
+    }
+
+    static byte[] serialize(Object record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+            objectOut.writeObject(record);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] payload) {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return objectIn.readObject();
+        } catch (IOException e) {
+            System.err.println("Error deserializing journal record: " + e.getMessage());
+        } catch (ClassNotFoundException e) {
+            System.err.println("Class not found during deserialization: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static boolean readFully(DataInputStream dataIn, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = dataIn.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+}
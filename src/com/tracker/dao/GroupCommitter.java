@@ -0,0 +1,306 @@
+package com.tracker.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Single background writer that makes every file write durable and lets concurrent
+ * commits share one flush (group commit).
+ *
+ * Commits queue up while the previous batch is being fsynced; the writer then takes
+ * everything that arrived, from any DAO, and pays one fsync per touched file for
+ * the whole batch. Whole-file replacements are written to a temp file, fsynced and
+ * atomically renamed over the original, so a crash never leaves a half-written file.
+ *
+ * A failed write only fails the commits that wrote to that file: other files in the
+ * same batch are still written and their commits succeed.
+ */
+final class GroupCommitter {
+
+    /**
+     * One file write: either an append to the end of the file, or a full replacement.
+     */
+    static final class WriteOp {
+        final String filePath;
+        final byte[] data;
+        final boolean append;
+
+        WriteOp(String filePath, byte[] data, boolean append) {
+            this.filePath = filePath;
+            this.data = data;
+            this.append = append;
+        }
+    }
+
+    private static final class CommitRequest {
+        final List<WriteOp> ops;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        CommitRequest(List<WriteOp> ops) {
+            this.ops = ops;
+        }
+    }
+
+    // Upper bound on commits flushed together, so one batch cannot grow without limit
+    private static final int MAX_BATCH = 256;
+
+    private static final GroupCommitter INSTANCE = new GroupCommitter();
+
+    private final LinkedBlockingQueue<CommitRequest> queue = new LinkedBlockingQueue<>();
+
+    private GroupCommitter() {
+        Thread writer = new Thread(this::run, "storage-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    static GroupCommitter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues the writes as one commit and blocks until they are durable on disk.
+     * @throws IOException if any of the writes failed.
+     */
+    void commit(List<WriteOp> ops) throws IOException {
+        if (ops.isEmpty()) {
+            return;
+        }
+        try {
+            submit(ops).join();
+        } catch (java.util.concurrent.CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * Queues the writes as one commit without waiting. Commits reach disk in the order
+     * they were submitted.
+     * @return A future that completes once the writes are durable (or fails with the IOException).
+     */
+    CompletableFuture<Void> submit(List<WriteOp> ops) {
+        CommitRequest request = new CommitRequest(ops);
+        queue.add(request);
+        return request.done;
+    }
+
+    private void run() {
+        List<CommitRequest> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                // Everything that queued up during the previous flush joins this one
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                try {
+                    List<WriteOp> ops = new ArrayList<>();
+                    for (CommitRequest request : batch) {
+                        ops.addAll(request.ops);
+                    }
+                    IOException[] errors = flush(ops);
+                    int op = 0;
+                    for (CommitRequest request : batch) {
+                        IOException error = null;
+                        for (int end = op + request.ops.size(); op < end; op++) {
+                            if (error == null) {
+                                error = errors[op];
+                            }
+                        }
+                        if (error == null) {
+                            request.done.complete(null);
+                        } else {
+                            request.done.completeExceptionally(error);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    for (CommitRequest request : batch) {
+                        request.done.completeExceptionally(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch's operations in order.
+     * @return Per operation, the IOException that kept it from becoming durable, or null.
+     *         Once a write to a file fails, the batch's later operations on that file are
+     *         not attempted (and fail with the same exception).
+     */
+    private IOException[] flush(List<WriteOp> ops) {
+        IOException[] errors = new IOException[ops.size()];
+        // A file replaced several times within one batch only needs its last replacement written
+        Map<String, Integer> lastReplace = new HashMap<>();
+        for (int i = 0; i < ops.size(); i++) {
+            WriteOp op = ops.get(i);
+            if (!op.append) {
+                lastReplace.put(op.filePath, i);
+            }
+        }
+
+        Map<String, FileChannel> appendChannels = new LinkedHashMap<>();
+        // Appends written to each open channel, which its fsync makes durable
+        Map<String, List<Integer>> appended = new HashMap<>();
+        Map<String, IOException> failedFiles = new HashMap<>();
+        Set<Path> directories = new LinkedHashSet<>();
+        try {
+            for (int i = 0; i < ops.size(); i++) {
+                WriteOp op = ops.get(i);
+                IOException failed = failedFiles.get(op.filePath);
+                if (failed != null) {
+                    errors[i] = failed;
+                    continue;
+                }
+                if (!op.append && lastReplace.get(op.filePath) != i) {
+                    continue; // Takes the outcome of the last replacement, below
+                }
+                List<Integer> overwritten = null;
+                try {
+                    Path target = new File(op.filePath).toPath().toAbsolutePath();
+                    Files.createDirectories(target.getParent());
+                    directories.add(target.getParent());
+
+                    if (op.append) {
+                        FileChannel channel = appendChannels.get(op.filePath);
+                        if (channel == null) {
+                            channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                            appendChannels.put(op.filePath, channel);
+                        }
+                        appendFully(channel, op.data);
+                        appended.computeIfAbsent(op.filePath, k -> new ArrayList<>()).add(i);
+                    } else {
+                        // Earlier appends to this file are overwritten anyway, so they succeed or
+                        // fail with the replacement; later ones must go to the new file, so the
+                        // swap happens here, in order
+                        overwritten = appended.remove(op.filePath);
+                        FileChannel previous = appendChannels.remove(op.filePath);
+                        if (previous != null) {
+                            previous.close();
+                        }
+                        replace(target, op.data);
+                    }
+                } catch (IOException e) {
+                    errors[i] = e;
+                    failedFiles.put(op.filePath, e);
+                    if (overwritten != null) {
+                        for (int j : overwritten) {
+                            errors[j] = e;
+                        }
+                    }
+                }
+            }
+
+            // One fsync per appended file for the whole batch
+            for (Map.Entry<String, FileChannel> entry : appendChannels.entrySet()) {
+                try {
+                    entry.getValue().force(true);
+                } catch (IOException e) {
+                    for (int j : appended.getOrDefault(entry.getKey(), Collections.emptyList())) {
+                        errors[j] = e;
+                    }
+                }
+            }
+        } finally {
+            for (FileChannel channel : appendChannels.values()) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Already forced (or already failed)
+                }
+            }
+        }
+
+        // Replacements skipped in favour of a later one share its outcome
+        for (int i = 0; i < ops.size(); i++) {
+            WriteOp op = ops.get(i);
+            if (!op.append && errors[i] == null) {
+                errors[i] = errors[lastReplace.get(op.filePath)];
+            }
+        }
+
+        // Persist new directory entries (created files and renames)
+        for (Path directory : directories) {
+            forceDirectory(directory);
+        }
+        return errors;
+    }
+
+    /**
+     * Appends the data; if that fails part-way, cuts the file back so the next append
+     * does not land behind a torn record.
+     */
+    private static void appendFully(FileChannel channel, byte[] data) throws IOException {
+        long size = channel.size();
+        try {
+            writeFully(channel, data);
+        } catch (IOException e) {
+            try {
+                channel.truncate(size);
+            } catch (IOException ignored) {
+                // Recovery on the next start truncates the torn tail instead
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the data to a temp file next to the target, fsyncs it and atomically
+     * renames it over the target.
+     */
+    private static void replace(Path target, byte[] data) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, data);
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Makes renames and newly created files durable. Not supported on every platform
+     * (e.g. Windows), where the rename itself is already as durable as it gets.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directory fsync is best effort
+        }
+    }
+}
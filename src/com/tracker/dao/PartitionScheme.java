@@ -0,0 +1,34 @@
+package com.tracker.dao;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+/**
+ * Decides which sales segment file a transaction date belongs to.
+ * Coarser schemes mean fewer, larger segment files; finer schemes let
+ * short-range reports open less data.
+ */
+public enum PartitionScheme {
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * Returns the segment key for a date. Keys sort in chronological order.
+     */
+    public String segmentKey(LocalDate date) {
+        switch (this) {
+            case DAILY:
+                return date.toString(); // yyyy-MM-dd
+            case WEEKLY:
+                return String.format("%04d-W%02d",
+                        date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case YEARLY:
+                return String.format("%04d", date.getYear());
+            case MONTHLY:
+            default:
+                return String.format("%04d-%02d", date.getYear(), date.getMonthValue());
+        }
+    }
+}
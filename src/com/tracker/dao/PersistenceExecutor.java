@@ -0,0 +1,241 @@
+package com.tracker.dao;
+
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Write-behind persistence: DAOs hand over an immutable snapshot of a store (its
+ * encoded bytes) and return immediately; a background thread writes it to disk.
+ *
+ * - Snapshots are taken on the caller's thread, so later changes to the in-memory
+ *   data never leak into a write that is already queued.
+ * - Saving the same file again while an earlier snapshot is still queued replaces the
+ *   queued bytes in place; only the newest snapshot is written (coalescing).
+ * - Writes and tasks run in submission order. A task (e.g. trimming the journal after
+ *   a checkpoint) depends on every snapshot queued before it, so a snapshot that already
+ *   has a task queued behind it is never replaced or moved: the new one is queued
+ *   separately and both are written.
+ * - Everything queued together is written as one FileStorageUtil batch (one group commit).
+ * - A failed write (a snapshot, or a task that throws) is sticky: hasFailedWrites() stays
+ *   true, and commit snapshots (saveCommitObject, e.g. the sales manifest that vouches for
+ *   segment appends queued before it) are no longer written. The files may then be behind
+ *   the TransactionJournal, which is kept in full and replayed on the next start.
+ * - flush() blocks until everything queued so far is on disk (shutdown, tests).
+ */
+public final class PersistenceExecutor {
+
+    /**
+     * One queued unit of work: a file snapshot, or an ordered task (task != null).
+     */
+    private static final class Entry {
+        final String filePath;
+        byte[] data; // Replaced in place by a newer snapshot of the same file
+        final Runnable task;
+        // Commit snapshot: written after the other snapshots of its batch, and only if no write has failed
+        final boolean commit;
+        // Tasks queued before this entry, to tell whether one was queued after it
+        long tasksAhead;
+
+        Entry(String filePath, byte[] data, Runnable task, boolean commit) {
+            this.filePath = filePath;
+            this.data = data;
+            this.task = task;
+            this.commit = commit;
+        }
+    }
+
+    // Time the writer thread spends putting each batch of snapshots on disk
+    private static final Timer WRITE_TIMER = Metrics.timer("dao.background.write");
+    private static final PersistenceExecutor INSTANCE = new PersistenceExecutor();
+
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    // Queued snapshot per file path, so a newer snapshot can replace it
+    private final Map<String, Entry> pendingSnapshots = new HashMap<>();
+    // Tasks queued so far
+    private long tasksQueued;
+    // Set by the writer thread when any write fails; never cleared
+    private volatile boolean writeFailed;
+
+    private PersistenceExecutor() {
+        Thread writer = new Thread(this::run, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Daemon threads do not keep the JVM alive: write out whatever is queued on exit
+        try {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "persistence-flush"));
+        } catch (IllegalStateException e) {
+            // First used from another shutdown hook, which calls flush() itself
+        }
+    }
+
+    public static PersistenceExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues a full replacement of the file with the given bytes.
+     */
+    public void saveBytes(byte[] data, String filePath) {
+        enqueue(new Entry(filePath, data, null, false));
+    }
+
+    /**
+     * Serializes the object now (on the caller's thread) and queues the write.
+     */
+    public void saveObject(Serializable object, String filePath) {
+        try {
+            saveBytes(FileStorageUtil.serialize(object), filePath);
+        } catch (IOException e) {
+            System.err.println("Error writing data to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serializes the object now and queues it as a commit point for the writes queued before
+     * it: it is written after them, and not at all once any write has failed.
+     */
+    public void saveCommitObject(Serializable object, String filePath) {
+        try {
+            enqueue(new Entry(filePath, FileStorageUtil.serialize(object), null, true));
+        } catch (IOException e) {
+            System.err.println("Error writing data to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether any background write has failed since startup. Steps that assume earlier
+     * writes are on disk (trimming the journal) check this first.
+     */
+    public boolean hasFailedWrites() {
+        return writeFailed;
+    }
+
+    /**
+     * Serializes the list now (on the caller's thread) and queues the write.
+     * Write-behind counterpart of FileStorageUtil.saveData.
+     */
+    public <T> void saveData(List<T> data, String filePath) {
+        try {
+            saveBytes(FileStorageUtil.serialize(data), filePath);
+        } catch (IOException e) {
+            System.err.println("Error writing data to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queues a task that runs on the writer thread after everything queued before it
+     * has been written, and before anything queued after it. Used for writes that are
+     * not whole-file snapshots (appends) and for steps that depend on earlier writes
+     * being durable (e.g. trimming the transaction journal after a checkpoint).
+     */
+    public void execute(Runnable task) {
+        enqueue(new Entry(null, null, task, false));
+    }
+
+    /**
+     * Blocks until every write queued before this call is on disk.
+     */
+    public void flush() {
+        CountDownLatch done = new CountDownLatch(1);
+        execute(done::countDown);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        synchronized (queue) {
+            if (entry.filePath != null) {
+                Entry previous = pendingSnapshots.get(entry.filePath);
+                if (previous != null && previous.tasksAhead == tasksQueued) {
+                    // No task waits on the queued snapshot yet: write the newer bytes in its place
+                    previous.data = entry.data;
+                    return;
+                }
+                entry.tasksAhead = tasksQueued;
+                pendingSnapshots.put(entry.filePath, entry);
+            } else {
+                tasksQueued++;
+            }
+            queue.addLast(entry);
+            queue.notifyAll();
+        }
+    }
+
+    private void run() {
+        List<Entry> snapshots = new ArrayList<>();
+        while (true) {
+            Entry task = null;
+            synchronized (queue) {
+                while (queue.isEmpty()) {
+                    try {
+                        queue.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                // Take the snapshots queued ahead of the next task (or all of them)
+                while (!queue.isEmpty()) {
+                    Entry entry = queue.pollFirst();
+                    if (entry.task != null) {
+                        task = entry;
+                        break;
+                    }
+                    if (pendingSnapshots.get(entry.filePath) == entry) {
+                        pendingSnapshots.remove(entry.filePath);
+                    }
+                    snapshots.add(entry);
+                }
+            }
+
+            if (!snapshots.isEmpty()) {
+                long start = System.nanoTime();
+                // One commit for the plain snapshots of the batch, then one for its commit snapshots
+                writeSnapshots(snapshots, false);
+                writeSnapshots(snapshots, true);
+                WRITE_TIMER.record(System.nanoTime() - start);
+                snapshots.clear();
+            }
+            if (task != null) {
+                try {
+                    task.task.run();
+                } catch (RuntimeException e) {
+                    writeFailed = true;
+                    System.err.println("Error in background persistence task: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writeSnapshots(List<Entry> snapshots, boolean commit) {
+        FileStorageUtil.WriteBatch batch = FileStorageUtil.beginBatch();
+        try {
+            for (Entry snapshot : snapshots) {
+                if (snapshot.commit != commit) {
+                    continue;
+                }
+                if (commit && writeFailed) {
+                    System.err.println("Not writing " + snapshot.filePath + ": an earlier write failed");
+                    continue;
+                }
+                FileStorageUtil.saveBytes(snapshot.data, snapshot.filePath);
+            }
+        } finally {
+            batch.close();
+        }
+        if (batch.hasFailed()) {
+            writeFailed = true;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.tracker.dao;
+
+import com.tracker.model.Product;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written, versioned binary format for the product catalog (products.dat).
+ *
+ * File layout (version 2):
+ *   magic "SITP", version, checkpointLsn, productCount, then per Product:
+ *   id, name, category, costPrice, sellingPrice, stockQuantity.
+ * checkpointLsn is the last TransactionJournal record reflected in the stock levels
+ * (version 1 files have no such field and read as 0).
+ * Files written by older versions (Java serialization) are recognised by their
+ * missing magic and still load through FileStorageUtil.loadData.
+ */
+public final class ProductCodec {
+
+    public static final int FORMAT_VERSION = 2;
+
+    private static final byte[] MAGIC = {'S', 'I', 'T', 'P'};
+
+    private ProductCodec() {}
+
+    public static byte[] encode(List<Product> products, long checkpointLsn) {
+        return encode(products, checkpointLsn, Collections.emptyMap());
+    }
+
+    /**
+     * @param stockOffsets Stock changes (by product ID) made after checkpointLsn; they are
+     *                     subtracted, so the file holds the stock as of checkpointLsn.
+     */
+    public static byte[] encode(List<Product> products, long checkpointLsn, Map<String, Integer> stockOffsets) {
+        BinaryWriter out = new BinaryWriter(16 + products.size() * 48);
+        for (byte b : MAGIC) {
+            out.writeByte(b);
+        }
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarLong(checkpointLsn);
+        out.writeVarInt(products.size());
+        for (Product product : products) {
+            out.writeString(product.getProductID());
+            out.writeString(product.getName());
+            out.writeString(product.getCategory());
+            out.writeMoney(product.getCostPrice());
+            out.writeMoney(product.getSellingPrice());
+            out.writeSignedVarLong(product.getStockQuantity() - stockOffsets.getOrDefault(product.getProductID(), 0));
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Product> decode(byte[] data) throws IOException {
+        BinaryReader in = new BinaryReader(data);
+        readHeader(in);
+
+        int count = in.readVarInt();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = in.readString();
+            String name = in.readString();
+            String category = in.readString();
+            double costPrice = in.readMoney();
+            double sellingPrice = in.readMoney();
+            int stock = (int) in.readSignedVarLong();
+            products.add(new Product(id, name, category, costPrice, sellingPrice, stock));
+        }
+        return products;
+    }
+
+    /**
+     * Reads the checkpoint LSN stored in the file header.
+     */
+    public static long readCheckpointLsn(byte[] data) throws IOException {
+        return readHeader(new BinaryReader(data));
+    }
+
+    /**
+     * Skips the magic and version and returns the checkpoint LSN (0 for version 1 files).
+     */
+    private static long readHeader(BinaryReader in) throws IOException {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (in.readByte() != MAGIC[i]) {
+                throw new IOException("Not a binary product file");
+            }
+        }
+        int version = in.readByte();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Unsupported product file version " + version);
+        }
+        return version >= 2 ? in.readVarLong() : 0;
+    }
+
+    /**
+     * True if the data starts with the binary product file magic.
+     */
+    public static boolean isBinary(byte[] data) {
+        if (data == null || data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,116 +1,202 @@
 package com.tracker.dao;
 
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
 import com.tracker.model.Product;
-import java.util.List;
-import java.util.Optional;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * Handles persistence for Product objects (the Inventory data store).
+ * Products are loaded once into an indexed ProductRepository; lookups are served
+ * from memory and only writes go to disk, using the binary ProductCodec format.
+ * Stock changes from sales are journaled (see TransactionJournal) and reach
+ * products.dat at the next checkpoint.
+ * Any save (a checkpoint or a catalog edit) writes the stock as of the last journal
+ * record whose append, and that of every record before it, is confirmed: the deltas
+ * of later records are left out and stay in the journal, so a save never contains a
+ * sale that may not survive a crash.
  */
 public class ProductDAO {
 
     private static final String FILE_PATH = "data/products.dat";
-    private List<Product> products;
-    private static final String PRODUCT_FILE = "products.dat"; 
+    private static final Timer LOAD_TIMER = Metrics.timer("dao.products.load");
+    private static final Timer SAVE_TIMER = Metrics.timer("dao.products.save");
+    private final ProductRepository repository;
+    // Last journal record reflected in memory
+    private long appliedLsn;
+    // Stock deltas applied in memory whose journal append (or that of an earlier record) is
+    // not confirmed yet, by LSN; saves leave them out and are stamped just below the first
+    private final TreeMap<Long, Map<String, Integer>> unconfirmedDeltas = new TreeMap<>();
+    private boolean dirty;
+
     public ProductDAO() {
-        this.products = loadProducts();
+        long start = System.nanoTime();
+        this.repository = new ProductRepository(loadProducts());
+        LOAD_TIMER.record(System.nanoTime() - start);
         
         // Ensure initial data exists if the file is empty (Bootstrap Example)
-        if (this.products.isEmpty()) {
+        if (this.repository.size() == 0) {
             bootstrapInitialProducts();
         }
     }
     
     private void bootstrapInitialProducts() {
         System.out.println("Bootstrapping initial products...");
-        this.products.add(new Product("A101", "Espresso Machine", "Appliance", 150.00, 299.99, 10)); 
-        this.products.add(new Product("A102", "Coffee Beans (Dark Roast)", "Food", 5.00, 12.50, 50));     
-        this.products.add(new Product("A103", "Milk Frother", "Accessory", 20.00, 45.00, 25));     
+        this.repository.put(new Product("A101", "Espresso Machine", "Appliance", 150.00, 299.99, 10)); 
+        this.repository.put(new Product("A102", "Coffee Beans (Dark Roast)", "Food", 5.00, 12.50, 50));     
+        this.repository.put(new Product("A103", "Milk Frother", "Accessory", 20.00, 45.00, 25));     
         saveProducts();
     }
     
-    public void saveProducts() {
-        FileStorageUtil.saveData(this.products, FILE_PATH);
+    public synchronized void saveProducts() {
+        // Encoded here, written in the background (see PersistenceExecutor)
+        long start = System.nanoTime();
+        byte[] data;
+        if (unconfirmedDeltas.isEmpty()) {
+            data = ProductCodec.encode(this.repository.getAll(), appliedLsn);
+        } else {
+            Map<String, Integer> offsets = new HashMap<>();
+            for (Map<String, Integer> deltas : unconfirmedDeltas.values()) {
+                deltas.forEach((productId, delta) -> offsets.merge(productId, delta, Integer::sum));
+            }
+            data = ProductCodec.encode(this.repository.getAll(), unconfirmedDeltas.firstKey() - 1, offsets);
+        }
+        PersistenceExecutor.getInstance().saveBytes(data, FILE_PATH);
+        dirty = false;
+        SAVE_TIMER.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Applies the stock deltas of one journal record in memory, all at once with its LSN, so
+     * no save can see some of them without the others. Records already contained in
+     * products.dat (lsn at or below its checkpoint) are skipped during replay.
+     * @param durable False for a record whose append is still in flight; its deltas are left
+     *                out of saves until confirmStockDeltas covers its LSN.
+     */
+    public synchronized void applyStockDeltas(Map<String, Integer> stockDeltas, long lsn, boolean durable) {
+        if (lsn <= appliedLsn) {
+            return;
+        }
+        for (Map.Entry<String, Integer> delta : stockDeltas.entrySet()) {
+            repository.findById(delta.getKey()).ifPresent(p -> p.updateStock(delta.getValue()));
+        }
+        if (!durable) {
+            unconfirmedDeltas.put(lsn, stockDeltas);
+        }
+        appliedLsn = lsn;
+        dirty = true;
+    }
+
+    /**
+     * Called once the journal records up to and including lsn are all durable.
+     */
+    public synchronized void confirmStockDeltas(long lsn) {
+        unconfirmedDeltas.headMap(lsn, true).clear();
+    }
+
+    /**
+     * Takes back the stock deltas of a journal record that never became durable
+     * (see TransactionJournal.rollBackSale). The caller holds the products' stock locks.
+     */
+    public synchronized void revertStockDeltas(Map<String, Integer> stockDeltas, long lsn) {
+        for (Map.Entry<String, Integer> delta : stockDeltas.entrySet()) {
+            repository.findById(delta.getKey()).ifPresent(p -> p.updateStock(-delta.getValue()));
+        }
+        unconfirmedDeltas.remove(lsn);
+        dirty = true;
+    }
+
+    public synchronized long getAppliedLsn() {
+        return appliedLsn;
+    }
+
+    /**
+     * Writes products.dat if journaled stock changes are not in it yet.
+     */
+    public synchronized void checkpoint() {
+        if (dirty) {
+            saveProducts();
+        }
     }
     
     // Corresponds to 'checkIfExists' in Sequence Diagrams
     public Optional<Product> findById(String productId) {
-        return products.stream()
-                .filter(p -> p.getProductID().equalsIgnoreCase(productId))
-                .findFirst();
+        return repository.findByIdIgnoreCase(productId);
     }
     /**
      * Maps to productDAO.insertNewProduct(newProduct) in the Service Layer.
-     * Adds a new product to the list and saves changes.
+     * Adds a new product to the repository and saves changes.
      */
     public void insertNewProduct(Product product) {
-        this.products.add(product);
+        this.repository.put(product);
         saveProducts(); // Persist the change
     }
 
     /**
      * Maps to productDAO.saveProductChanges(existingProduct) in the Service Layer.
-     * Replaces the old product object with the updated one and saves changes.
+     * Replaces the old product object with the updated one (re-indexing its name) and saves changes.
      */
     public void saveProductChanges(Product updatedProduct) {
-        // 1. Remove the old version of the product using its ID
-        this.products.removeIf(p -> p.getProductID().equals(updatedProduct.getProductID()));
-        
-        // 2. Add the updated version
-        this.products.add(updatedProduct);
-        
-        // 3. Persist the change
+        this.repository.put(updatedProduct);
         saveProducts(); 
     }
     
     private List<Product> loadProducts() {
-        // Assuming FileStorageUtil handles deserialization from FILE_PATH
-        // We ensure the list is always fresh before searching/updating
-        List<Product> loadedList = FileStorageUtil.loadData(FILE_PATH);
-        return loadedList != null ? loadedList : new ArrayList<>();
+        byte[] data = FileStorageUtil.loadBytes(FILE_PATH);
+        if (data == null) {
+            return new ArrayList<>();
+        }
+        if (!ProductCodec.isBinary(data)) {
+            // Legacy Java-serialized catalog; it is rewritten in the binary format on the next save
+            List<Product> loadedList = FileStorageUtil.loadData(FILE_PATH);
+            return loadedList != null ? loadedList : new ArrayList<>();
+        }
+        try {
+            this.appliedLsn = ProductCodec.readCheckpointLsn(data);
+            return ProductCodec.decode(data);
+        } catch (IOException e) {
+            System.err.println("Error reading data from " + FILE_PATH + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
     }
     
     
     // Corresponds to 'insertNewProduct' in Sequence Diagram
     public void add(Product product) {
-        this.products.add(product);
+        this.repository.put(product);
         saveProducts();
     }
     
     // Corresponds to 'deleteProduct' in Sequence Diagram
     public void remove(String productId) {
-        this.products.removeIf(p -> p.getProductID().equalsIgnoreCase(productId));
+        findById(productId).ifPresent(p -> repository.remove(p.getProductID()));
         saveProducts();
     }
     
     public List<Product> getAll() {
-        // Ensure we work with the latest list
-        this.products = loadProducts(); 
-        return new ArrayList<>(products);
+        return repository.getAll();
     }
     public List<Product> getAllProducts() {
-        // Ensure we work with the latest list
-        this.products = loadProducts(); 
-        return new ArrayList<>(products);
+        return repository.getAll();
     }
     public Optional<Product> getProductById(String productID) {
-        // Ensure the in-memory list is up-to-date before searching
-        this.products = loadProducts(); 
-        
-        return this.products.stream()
-                .filter(p -> p.getProductID().equals(productID))
-                .findFirst();
+        return repository.findById(productID);
     }
     public Optional<Product> getProductByName(String name) {
-        // Rely on the in-memory list 'this.products' which should be updated 
-        // by insertNewProduct and saveProductChanges.
-        
-        return this.products.stream() // Use 'this.products'
-            .filter(p -> p.getName().equalsIgnoreCase(name))
-            .findFirst();
+        return repository.findByName(name);
+    }
+
+    /**
+     * Autocomplete lookup on product ID and name (see ProductSearchIndex).
+     */
+    public List<Product> searchProducts(String query, int limit) {
+        return repository.search(query, limit);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.tracker.dao;
+
+import com.tracker.model.Product;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory product store with hash indexes on exact ID, case-folded ID and
+ * normalized name, plus a search index for autocomplete (see ProductSearchIndex).
+ * All lookups are served from memory and never touch the disk; ProductDAO
+ * keeps the indexes consistent on insert, update and remove.
+ *
+ * Methods are synchronized, like ProductSearchIndex's: lookups run on background
+ * threads (search, history pages, reports) while the catalog is edited on the FX thread.
+ * search() only takes the search index's own lock.
+ */
+public class ProductRepository {
+
+    // Primary index; LinkedHashMap keeps the original insertion order for listings
+    private final Map<String, Product> byId = new LinkedHashMap<>();
+    private final Map<String, Product> byFoldedId = new HashMap<>();
+    private final Map<String, Product> byName = new HashMap<>();
+    // Name key each product was indexed under, so a rename can drop the stale key
+    private final Map<String, String> indexedNameById = new HashMap<>();
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    public ProductRepository(List<Product> products) {
+        for (Product product : products) {
+            put(product);
+        }
+    }
+
+    /**
+     * Inserts a product, or re-indexes it if a product with the same ID already exists.
+     */
+    public synchronized void put(Product product) {
+        String id = product.getProductID();
+        removeFromMaps(id);
+        searchIndex.add(product); // Re-indexes only if the ID or name changed
+
+        byId.put(id, product);
+        byFoldedId.put(foldId(id), product);
+        String nameKey = normalizeName(product.getName());
+        if (nameKey != null) {
+            byName.putIfAbsent(nameKey, product);
+            indexedNameById.put(id, nameKey);
+        }
+    }
+
+    /**
+     * Removes the product with this exact ID (if any) from every index.
+     * @return The removed product, or null.
+     */
+    public synchronized Product remove(String productId) {
+        searchIndex.remove(productId);
+        return removeFromMaps(productId);
+    }
+
+    private Product removeFromMaps(String productId) {
+        Product removed = byId.remove(productId);
+        if (removed == null) {
+            return null;
+        }
+        byFoldedId.remove(foldId(productId));
+        String nameKey = indexedNameById.remove(productId);
+        if (nameKey != null && byName.get(nameKey) == removed) {
+            byName.remove(nameKey);
+            // Legacy data may hold duplicate names; let the next holder take over the key
+            for (Map.Entry<String, String> entry : indexedNameById.entrySet()) {
+                if (entry.getValue().equals(nameKey)) {
+                    byName.put(nameKey, byId.get(entry.getKey()));
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public synchronized Optional<Product> findById(String productId) {
+        return productId == null ? Optional.empty() : Optional.ofNullable(byId.get(productId));
+    }
+
+    public synchronized Optional<Product> findByIdIgnoreCase(String productId) {
+        return productId == null ? Optional.empty() : Optional.ofNullable(byFoldedId.get(foldId(productId)));
+    }
+
+    public synchronized Optional<Product> findByName(String name) {
+        String nameKey = normalizeName(name);
+        return nameKey == null ? Optional.empty() : Optional.ofNullable(byName.get(nameKey));
+    }
+
+    /**
+     * Up to `limit` products whose ID or name starts with or contains the query, best first.
+     */
+    public List<Product> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Returns a copy of all products in insertion order.
+     */
+    public synchronized List<Product> getAll() {
+        return new ArrayList<>(byId.values());
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private static String foldId(String productId) {
+        return productId.toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeName(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
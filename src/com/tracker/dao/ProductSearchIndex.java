@@ -0,0 +1,432 @@
+package com.tracker.dao;
+
+import com.tracker.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Autocomplete index over product IDs and names (case-folded), kept up to date by
+ * ProductRepository on every put and remove.
+ *
+ * - A prefix trie over the ID, the whole name and each word of the name answers
+ *   "starts with" queries by walking to the query's node and listing its subtree in
+ *   alphabetical order, stopping as soon as enough products are found. Terms are
+ *   cut at MAX_DEPTH characters to keep the trie small; longer queries go to the
+ *   trigrams, which are selective enough at that length.
+ * - Trigram postings (sorted product numbers per three-character sequence) answer
+ *   "contains" queries: the postings of the query's trigrams are intersected and the
+ *   few remaining candidates are checked directly.
+ *
+ * Results are ranked: exact ID, ID prefix, name prefix, word prefix, then substring
+ * matches. Methods are synchronized, so searches may run on a background thread
+ * while the catalog is edited.
+ */
+public class ProductSearchIndex {
+
+    private static final int RANK_EXACT_ID = 0;
+    private static final int RANK_ID_PREFIX = 1;
+    private static final int RANK_NAME_PREFIX = 2;
+    private static final int RANK_WORD_PREFIX = 3;
+    private static final int RANK_SUBSTRING = 4;
+
+    // Trie depth; 100k SKUs need a few hundred thousand nodes instead of millions
+    private static final int MAX_DEPTH = 6;
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_DOCS = new int[0];
+
+    /**
+     * Trie node; children sorted by character so a walk lists terms alphabetically.
+     */
+    private static final class Node {
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        int[] docs = NO_DOCS; // Products whose (cut-off) term ends here
+        int docCount;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node node = new Node();
+            labels = insert(labels, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = node;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return node;
+        }
+
+        private static char[] insert(char[] array, int at, char c) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = c;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+
+    /**
+     * Growable sorted list of product numbers.
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            // Product numbers only grow, so appending keeps the list sorted
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+                size--;
+            }
+        }
+
+        /**
+         * First index at or after `from` holding a number >= doc (galloping search, so
+         * probing candidates in increasing order costs little per probe).
+         */
+        int seek(int from, int doc) {
+            int step = 1;
+            int hi = from;
+            while (hi < size && docs[hi] < doc) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int i = Arrays.binarySearch(docs, from, Math.min(hi + 1, size), doc);
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+
+    private final Node root = new Node();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    // Product number -> product and the folded strings it was indexed under (null once removed)
+    private final List<Product> products = new ArrayList<>();
+    private final List<String> foldedIds = new ArrayList<>();
+    private final List<String> foldedNames = new ArrayList<>();
+    private final Map<String, Integer> docById = new HashMap<>();
+    private final Map<String, Integer> docByFoldedId = new HashMap<>();
+
+    public synchronized void add(Product product) {
+        String id = product.getProductID();
+        String foldedId = fold(id);
+        String foldedName = fold(product.getName());
+        Integer existing = docById.get(id);
+        if (existing != null) {
+            if (foldedId.equals(foldedIds.get(existing)) && foldedName.equals(foldedNames.get(existing))) {
+                products.set(existing, product); // Nothing searchable changed (stock, prices)
+                return;
+            }
+            remove(id);
+        }
+
+        int doc = products.size();
+        products.add(product);
+        foldedIds.add(foldedId);
+        foldedNames.add(foldedName);
+        docById.put(id, doc);
+        docByFoldedId.putIfAbsent(foldedId, doc);
+
+        for (String term : terms(foldedId, foldedName)) {
+            Node node = root;
+            for (int i = 0; i < Math.min(term.length(), MAX_DEPTH); i++) {
+                node = node.childOrCreate(term.charAt(i));
+            }
+            if (containsDoc(node, doc)) {
+                continue; // Two terms with the same cut-off prefix
+            }
+            if (node.docCount == node.docs.length) {
+                node.docs = Arrays.copyOf(node.docs, Math.max(2, node.docCount * 2));
+            }
+            node.docs[node.docCount++] = doc;
+        }
+        for (long trigram : trigramsOf(foldedId, foldedName)) {
+            trigrams.computeIfAbsent(trigram, t -> new Postings()).add(doc);
+        }
+    }
+
+    public synchronized void remove(String productId) {
+        Integer doc = docById.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        String foldedId = foldedIds.get(doc);
+        String foldedName = foldedNames.get(doc);
+        if (Integer.valueOf(doc).equals(docByFoldedId.get(foldedId))) {
+            docByFoldedId.remove(foldedId);
+        }
+
+        for (String term : terms(foldedId, foldedName)) {
+            Node node = root;
+            for (int i = 0; i < Math.min(term.length(), MAX_DEPTH) && node != null; i++) {
+                node = node.child(term.charAt(i));
+            }
+            if (node != null) {
+                removeDoc(node, doc);
+            }
+        }
+        for (long trigram : trigramsOf(foldedId, foldedName)) {
+            Postings postings = trigrams.get(trigram);
+            if (postings != null) {
+                postings.remove(doc);
+                if (postings.size == 0) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+        // The number is not reused, so postings stay sorted by appending
+        products.set(doc, null);
+        foldedIds.set(doc, null);
+        foldedNames.set(doc, null);
+    }
+
+    /**
+     * Up to `limit` products whose ID or name starts with or contains the query (ignoring
+     * case), best matches first. An empty query lists the catalog in insertion order.
+     */
+    public synchronized List<Product> search(String query, int limit) {
+        String q = fold(query);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Set<Integer> found = new LinkedHashSet<>();
+        if (q.isEmpty()) {
+            for (int doc = 0; doc < products.size() && found.size() < limit; doc++) {
+                if (products.get(doc) != null) {
+                    found.add(doc);
+                }
+            }
+            return toProducts(found);
+        }
+
+        Integer exact = docByFoldedId.get(q);
+        if (exact != null) {
+            found.add(exact);
+        }
+        if (q.length() <= MAX_DEPTH) {
+            Node node = root;
+            for (int i = 0; i < q.length() && node != null; i++) {
+                node = node.child(q.charAt(i));
+            }
+            if (node != null) {
+                collect(node, found, limit);
+            }
+            if (found.size() < limit) {
+                collectSubstrings(q, found, limit);
+            }
+        } else {
+            // Beyond the trie's depth the trigrams are more selective: take every
+            // candidate (prefix matches included) and let the ranking pick the best
+            collectSubstrings(q, found, Integer.MAX_VALUE);
+        }
+
+        // Stable sort by rank: within a rank, alphabetical (prefixes) or catalog order (substrings)
+        int[] docs = new int[found.size()];
+        long[] keys = new long[docs.length];
+        int n = 0;
+        for (int doc : found) {
+            docs[n] = doc;
+            keys[n] = ((long) rank(doc, q) << 32) | n;
+            n++;
+        }
+        Arrays.sort(keys);
+        List<Integer> ranked = new ArrayList<>(Math.min(n, limit));
+        for (int i = 0; i < n && i < limit; i++) {
+            ranked.add(docs[(int) keys[i]]);
+        }
+        return toProducts(ranked);
+    }
+
+    public synchronized int size() {
+        return docById.size();
+    }
+
+    // --- Query helpers ---
+
+    /**
+     * Adds the products under this node, alphabetically by term, until `limit` are found.
+     */
+    private void collect(Node node, Set<Integer> found, int limit) {
+        for (int i = 0; i < node.docCount && found.size() < limit; i++) {
+            found.add(node.docs[i]);
+        }
+        for (int i = 0; i < node.children.length && found.size() < limit; i++) {
+            collect(node.children[i], found, limit);
+        }
+    }
+
+    private void collectSubstrings(String q, Set<Integer> found, int limit) {
+        if (q.length() < 3) {
+            // Too short for trigrams; such queries nearly always fill up on prefixes first
+            for (int doc = 0; doc < products.size() && found.size() < limit; doc++) {
+                if (products.get(doc) != null && containsQuery(doc, q)) {
+                    found.add(doc);
+                }
+            }
+            return;
+        }
+        // Walk the shortest postings list and probe the others
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Postings postings = trigrams.get(trigram(q, i));
+            if (postings == null) {
+                return; // Some trigram occurs nowhere: no substring matches
+            }
+            lists.add(postings);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings shortest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        for (int i = 0; i < shortest.size && found.size() < limit; i++) {
+            int doc = shortest.docs[i];
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                Postings postings = lists.get(j);
+                cursors[j] = postings.seek(cursors[j], doc);
+                inAll = cursors[j] < postings.size && postings.docs[cursors[j]] == doc;
+            }
+            if (!inAll || found.contains(doc)) {
+                continue;
+            }
+            // Trigrams may match in a different order; confirm the real substring
+            if (containsQuery(doc, q)) {
+                found.add(doc);
+            }
+        }
+    }
+
+    private boolean containsQuery(int doc, String q) {
+        return foldedNames.get(doc).contains(q) || foldedIds.get(doc).contains(q);
+    }
+
+    private int rank(int doc, String q) {
+        String foldedId = foldedIds.get(doc);
+        String foldedName = foldedNames.get(doc);
+        if (foldedId.equals(q)) {
+            return RANK_EXACT_ID;
+        }
+        if (foldedId.startsWith(q)) {
+            return RANK_ID_PREFIX;
+        }
+        if (foldedName.startsWith(q)) {
+            return RANK_NAME_PREFIX;
+        }
+        // A word prefix: the query found right after a non-word character
+        for (int i = foldedName.indexOf(q, 1); i > 0; i = foldedName.indexOf(q, i + 1)) {
+            if (!Character.isLetterOrDigit(foldedName.charAt(i - 1))) {
+                return RANK_WORD_PREFIX;
+            }
+        }
+        return RANK_SUBSTRING;
+    }
+
+    private List<Product> toProducts(Iterable<Integer> docs) {
+        List<Product> result = new ArrayList<>();
+        for (int doc : docs) {
+            result.add(products.get(doc));
+        }
+        return result;
+    }
+
+    // --- Terms ---
+
+    private static boolean containsDoc(Node node, int doc) {
+        // Docs are appended in increasing order, so only the last one can be this product
+        return node.docCount > 0 && node.docs[node.docCount - 1] == doc;
+    }
+
+    private static void removeDoc(Node node, int doc) {
+        for (int i = 0; i < node.docCount; i++) {
+            if (node.docs[i] == doc) {
+                System.arraycopy(node.docs, i + 1, node.docs, i, node.docCount - i - 1);
+                node.docCount--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Trie terms of a product: its ID, its whole name and each word of the name.
+     */
+    private static Set<String> terms(String foldedId, String foldedName) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (!foldedId.isEmpty()) {
+            terms.add(foldedId);
+        }
+        if (!foldedName.isEmpty()) {
+            terms.add(foldedName);
+        }
+        terms.addAll(words(foldedName));
+        return terms;
+    }
+
+    private static List<String> words(String foldedName) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= foldedName.length(); i++) {
+            boolean wordChar = i < foldedName.length() && Character.isLetterOrDigit(foldedName.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(foldedName.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Distinct trigrams of the ID and name, sorted (a primitive array: this runs for
+     * every product when the catalog is loaded).
+     */
+    private static long[] trigramsOf(String foldedId, String foldedName) {
+        long[] result = new long[Math.max(0, foldedId.length() - 2) + Math.max(0, foldedName.length() - 2)];
+        int n = 0;
+        for (String text : new String[] {foldedId, foldedName}) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                result[n++] = trigram(text, i);
+            }
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    // Three UTF-16 chars packed into one long key
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    private static String fold(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,7 @@
 package com.tracker.dao;
 
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
 import com.tracker.model.Purchase;
 import java.util.List;
 
@@ -9,10 +11,14 @@ import java.util.List;
 public class PurchaseDAO {
 
     private static final String FILE_PATH = "data/purchases.dat";
+    private static final Timer LOAD_TIMER = Metrics.timer("dao.purchases.load");
+    private static final Timer SAVE_TIMER = Metrics.timer("dao.purchases.save");
     private List<Purchase> purchases;
 
     public PurchaseDAO() {
+        long start = System.nanoTime();
         this.purchases = FileStorageUtil.loadData(FILE_PATH);
+        LOAD_TIMER.record(System.nanoTime() - start);
     }
     
     public void addPurchase(Purchase purchase) {
@@ -25,6 +31,8 @@ public class PurchaseDAO {
     }
 
     public void savePurchases() {
-        FileStorageUtil.saveData(this.purchases, FILE_PATH);
+        long start = System.nanoTime();
+        PersistenceExecutor.getInstance().saveData(this.purchases, FILE_PATH);
+        SAVE_TIMER.record(System.nanoTime() - start);
     }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.tracker.dao;
+
+import com.tracker.model.IdGenerator;
+import com.tracker.model.Sale;
+import com.tracker.model.SalesTransaction;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hand-written, versioned binary format for SalesTransaction records.
+ *
+ * Record layout (version 1):
+ *   tag 'T', version, id, dateTime, timestamp, paymentMethod, userRef,
+ *   calculatedTotal, saleCount, then per Sale: id, productRef, quantity, unitSalePrice, unitCostPrice.
+ * IDs from IdGenerator are packed as one long and legacy UUIDs as two; product IDs
+ * and users are dictionary references (see SalesDictionary); counts and quantities
+ * are varints. (ID_COMPACT was added within version 1; older builds cannot read it.)
+ */
+public final class SalesCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int TAG_TRANSACTION = 'T';
+
+    // ID encodings
+    private static final int ID_NULL = 0;
+    private static final int ID_UUID = 1;
+    private static final int ID_STRING = 2;
+    private static final int ID_COMPACT = 3;
+
+    private SalesCodec() {}
+
+    /**
+     * @throws IOException If a new dictionary entry for the record could not be written.
+     */
+    public static byte[] encode(SalesTransaction transaction, SalesDictionary dictionary) throws IOException {
+        BinaryWriter out = new BinaryWriter(64 + transaction.getSales().size() * 32);
+        out.writeByte(TAG_TRANSACTION);
+        out.writeByte(FORMAT_VERSION);
+        writeId(out, transaction.getTransactionID());
+        writeDateTime(out, transaction.getDateTime());
+        writeDateTime(out, transaction.getTimestamp());
+        out.writeString(transaction.getPaymentMethod());
+        out.writeVarInt(dictionary.userRef(transaction.getUser()));
+        out.writeMoney(transaction.getCalculatedTotal());
+
+        List<Sale> sales = transaction.getSales();
+        out.writeVarInt(sales.size());
+        for (Sale sale : sales) {
+            writeId(out, sale.getSaleID());
+            out.writeVarInt(dictionary.productRef(sale.getProductID()));
+            out.writeSignedVarLong(sale.getQuantitySold());
+            out.writeMoney(sale.getUnitSalePrice());
+            out.writeMoney(sale.getUnitCostPrice());
+        }
+        return out.toByteArray();
+    }
+
+    public static SalesTransaction decode(byte[] payload, SalesDictionary dictionary) throws IOException {
+        BinaryReader in = new BinaryReader(payload);
+        if (in.readByte() != TAG_TRANSACTION) {
+            throw new IOException("Not a sales transaction record");
+        }
+        int version = in.readByte();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Unsupported sales record version " + version);
+        }
+
+        String transactionID = readId(in);
+        LocalDateTime dateTime = readDateTime(in);
+        LocalDateTime timestamp = readDateTime(in);
+        String paymentMethod = in.readString();
+        int userRef = in.readVarInt();
+        double calculatedTotal = in.readMoney();
+
+        int saleCount = in.readVarInt();
+        List<Sale> sales = new ArrayList<>(saleCount);
+        for (int i = 0; i < saleCount; i++) {
+            String saleID = readId(in);
+            String productID = dictionary.productId(in.readVarInt());
+            int quantity = (int) in.readSignedVarLong();
+            double unitSalePrice = in.readMoney();
+            double unitCostPrice = in.readMoney();
+            sales.add(new Sale(saleID, productID, quantity, unitSalePrice, unitCostPrice));
+        }
+
+        return new SalesTransaction(transactionID, dictionary.user(userRef), paymentMethod,
+                                    dateTime, timestamp, sales, calculatedTotal);
+    }
+
+    // --- Field encodings ---
+
+    static void writeId(BinaryWriter out, String id) {
+        if (id == null) {
+            out.writeByte(ID_NULL);
+            return;
+        }
+        if (IdGenerator.isId(id)) {
+            out.writeByte(ID_COMPACT);
+            out.writeLong(IdGenerator.parse(id));
+            return;
+        }
+        UUID uuid = parseCanonicalUuid(id);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_STRING);
+            out.writeString(id);
+        }
+    }
+
+    static String readId(BinaryReader in) throws IOException {
+        int kind = in.readByte();
+        switch (kind) {
+            case ID_NULL:
+                return null;
+            case ID_UUID:
+                return new UUID(in.readLong(), in.readLong()).toString();
+            case ID_STRING:
+                return in.readString();
+            case ID_COMPACT:
+                return IdGenerator.format(in.readLong());
+            default:
+                throw new IOException("Unknown ID encoding " + kind);
+        }
+    }
+
+    private static void writeDateTime(BinaryWriter out, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeSignedVarLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        out.writeVarInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime readDateTime(BinaryReader in) throws IOException {
+        if (in.readByte() == 0) {
+            return null;
+        }
+        long epochSecond = in.readSignedVarLong();
+        int nano = in.readVarInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the UUID only if the string is its canonical lower-case form,
+     * so that decoding gives back exactly the same string.
+     */
+    private static UUID parseCanonicalUuid(String id) {
+        if (id.length() != 36 || id.charAt(8) != '-' || id.charAt(13) != '-'
+                || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
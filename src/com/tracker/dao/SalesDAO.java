@@ -1,50 +1,742 @@
 package com.tracker.dao;
 
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
+import com.tracker.model.IdGenerator;
 import com.tracker.model.SalesTransaction;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Handles persistence for SalesTransaction objects (the Sales DB store).
+ * Sales are partitioned by date into segment files (one append-only journal per
+ * month by default) plus a small manifest holding each segment's min/max date.
+ * Segments are only read from disk when a query needs them, so a short-range
+ * report opens one or two segments instead of the whole history.
+ * Records use the compact binary SalesCodec format; product IDs and users are
+ * stored once in a shared SalesDictionary.
+ * New sales arrive through the TransactionJournal: they are applied in memory
+ * first and moved into their segment files at the next checkpoint. Only sales that
+ * are not yet in their segment file are kept in memory; segments themselves are
+ * never cached.
+ * In-memory state is guarded by this object's monitor. Readers copy what they need
+ * under the lock (the segment's written length and its unwritten sales) and decode
+ * the file outside it, so a long read does not hold up applyRecord and with it checkout.
  */
 public class SalesDAO {
 
+    // Legacy storage (whole List snapshot, then a single journal). Only read for migration.
     private static final String FILE_PATH = "data/sales.dat";
-    private List<SalesTransaction> transactions;
+    private static final String JOURNAL_PATH = "data/sales.journal";
+
+    private static final String SEGMENT_DIR = "data/sales/";
+    private static final String MANIFEST_PATH = SEGMENT_DIR + "manifest.dat";
+    private static final String DICTIONARY_PATH = SEGMENT_DIR + "dictionary.dict";
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final String LEGACY_SEGMENT_EXTENSION = ".journal";
+    private static final String UNDATED_SEGMENT = "undated";
+
+    private static final Timer OPEN_TIMER = Metrics.timer("dao.sales.open");
+    private static final Timer SEGMENT_LOAD_TIMER = Metrics.timer("dao.sales.loadSegment");
+    private static final Timer CHECKPOINT_TIMER = Metrics.timer("dao.sales.checkpoint");
+    private static final Timer IMPORT_TIMER = Metrics.timer("dao.sales.import");
+
+    private SalesSegmentManifest manifest;
+    private final SalesDictionary dictionary;
+    // Encoded records applied in memory but not yet written to their segment, keyed by segment key
+    private final Map<String, List<byte[]>> pendingRecords = new TreeMap<>();
+    // Sales applied in memory whose records are not yet in their segment file: pending, or
+    // being appended by a checkpoint. In order of application, keyed by segment key.
+    private final Map<String, List<SalesTransaction>> unwrittenSales = new HashMap<>();
+    // Bytes of the segment file known to be written, for segments whose manifest length
+    // already counts an append that has not landed yet
+    private final Map<String, Long> writtenLengths = new HashMap<>();
+    // Last journal record applied to this store (in memory)
+    private long appliedLsn;
+    // Bumped on every change to the store; cached reports compare it (see ReportCache)
+    private final AtomicLong version = new AtomicLong();
+
+    // Newest segments first; the legacy undated segment sorts as the oldest
+    private static final Comparator<SalesSegment> HISTORY_ORDER = Comparator
+            .comparing(SalesSegment::getMaxDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(SalesSegment::getKey);
+    // The matching transactions of the segment the history pager read last, in date order,
+    // so scrolling through one segment does not decode it again for every page
+    private String historySegmentKey;
+    private SalesQuery historyQuery;
+    private int historyRecordCount;
+    private List<SalesTransaction> historyRows;
 
     public SalesDAO() {
-        this.transactions = FileStorageUtil.loadData(FILE_PATH);
+        this(PartitionScheme.MONTHLY);
+    }
+
+    /**
+     * @param scheme How to partition sales into segment files. If the store on disk
+     *               uses a different scheme, it is repartitioned once.
+     */
+    public SalesDAO(PartitionScheme scheme) {
+        long start = System.nanoTime();
+        this.manifest = FileStorageUtil.loadObject(MANIFEST_PATH);
+        this.dictionary = new SalesDictionary(DICTIONARY_PATH);
+
+        if (this.manifest == null) {
+            // First start after upgrade: migrate the legacy files into segments once.
+            List<SalesTransaction> legacy = new File(JOURNAL_PATH).exists()
+                    ? FileStorageUtil.loadRecords(JOURNAL_PATH)
+                    : FileStorageUtil.loadData(FILE_PATH);
+            rebuildSegments(legacy, scheme);
+        } else if (this.manifest.getFormatVersion() != SalesCodec.FORMAT_VERSION) {
+            // Segments written with Java serialization: re-encode them in the binary format
+            List<SalesTransaction> legacy = new ArrayList<>();
+            for (SalesSegment segment : manifest.getSegments()) {
+                legacy.addAll(FileStorageUtil.loadRecords(SEGMENT_DIR + segment.getKey() + LEGACY_SEGMENT_EXTENSION));
+            }
+            rebuildSegments(legacy, scheme);
+        } else {
+            this.appliedLsn = manifest.getCheckpointLsn();
+            recoverSegments();
+            if (this.manifest.getScheme() != scheme) {
+                rebuildSegments(getAllTransactions(), scheme);
+            }
+        }
+        OPEN_TIMER.record(System.nanoTime() - start);
     }
-    
+
     // Corresponds to 'insertSaleRecord' in the Sequence Diagram
+    // Writes the sale straight to its segment; the normal sale path goes through TransactionJournal.
     public void addTransaction(SalesTransaction transaction) {
-        this.transactions.add(transaction);
-        saveTransactions();
+        byte[] record;
+        try {
+            record = encodeRecord(transaction);
+        } catch (IOException e) {
+            System.err.println("Error saving sale " + transaction.getTransactionID() + ": " + e.getMessage());
+            return;
+        }
+        applyRecord(transaction, record, appliedLsn);
+        checkpoint();
+    }
+
+    /**
+     * Applies a journaled sale in memory only. Its segment record is written by the next checkpoint().
+     * @param record The sale as encoded by encodeRecord (the bytes stored in the journal).
+     * @param lsn The journal record's sequence number.
+     */
+    public synchronized void applyRecord(SalesTransaction transaction, byte[] record, long lsn) {
+        LocalDate date = dateOf(transaction);
+        String key = segmentKeyFor(date);
+
+        // Kept in memory until the record is in the segment file, so reads see the sale
+        unwrittenSales.computeIfAbsent(key, k -> new ArrayList<>()).add(transaction);
+        pendingRecords.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+        manifest.getOrCreate(key).recordAppended(date);
+        appliedLsn = Math.max(appliedLsn, lsn);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Takes back a sale applied by applyRecord whose journal record never became durable
+     * (see TransactionJournal.rollBackSale). Its segment record is still pending, since
+     * the journal does not checkpoint while a failed sale is applied.
+     * @param record The same array that was passed to applyRecord.
+     */
+    public synchronized void revertRecord(SalesTransaction transaction, byte[] record) {
+        String key = segmentKeyFor(dateOf(transaction));
+        List<SalesTransaction> unwritten = unwrittenSales.get(key);
+        if (unwritten != null && unwritten.removeIf(t -> t == transaction) && unwritten.isEmpty()) {
+            unwrittenSales.remove(key);
+        }
+        List<byte[]> pending = pendingRecords.get(key);
+        if (pending != null && pending.removeIf(r -> r == record)) {
+            if (pending.isEmpty()) {
+                pendingRecords.remove(key);
+            }
+            manifest.getOrCreate(key).recordRemoved();
+        }
+        historyRows = null;
+        historySegmentKey = null;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Appends the pending records to their segments (one append per segment) and then
+     * saves the manifest, which is the commit point: on startup, segment bytes beyond
+     * the manifest's recorded length are discarded.
+     * The writes are queued on the PersistenceExecutor, in that order; if an append fails,
+     * the manifest is not written (see PersistenceExecutor.saveCommitObject).
+     */
+    public synchronized void checkpoint() {
+        if (pendingRecords.isEmpty() && manifest.getCheckpointLsn() == appliedLsn) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (Map.Entry<String, List<byte[]>> entry : pendingRecords.entrySet()) {
+            String key = entry.getKey();
+            SalesSegment segment = manifest.getOrCreate(key);
+            // Until the append lands, readers stop at the bytes already in the file
+            writtenLengths.putIfAbsent(key, segment.getByteLength());
+            long length = segment.getByteLength();
+            for (byte[] record : entry.getValue()) {
+                length += FileStorageUtil.frameSize(record);
+            }
+            // Only the new records are written; commit cost does not grow with history.
+            List<byte[]> records = entry.getValue();
+            // The pending records are the newest of the segment's unwritten sales
+            List<SalesTransaction> unwritten = unwrittenSales.get(key);
+            List<SalesTransaction> sales =
+                    new ArrayList<>(unwritten.subList(unwritten.size() - records.size(), unwritten.size()));
+            String path = segmentPath(key);
+            PersistenceExecutor.getInstance().execute(() -> {
+                try {
+                    FileStorageUtil.appendFrames(records, path);
+                } catch (IOException e) {
+                    // Fails the executor, so the manifest below is not written and the journal is kept.
+                    // The sales stay in memory, so reads still see them.
+                    throw new UncheckedIOException("Error appending sales to " + path, e);
+                }
+                written(key, sales, new File(path).length());
+            });
+            segment.setByteLength(length);
+        }
+        pendingRecords.clear();
+        manifest.setCheckpointLsn(appliedLsn);
+        PersistenceExecutor.getInstance().saveCommitObject(manifest, MANIFEST_PATH);
+        CHECKPOINT_TIMER.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Called by a checkpoint's append task once the sales are in the segment file, which is
+     * now fileLength bytes long (appends to it only come from the same task queue).
+     */
+    private synchronized void written(String key, List<SalesTransaction> sales, long fileLength) {
+        List<SalesTransaction> unwritten = unwrittenSales.get(key);
+        if (unwritten == null) {
+            return;
+        }
+        Set<SalesTransaction> appended = Collections.newSetFromMap(new IdentityHashMap<>());
+        appended.addAll(sales);
+        unwritten.removeIf(appended::contains);
+        if (unwritten.isEmpty()) {
+            unwrittenSales.remove(key);
+            writtenLengths.remove(key);
+        } else {
+            writtenLengths.put(key, fileLength);
+        }
+    }
+
+    /**
+     * Last journal record contained in this store, including records not yet checkpointed.
+     */
+    public long getAppliedLsn() {
+        return appliedLsn;
+    }
+
+    /**
+     * Monotonic counter of writes to the store: any sale applied (or a rebuild) increases it.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Encodes a sale in the segment record format (registering its product IDs and
+     * user in the dictionary).
+     * @throws IOException If a new dictionary entry could not be written.
+     */
+    public byte[] encodeRecord(SalesTransaction transaction) throws IOException {
+        return SalesCodec.encode(transaction, dictionary);
+    }
+
+    public SalesTransaction decodeRecord(byte[] record) throws IOException {
+        return SalesCodec.decode(record, dictionary);
     }
 
     // Corresponds to 'Fetch Sales Records' in the Sequence Diagram
     public List<SalesTransaction> getAllTransactions() {
-        return transactions;
+        List<SegmentSnapshot> segments = new ArrayList<>();
+        int recordCount;
+        synchronized (this) {
+            recordCount = manifest.getTotalRecordCount();
+            for (SalesSegment segment : manifest.getSegments()) {
+                segments.add(snapshot(segment.getKey()));
+            }
+        }
+        List<SalesTransaction> all = new ArrayList<>(recordCount);
+        for (SegmentSnapshot segment : segments) {
+            segment.forEach(all::add);
+        }
+        return all;
+    }
+
+    /**
+     * Streams every transaction to the action, segment by segment, without keeping
+     * the segments in memory.
+     */
+    public void forEachTransaction(Consumer<SalesTransaction> action) {
+        for (String key : segmentKeys()) {
+            snapshot(key).forEach(action);
+        }
+    }
+
+    private synchronized List<String> segmentKeys() {
+        List<String> keys = new ArrayList<>(manifest.getSegments().size());
+        for (SalesSegment segment : manifest.getSegments()) {
+            keys.add(segment.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * One segment as a reader sees it, taken under the lock and decoded outside it:
+     * the records written to its file so far, then its sales still held in memory.
+     */
+    private final class SegmentSnapshot {
+        final String path;
+        final long writtenLength;
+        final List<SalesTransaction> unwritten;
+
+        SegmentSnapshot(String path, long writtenLength, List<SalesTransaction> unwritten) {
+            this.path = path;
+            this.writtenLength = writtenLength;
+            this.unwritten = unwritten;
+        }
+
+        SalesRecordReader openFile() {
+            return new SalesRecordReader(path, writtenLength, dictionary);
+        }
+
+        void forEach(Consumer<SalesTransaction> action) {
+            long start = System.nanoTime();
+            try (SalesRecordReader reader = openFile()) {
+                reader.forEachRemaining(action);
+            }
+            SEGMENT_LOAD_TIMER.record(System.nanoTime() - start);
+            unwritten.forEach(action);
+        }
+    }
+
+    private synchronized SegmentSnapshot snapshot(String key) {
+        List<SalesTransaction> unwritten = unwrittenSales.get(key);
+        long written = writtenLengths.getOrDefault(key, manifest.getOrCreate(key).getByteLength());
+        return new SegmentSnapshot(segmentPath(key), written,
+                unwritten == null ? Collections.emptyList() : new ArrayList<>(unwritten));
+    }
+
+    /**
+     * Bulk load for dataset generators and benchmarks: appends the transactions straight to
+     * their segment files and commits the manifest, bypassing the TransactionJournal. Nothing
+     * of the batch is kept in memory, so any amount of history can be imported by calling
+     * this once per batch. Not for use while sales are being recorded; stock and
+     * the daily rollup are not touched (the rollup is rebuilt from the store on next start).
+     * @throws UncheckedIOException If the dictionary could not be written; nothing of the batch is imported.
+     */
+    public void importTransactions(List<SalesTransaction> transactions) {
+        long start = System.nanoTime();
+        checkpoint();
+        // Direct writes below, so everything already queued must land first. Not under the
+        // lock: the queued appends take it when they complete.
+        PersistenceExecutor.getInstance().flush();
+        synchronized (this) {
+            importBatch(transactions);
+        }
+        IMPORT_TIMER.record(System.nanoTime() - start);
+    }
+
+    private void importBatch(List<SalesTransaction> transactions) {
+        // Encoded up front, so a dictionary write failure leaves the store untouched
+        List<byte[]> encoded = new ArrayList<>(transactions.size());
+        try {
+            for (SalesTransaction transaction : transactions) {
+                encoded.add(encodeRecord(transaction));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error importing sales", e);
+        }
+        Map<String, List<byte[]>> records = new TreeMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            SalesTransaction transaction = transactions.get(i);
+            LocalDate date = dateOf(transaction);
+            String key = segmentKeyFor(date);
+            records.computeIfAbsent(key, k -> new ArrayList<>()).add(encoded.get(i));
+            manifest.getOrCreate(key).recordAppended(date);
+        }
+        for (Map.Entry<String, List<byte[]>> entry : records.entrySet()) {
+            SalesSegment segment = manifest.getOrCreate(entry.getKey());
+            long length = segment.getByteLength();
+            for (byte[] record : entry.getValue()) {
+                length += FileStorageUtil.frameSize(record);
+            }
+            String path = segmentPath(entry.getKey());
+            try {
+                FileStorageUtil.appendFrames(entry.getValue(), path);
+            } catch (IOException e) {
+                // The manifest is not saved, so startup cuts off whatever this batch appended
+                throw new UncheckedIOException("Error importing sales", e);
+            }
+            segment.setByteLength(length);
+            if (writtenLengths.containsKey(entry.getKey())) {
+                // Sales from a failed checkpoint append are still in memory: the file ends here now
+                writtenLengths.put(entry.getKey(), new File(path).length());
+            }
+        }
+        FileStorageUtil.saveObject(manifest, MANIFEST_PATH);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Number of transactions in the store, answered from the manifest without reading segments.
+     */
+    public synchronized int getTransactionCount() {
+        return manifest.getTotalRecordCount();
     }
 
+    /**
+     * Rewrites every segment and the manifest from the current data (compaction).
+     * Not needed for normal sales; addTransaction appends instead.
+     */
     public void saveTransactions() {
-        FileStorageUtil.saveData(this.transactions, FILE_PATH);
+        rebuildSegments(getAllTransactions(), manifest.getScheme());
     }
-    
+
+    /**
+     * One page of the sales history, in the query's order (newest first by default), filtered
+     * in the store. Segments are visited one at a time and skipped by their date bounds, so a
+     * page costs about one segment read however long the history is.
+     * @param cursor Null for the first page, else the previous page's getNextCursor().
+     *               A cursor stays valid while new sales are recorded.
+     */
+    public SalesPage getHistoryPage(SalesQuery query, String cursor, int pageSize) {
+        // Segment order is taken under the lock (applyRecord moves the date bounds); the
+        // segments themselves are read outside it, see historyRows
+        List<String> segments = new ArrayList<>();
+        synchronized (this) {
+            List<SalesSegment> matching = new ArrayList<>();
+            for (SalesSegment segment : manifest.getSegments()) {
+                if (query.mayMatch(segment)) {
+                    matching.add(segment);
+                }
+            }
+            matching.sort(query.isNewestFirst() ? HISTORY_ORDER.reversed() : HISTORY_ORDER);
+            for (SalesSegment segment : matching) {
+                segments.add(segment.getKey());
+            }
+        }
+
+        // Cursor: segment key and position in that segment's date-ordered matches. Newest first it is
+        // the exclusive end (new sales go after it), oldest first the next index to return.
+        int segmentIndex = 0;
+        int position = -1;
+        if (cursor != null) {
+            int at = cursor.lastIndexOf('@');
+            segmentIndex = at < 0 ? -1 : segments.indexOf(cursor.substring(0, at));
+            try {
+                position = Integer.parseInt(cursor.substring(at + 1));
+            } catch (NumberFormatException e) {
+                segmentIndex = -1;
+            }
+            if (segmentIndex < 0) {
+                System.err.println("Invalid or outdated sales history cursor: " + cursor);
+                return new SalesPage(new ArrayList<>(), null);
+            }
+        }
+
+        List<SalesTransaction> page = new ArrayList<>(Math.max(0, pageSize));
+        for (; segmentIndex < segments.size(); segmentIndex++, position = -1) {
+            String key = segments.get(segmentIndex);
+            List<SalesTransaction> rows = historyRows(key, query);
+            int i;
+            if (query.isNewestFirst()) {
+                i = position < 0 ? rows.size() : Math.min(position, rows.size());
+                while (i > 0 && page.size() < pageSize) {
+                    page.add(rows.get(--i));
+                }
+            } else {
+                i = Math.max(position, 0);
+                while (i < rows.size() && page.size() < pageSize) {
+                    page.add(rows.get(i++));
+                }
+            }
+            if (page.size() >= pageSize) {
+                boolean more = segmentIndex + 1 < segments.size()
+                        || (query.isNewestFirst() ? i > 0 : i < rows.size());
+                return new SalesPage(page, more ? key + "@" + i : null);
+            }
+        }
+        return new SalesPage(page, null);
+    }
+
+    /**
+     * The segment's transactions matching the query, oldest first. The segment is read for
+     * the call and not kept (only the last one is remembered).
+     * The in-memory state is read under the lock; the segment file is decoded outside it.
+     */
+    private List<SalesTransaction> historyRows(String key, SalesQuery query) {
+        int recordCount;
+        SegmentSnapshot segment;
+        synchronized (this) {
+            recordCount = manifest.getOrCreate(key).getRecordCount();
+            if (key.equals(historySegmentKey) && query.equals(historyQuery) && recordCount == historyRecordCount) {
+                return historyRows;
+            }
+            segment = snapshot(key);
+        }
+        List<SalesTransaction> rows = new ArrayList<>();
+        segment.forEach(t -> {
+            if (query.matches(t)) {
+                rows.add(t);
+            }
+        });
+        // Stable: records of the same instant keep their order of recording
+        rows.sort(Comparator.comparing(SalesTransaction::getDateTime, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        // If a sale arrived meanwhile, the count no longer matches and the next page reads again
+        synchronized (this) {
+            historySegmentKey = key;
+            historyQuery = query;
+            historyRecordCount = recordCount;
+            historyRows = rows;
+        }
+        return rows;
+    }
+
+    /**
+     * Looks a sale up by its transaction ID. IDs from IdGenerator carry the time of the sale,
+     * so only the segments around that day are read; legacy UUID IDs need a full scan.
+     */
+    public Optional<SalesTransaction> findTransaction(String transactionId) {
+        if (transactionId == null) {
+            return Optional.empty();
+        }
+        LocalDate day = null;
+        if (IdGenerator.isId(transactionId)) {
+            long millis = IdGenerator.epochMillisOf(IdGenerator.parse(transactionId));
+            day = Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        List<SegmentSnapshot> segments = new ArrayList<>();
+        synchronized (this) {
+            for (SalesSegment segment : manifest.getSegments()) {
+                // A day either side: the sale's date is taken just after its ID
+                if (day == null || segment.overlaps(day.minusDays(1), day.plusDays(1))) {
+                    segments.add(snapshot(segment.getKey()));
+                }
+            }
+        }
+        for (SegmentSnapshot segment : segments) {
+            for (SalesTransaction t : segment.unwritten) {
+                if (transactionId.equals(t.getTransactionID())) {
+                    return Optional.of(t);
+                }
+            }
+            try (SalesRecordReader reader = segment.openFile()) {
+                SalesTransaction t;
+                while ((t = reader.next()) != null) {
+                    if (transactionId.equals(t.getTransactionID())) {
+                        return Optional.of(t);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
     // Utility for report filtering
     public List<SalesTransaction> getTransactionsByDateRange(java.time.LocalDate startDate, java.time.LocalDate endDate) {
-        return transactions.stream()
-        		.filter(t -> {
-        		    // Check if dateTime is null before calling any method on it
-        		    if (t.getDateTime() == null) {
-        		        // You can log a warning here if you like, but we must skip this record.
-        		        return false; 
-        		    }
-        		    
-        		    // Now safely access the date for filtering
-        		    return t.getDateTime().toLocalDate().isAfter(startDate.minusDays(1)) && 
-        		           t.getDateTime().toLocalDate().isBefore(endDate.plusDays(1));
-        		})
-        		.collect(Collectors.toList());
-    }
-}
\ No newline at end of file
+        List<SegmentSnapshot> segments = new ArrayList<>();
+        synchronized (this) {
+            for (SalesSegment segment : manifest.getSegments()) {
+                // Range pruning: never open a segment whose dates cannot match
+                if (segment.overlaps(startDate, endDate)) {
+                    segments.add(snapshot(segment.getKey()));
+                }
+            }
+        }
+        List<SalesTransaction> result = new ArrayList<>();
+        for (SegmentSnapshot segment : segments) {
+            segment.forEach(t -> {
+                LocalDate date = dateOf(t);
+                // Transactions without a dateTime are legacy records and are skipped
+                if (date != null && !date.isBefore(startDate) && !date.isAfter(endDate)) {
+                    result.add(t);
+                }
+            });
+        }
+        return result;
+    }
+
+    // --- Segment helpers ---
+
+    /**
+     * Brings the segment files back in line with the manifest after a crash: bytes
+     * appended by a checkpoint whose manifest was never saved are cut off, and segment
+     * files the manifest does not know about are removed. Those sales are still in the
+     * TransactionJournal and are re-applied from there.
+     */
+    private void recoverSegments() {
+        boolean tracked = manifest.isByteLengthsTracked();
+        for (SalesSegment segment : manifest.getSegments()) {
+            String path = segmentPath(segment.getKey());
+            if (tracked) {
+                FileStorageUtil.truncate(path, segment.getByteLength());
+            } else {
+                // Manifest from before lengths were recorded: the files are the reference,
+                // once any torn tail has been cut off
+                try (FileStorageUtil.FrameReader reader = FileStorageUtil.recoverFrames(path)) {
+                    while (reader.next() != null) {
+                        // Reading to the end finds the last good frame
+                    }
+                }
+                segment.setByteLength(new File(path).length());
+            }
+        }
+
+        // Segment files of other generations: left over from a rebuild that did not get to
+        // its commit point (new files) or did not get to remove the files it replaced (old ones)
+        deleteSegmentFilesExcept(manifest);
+
+        if (!tracked) {
+            manifest.setByteLengthsTracked(true);
+            FileStorageUtil.saveObject(manifest, MANIFEST_PATH);
+        }
+    }
+
+    /**
+     * Rewrites the store with the given transactions. The new segments are written under new
+     * file names (the next file generation) and made durable, then the new manifest is saved,
+     * which is the commit point; only after that are the old files deleted. A crash or write
+     * error before the commit point leaves the old store as it was (startup removes the
+     * unreferenced new files).
+     * @throws UncheckedIOException If the dictionary, a segment or the manifest could not be
+     *                              written; the store on disk is unchanged.
+     */
+    private void rebuildSegments(List<SalesTransaction> transactions, PartitionScheme scheme) {
+        // Writes and deletes files directly, so queued writes to them must land first
+        PersistenceExecutor.getInstance().flush();
+        SalesSegmentManifest newManifest = new SalesSegmentManifest(scheme, SalesCodec.FORMAT_VERSION);
+        newManifest.setByteLengthsTracked(true);
+        newManifest.setCheckpointLsn(appliedLsn);
+        newManifest.setFileGeneration(manifest == null ? 1 : manifest.getFileGeneration() + 1);
+        Map<String, List<SalesTransaction>> partitions = new TreeMap<>();
+        for (SalesTransaction t : transactions) {
+            LocalDate date = dateOf(t);
+            String key = date == null ? UNDATED_SEGMENT : scheme.segmentKey(date);
+            partitions.computeIfAbsent(key, k -> new ArrayList<>()).add(t);
+            newManifest.getOrCreate(key).recordAppended(date);
+        }
+
+        // Everything is encoded before the first file is replaced, so a dictionary write
+        // failure leaves the old store as it was
+        Map<String, List<byte[]>> encoded = new TreeMap<>();
+        try {
+            for (Map.Entry<String, List<SalesTransaction>> entry : partitions.entrySet()) {
+                List<byte[]> records = new ArrayList<>(entry.getValue().size());
+                for (SalesTransaction t : entry.getValue()) {
+                    records.add(SalesCodec.encode(t, dictionary));
+                }
+                encoded.put(entry.getKey(), records);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error rebuilding sales segments", e);
+        }
+        // 1. The new segments, next to the old ones, in one durable commit
+        FileStorageUtil.WriteBatch segments = FileStorageUtil.beginBatch();
+        try {
+            for (Map.Entry<String, List<byte[]>> entry : encoded.entrySet()) {
+                long length = 0;
+                for (byte[] record : entry.getValue()) {
+                    length += FileStorageUtil.frameSize(record);
+                }
+                FileStorageUtil.writeFrames(entry.getValue(), segmentPath(newManifest, entry.getKey()));
+                newManifest.getOrCreate(entry.getKey()).setByteLength(length);
+            }
+        } finally {
+            segments.close();
+        }
+        if (segments.hasFailed()) {
+            deleteSegmentFilesExcept(manifest);
+            throw new UncheckedIOException("Error rebuilding sales segments",
+                    new IOException("A new segment file could not be written"));
+        }
+
+        // 2. The commit point: from here on the new files are the store
+        FileStorageUtil.WriteBatch commit = FileStorageUtil.beginBatch();
+        try {
+            FileStorageUtil.saveObject(newManifest, MANIFEST_PATH);
+        } finally {
+            commit.close();
+        }
+        if (commit.hasFailed()) {
+            deleteSegmentFilesExcept(manifest);
+            throw new UncheckedIOException("Error rebuilding sales segments",
+                    new IOException("The new manifest could not be written"));
+        }
+
+        // 3. The old files (including legacy-format ones) are no longer referenced
+        deleteSegmentFilesExcept(newManifest);
+
+        this.manifest = newManifest;
+        this.pendingRecords.clear();
+        this.unwrittenSales.clear();
+        this.writtenLengths.clear();
+        this.historyRows = null;
+        this.historySegmentKey = null;
+        version.incrementAndGet();
+    }
+
+    private String segmentKeyFor(LocalDate date) {
+        return date == null ? UNDATED_SEGMENT : manifest.getScheme().segmentKey(date);
+    }
+
+    private String segmentPath(String key) {
+        return segmentPath(manifest, key);
+    }
+
+    private static String segmentPath(SalesSegmentManifest manifest, String key) {
+        int generation = manifest.getFileGeneration();
+        return SEGMENT_DIR + key + (generation == 0 ? "" : ".g" + generation) + SEGMENT_EXTENSION;
+    }
+
+    /**
+     * Deletes every segment file (current or legacy format) that the manifest does not
+     * reference; with a null manifest, every segment file.
+     */
+    private static void deleteSegmentFilesExcept(SalesSegmentManifest manifest) {
+        Set<String> keep = new HashSet<>();
+        if (manifest != null) {
+            boolean legacy = manifest.getFormatVersion() != SalesCodec.FORMAT_VERSION;
+            for (SalesSegment segment : manifest.getSegments()) {
+                keep.add(legacy ? segment.getKey() + LEGACY_SEGMENT_EXTENSION
+                        : new File(segmentPath(manifest, segment.getKey())).getName());
+            }
+        }
+        File[] existing = new File(SEGMENT_DIR).listFiles((dir, name) ->
+                name.endsWith(SEGMENT_EXTENSION) || name.endsWith(LEGACY_SEGMENT_EXTENSION));
+        if (existing != null) {
+            for (File file : existing) {
+                if (!keep.contains(file.getName())) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private static LocalDate dateOf(SalesTransaction transaction) {
+        return transaction.getDateTime() == null ? null : transaction.getDateTime().toLocalDate();
+    }
+}
@@ -0,0 +1,142 @@
+package com.tracker.dao;
+
+import com.tracker.model.ShopKeeper;
+import com.tracker.model.Staff;
+import com.tracker.model.User;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared dictionary for the binary sales format. Product IDs and users are written
+ * once to an append-only dictionary journal and referenced from sales records by a
+ * small integer, instead of repeating the strings (or a whole serialized User,
+ * password included) in every record.
+ * Thread-safe: SalesDAO decodes segments outside its own lock while sales are encoded.
+ */
+public class SalesDictionary {
+
+    private static final int TAG_PRODUCT = 1;
+    private static final int TAG_USER = 2;
+
+    private final String filePath;
+    private final List<String> productIds = new ArrayList<>();
+    private final Map<String, Integer> productRefs = new HashMap<>();
+    private final List<User> users = new ArrayList<>();
+    private final Map<String, Integer> userRefs = new HashMap<>();
+
+    public SalesDictionary(String filePath) {
+        this.filePath = filePath;
+        try (FileStorageUtil.FrameReader reader = FileStorageUtil.recoverFrames(filePath)) {
+            byte[] payload;
+            while ((payload = reader.next()) != null) {
+                readEntry(new BinaryReader(payload));
+            }
+        }
+    }
+
+    /**
+     * Returns the reference for a product ID, appending a new dictionary entry if needed.
+     * @throws IOException If the new entry could not be written; it is not registered then.
+     */
+    public synchronized int productRef(String productId) throws IOException {
+        Integer ref = productRefs.get(productId);
+        if (ref != null) {
+            return ref;
+        }
+        BinaryWriter entry = new BinaryWriter(32);
+        entry.writeByte(TAG_PRODUCT);
+        entry.writeString(productId);
+        FileStorageUtil.appendFrame(entry.toByteArray(), filePath);
+        return addProduct(productId);
+    }
+
+    public synchronized String productId(int ref) throws IOException {
+        if (ref < 0 || ref >= productIds.size()) {
+            throw new IOException("Unknown product reference " + ref);
+        }
+        return productIds.get(ref);
+    }
+
+    /**
+     * Returns the reference for a user (0 for null), appending a new dictionary entry if needed.
+     * Only the ID, role, username and display name are stored; never the password.
+     * @throws IOException If the new entry could not be written; it is not registered then.
+     */
+    public synchronized int userRef(User user) throws IOException {
+        if (user == null) {
+            return 0;
+        }
+        String key = userKey(user.getId(), user.getRole(), user.getUsername(), user.getName());
+        Integer ref = userRefs.get(key);
+        if (ref != null) {
+            return ref;
+        }
+        BinaryWriter entry = new BinaryWriter(64);
+        entry.writeByte(TAG_USER);
+        entry.writeVarInt(user.getId());
+        entry.writeString(user.getRole());
+        entry.writeString(user.getUsername());
+        entry.writeString(user.getName());
+        FileStorageUtil.appendFrame(entry.toByteArray(), filePath);
+        return addUser(key, createUser(user.getId(), user.getRole(), user.getUsername(), user.getName()));
+    }
+
+    public synchronized User user(int ref) throws IOException {
+        if (ref == 0) {
+            return null;
+        }
+        if (ref < 0 || ref > users.size()) {
+            throw new IOException("Unknown user reference " + ref);
+        }
+        return users.get(ref - 1);
+    }
+
+    // --- Helpers ---
+
+    private void readEntry(BinaryReader in) {
+        try {
+            int tag = in.readByte();
+            if (tag == TAG_PRODUCT) {
+                addProduct(in.readString());
+            } else if (tag == TAG_USER) {
+                int id = in.readVarInt();
+                String role = in.readString();
+                String username = in.readString();
+                String name = in.readString();
+                addUser(userKey(id, role, username, name), createUser(id, role, username, name));
+            }
+        } catch (IOException e) {
+            System.err.println("Skipping unreadable dictionary entry in " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    private int addProduct(String productId) {
+        int ref = productIds.size();
+        productIds.add(productId);
+        productRefs.put(productId, ref);
+        return ref;
+    }
+
+    private int addUser(String key, User user) {
+        users.add(user);
+        int ref = users.size(); // 1-based; 0 is reserved for 'no user'
+        userRefs.put(key, ref);
+        return ref;
+    }
+
+    private static User createUser(int id, String role, String username, String name) {
+        // Historical sales only need identity; the password is deliberately not persisted
+        if ("SHOPKEEPER".equals(role)) {
+            return new ShopKeeper(id, username, "", name);
+        }
+        return new Staff(id, username, "", name);
+    }
+
+    private static String userKey(int id, String role, String username, String name) {
+        return id + "\u0000" + role + "\u0000" + username + "\u0000" + name;
+    }
+}
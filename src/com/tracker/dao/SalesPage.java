@@ -0,0 +1,28 @@
+package com.tracker.dao;
+
+import com.tracker.model.SalesTransaction;
+
+import java.util.List;
+
+/**
+ * One page of a sales history query, plus the cursor to pass back for the next page.
+ */
+public final class SalesPage {
+
+    private final List<SalesTransaction> transactions;
+    private final String nextCursor;
+
+    SalesPage(List<SalesTransaction> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SalesTransaction> getTransactions() { return transactions; }
+
+    /**
+     * Opaque position after the last transaction of this page, or null if there is nothing more.
+     */
+    public String getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+}
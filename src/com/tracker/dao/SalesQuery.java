@@ -0,0 +1,118 @@
+package com.tracker.dao;
+
+import com.tracker.model.Sale;
+import com.tracker.model.SalesTransaction;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Sort order and filters of a paged sales history query (see SalesDAO.getHistoryPage).
+ * Immutable: the with* methods return a changed copy.
+ */
+public final class SalesQuery {
+
+    private final boolean newestFirst;
+    private final LocalDate startDate; // Inclusive; null = no lower bound
+    private final LocalDate endDate;   // Inclusive; null = no upper bound
+    private final String productId;    // Transactions containing this product (ignoring case)
+    private final String username;     // Transactions recorded by this user (ignoring case)
+
+    private SalesQuery(boolean newestFirst, LocalDate startDate, LocalDate endDate, String productId, String username) {
+        this.newestFirst = newestFirst;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.productId = blankToNull(productId);
+        this.username = blankToNull(username);
+    }
+
+    /**
+     * Every transaction, newest first.
+     */
+    public static SalesQuery newestFirst() {
+        return new SalesQuery(true, null, null, null, null);
+    }
+
+    public static SalesQuery oldestFirst() {
+        return new SalesQuery(false, null, null, null, null);
+    }
+
+    public SalesQuery withDateRange(LocalDate startDate, LocalDate endDate) {
+        return new SalesQuery(newestFirst, startDate, endDate, productId, username);
+    }
+
+    public SalesQuery withProductId(String productId) {
+        return new SalesQuery(newestFirst, startDate, endDate, productId, username);
+    }
+
+    public SalesQuery withUsername(String username) {
+        return new SalesQuery(newestFirst, startDate, endDate, productId, username);
+    }
+
+    // Getters
+    public boolean isNewestFirst() { return newestFirst; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public String getProductId() { return productId; }
+    public String getUsername() { return username; }
+
+    public boolean hasDateRange() {
+        return startDate != null || endDate != null;
+    }
+
+    /**
+     * Whether a segment with these date bounds can hold matching transactions.
+     */
+    boolean mayMatch(SalesSegment segment) {
+        if (!hasDateRange()) {
+            return true;
+        }
+        return segment.overlaps(startDate != null ? startDate : LocalDate.MIN,
+                                endDate != null ? endDate : LocalDate.MAX);
+    }
+
+    boolean matches(SalesTransaction transaction) {
+        if (hasDateRange()) {
+            if (transaction.getDateTime() == null) {
+                return false; // Undated legacy records never match a date range
+            }
+            LocalDate date = transaction.getDateTime().toLocalDate();
+            if ((startDate != null && date.isBefore(startDate)) || (endDate != null && date.isAfter(endDate))) {
+                return false;
+            }
+        }
+        if (username != null
+                && (transaction.getUser() == null || !username.equalsIgnoreCase(transaction.getUser().getUsername()))) {
+            return false;
+        }
+        if (productId != null) {
+            for (Sale sale : transaction.getSales()) {
+                if (productId.equalsIgnoreCase(sale.getProductID())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SalesQuery)) {
+            return false;
+        }
+        SalesQuery other = (SalesQuery) o;
+        return newestFirst == other.newestFirst && Objects.equals(startDate, other.startDate)
+                && Objects.equals(endDate, other.endDate) && Objects.equals(productId, other.productId)
+                && Objects.equals(username, other.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(newestFirst, startDate, endDate, productId, username);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
@@ -0,0 +1,64 @@
+package com.tracker.dao;
+
+import com.tracker.model.SalesTransaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streams SalesTransaction records from a binary segment file one at a time,
+ * without building the whole list first.
+ */
+public final class SalesRecordReader implements Closeable {
+
+    private final FileStorageUtil.FrameReader frames;
+    private final SalesDictionary dictionary;
+    private final String filePath;
+
+    public SalesRecordReader(String filePath, SalesDictionary dictionary) {
+        this(FileStorageUtil.openFrames(filePath), filePath, dictionary);
+    }
+
+    /**
+     * Reads only the first byteLength bytes of the segment, i.e. the records known to be
+     * written while a later append to the file may still be in progress.
+     */
+    public SalesRecordReader(String filePath, long byteLength, SalesDictionary dictionary) {
+        this(FileStorageUtil.openFrames(filePath, byteLength), filePath, dictionary);
+    }
+
+    private SalesRecordReader(FileStorageUtil.FrameReader frames, String filePath, SalesDictionary dictionary) {
+        this.frames = frames;
+        this.dictionary = dictionary;
+        this.filePath = filePath;
+    }
+
+    /**
+     * @return The next transaction, or null when the segment is exhausted.
+     */
+    public SalesTransaction next() {
+        byte[] payload;
+        while ((payload = frames.next()) != null) {
+            try {
+                return SalesCodec.decode(payload, dictionary);
+            } catch (IOException e) {
+                // The frame passed its checksum, so this is a format problem: skip the record
+                System.err.println("Skipping unreadable sales record in " + filePath + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    public void forEachRemaining(Consumer<SalesTransaction> action) {
+        SalesTransaction transaction;
+        while ((transaction = next()) != null) {
+            action.accept(transaction);
+        }
+    }
+
+    @Override
+    public void close() {
+        frames.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.tracker.dao;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Manifest entry describing one sales segment file.
+ * The min/max dates let range queries skip segments that cannot contain matching sales.
+ */
+public class SalesSegment implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+    private LocalDate minDate; // null for the legacy 'undated' segment
+    private LocalDate maxDate;
+    private int recordCount;
+    // Bytes of the segment file that are committed; anything beyond is discarded on startup
+    private long byteLength;
+
+    public SalesSegment(String key) {
+        this.key = key;
+    }
+
+    // Getters
+    public String getKey() { return key; }
+    public LocalDate getMinDate() { return minDate; }
+    public LocalDate getMaxDate() { return maxDate; }
+    public int getRecordCount() { return recordCount; }
+    public long getByteLength() { return byteLength; }
+
+    public void setByteLength(long byteLength) { this.byteLength = byteLength; }
+
+    /**
+     * Widens the date bounds and bumps the record count for one appended transaction.
+     */
+    public void recordAppended(LocalDate date) {
+        recordCount++;
+        if (date == null) {
+            return;
+        }
+        if (minDate == null || date.isBefore(minDate)) {
+            minDate = date;
+        }
+        if (maxDate == null || date.isAfter(maxDate)) {
+            maxDate = date;
+        }
+    }
+
+    /**
+     * Un-counts a transaction that was rolled back before it reached the file.
+     * The date bounds are left as they are; they only need to be wide enough.
+     */
+    public void recordRemoved() {
+        recordCount--;
+    }
+
+    /**
+     * True if any sale in this segment may fall inside [startDate, endDate] (inclusive).
+     */
+    public boolean overlaps(LocalDate startDate, LocalDate endDate) {
+        if (minDate == null || maxDate == null) {
+            return false; // Undated legacy records never match a date range
+        }
+        return !maxDate.isBefore(startDate) && !minDate.isAfter(endDate);
+    }
+}
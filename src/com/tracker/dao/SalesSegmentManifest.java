@@ -0,0 +1,60 @@
+package com.tracker.dao;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * Small index file listing every sales segment and its date bounds.
+ * Stored next to the segment files (data/sales/manifest.dat).
+ */
+public class SalesSegmentManifest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final PartitionScheme scheme;
+    // Record format of the segment files; 0 means legacy Java-serialized '.journal' segments
+    private int formatVersion;
+    // Last TransactionJournal record contained in the segments (0 = none)
+    private long checkpointLsn;
+    // False for manifests written before segment byte lengths were recorded
+    private boolean byteLengthsTracked;
+    // Bumped by every rebuild, which writes its segments under new file names (0 = "key.seg")
+    private int fileGeneration;
+    // Sorted by key, which is chronological for every PartitionScheme
+    private final TreeMap<String, SalesSegment> segments = new TreeMap<>();
+
+    public SalesSegmentManifest(PartitionScheme scheme, int formatVersion) {
+        this.scheme = scheme;
+        this.formatVersion = formatVersion;
+    }
+
+    public PartitionScheme getScheme() { return scheme; }
+    public int getFormatVersion() { return formatVersion; }
+    public long getCheckpointLsn() { return checkpointLsn; }
+    public boolean isByteLengthsTracked() { return byteLengthsTracked; }
+    public int getFileGeneration() { return fileGeneration; }
+
+    public void setCheckpointLsn(long checkpointLsn) { this.checkpointLsn = checkpointLsn; }
+    public void setByteLengthsTracked(boolean byteLengthsTracked) { this.byteLengthsTracked = byteLengthsTracked; }
+    public void setFileGeneration(int fileGeneration) { this.fileGeneration = fileGeneration; }
+
+    public Collection<SalesSegment> getSegments() {
+        return segments.values();
+    }
+
+    public boolean contains(String key) {
+        return segments.containsKey(key);
+    }
+
+    public SalesSegment getOrCreate(String key) {
+        return segments.computeIfAbsent(key, SalesSegment::new);
+    }
+
+    public int getTotalRecordCount() {
+        int total = 0;
+        for (SalesSegment segment : segments.values()) {
+            total += segment.getRecordCount();
+        }
+        return total;
+    }
+}
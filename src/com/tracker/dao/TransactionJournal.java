@@ -0,0 +1,307 @@
+package com.tracker.dao;
+
+import com.tracker.model.SalesTransaction;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Write-ahead journal for the Record Sale use case (data/transactions.journal).
+ *
+ * One journal record holds everything a sale changes: the stock delta of each product
+ * and the encoded sales transaction. Appending that record is the commit point, so a
+ * sale costs one durable append instead of rewriting products.dat and the sales store,
+ * and stock and sales can never disagree after a crash.
+ *
+ * Committed records are applied to ProductDAO, SalesDAO and DailyRollupDAO in memory
+ * right away, so the next cart sees the new stock levels without waiting for the disk.
+ * If the append then fails, the register rolls the sale back (rollBackSale) before it
+ * reports the error, and no checkpoint saves the stores while such a sale is applied.
+ * products.dat is also saved outside checkpoints (catalog edits); those saves leave out
+ * the stock deltas of records that are not confirmed yet (see ProductDAO).
+ * Every CHECKPOINT_INTERVAL records (and on shutdown) those stores write their files
+ * in the background, each stamped with the last record it contains (its checkpoint
+ * LSN), and once those writes are done the journal is trimmed (never after a failed
+ * write: see PersistenceExecutor.hasFailedWrites). On startup the journal is replayed;
+ * each store skips the records its files already contain, so a crash at any point
+ * during a checkpoint is harmless.
+ *
+ * Record layout:
+ *   tag 'S', lsn, deltaCount, then per delta: productId, delta; then the sale record (SalesCodec).
+ */
+public class TransactionJournal {
+
+    private static final String JOURNAL_PATH = "data/transactions.journal";
+
+    // Journal records between checkpoints; bounds both replay time and journal size
+    private static final int CHECKPOINT_INTERVAL = 500;
+
+    private static final int TAG_SALE = 'S';
+
+    /**
+     * A sale applied in memory whose append has not been confirmed yet (or has failed).
+     */
+    private static final class Commit {
+        final long lsn;
+        final SalesTransaction transaction;
+        final Map<String, Integer> stockDeltas;
+        final byte[] saleRecord;
+        final CompletableFuture<Void> durable;
+
+        Commit(long lsn, SalesTransaction transaction, Map<String, Integer> stockDeltas, byte[] saleRecord,
+               CompletableFuture<Void> durable) {
+            this.lsn = lsn;
+            this.transaction = transaction;
+            this.stockDeltas = stockDeltas;
+            this.saleRecord = saleRecord;
+            this.durable = durable;
+        }
+
+        boolean failed() {
+            return durable.isCompletedExceptionally();
+        }
+    }
+
+    private final ProductDAO productDAO;
+    private final SalesDAO salesDAO;
+    private final DailyRollupDAO rollupDAO;
+
+    // Log sequence number of the last record written (or found in a store on startup)
+    private long lastLsn;
+    private int recordsSinceCheckpoint;
+    // Completes when the most recently queued record is on disk
+    private CompletableFuture<Void> lastAppend = CompletableFuture.completedFuture(null);
+    // Applied sales, oldest first, until their append succeeds or they are rolled back
+    private final ArrayDeque<Commit> unconfirmed = new ArrayDeque<>();
+
+    /**
+     * Opens the journal and replays any records that did not reach the stores' files.
+     */
+    public TransactionJournal(ProductDAO productDAO, SalesDAO salesDAO, DailyRollupDAO rollupDAO) {
+        this.productDAO = productDAO;
+        this.salesDAO = salesDAO;
+        this.rollupDAO = rollupDAO;
+        this.lastLsn = Math.max(productDAO.getAppliedLsn(), salesDAO.getAppliedLsn());
+
+        if (replay() > 0) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Commits one sale: queues its journal record (stock deltas and transaction together)
+     * and applies it to the in-memory stores. Records are queued in LSN order; waiting
+     * for the returned future happens outside this lock, so concurrent registers share
+     * one fsync.
+     * @param transaction The completed sales transaction.
+     * @param stockDeltas Stock change per product ID (negative for items sold).
+     * @return Completes once the record is durable on disk, or fails with the IOException
+     *         if the record could not be written. If encoding failed, nothing was applied;
+     *         if the append failed, the caller must call rollBackSale.
+     */
+    public synchronized CompletableFuture<Void> commitSale(SalesTransaction transaction, Map<String, Integer> stockDeltas) {
+        byte[] saleRecord;
+        try {
+            // May append new dictionary entries, which the record depends on
+            saleRecord = salesDAO.encodeRecord(transaction);
+        } catch (IOException e) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        long lsn = ++lastLsn;
+
+        BinaryWriter out = new BinaryWriter(32 + saleRecord.length + stockDeltas.size() * 16);
+        out.writeByte(TAG_SALE);
+        out.writeVarLong(lsn);
+        out.writeVarInt(stockDeltas.size());
+        for (Map.Entry<String, Integer> delta : stockDeltas.entrySet()) {
+            out.writeString(delta.getKey());
+            out.writeSignedVarLong(delta.getValue());
+        }
+        out.writeBytes(saleRecord);
+
+        // The commit point: once this append is durable the sale survives a crash
+        CompletableFuture<Void> durable = FileStorageUtil.appendFrameAsync(out.toByteArray(), JOURNAL_PATH);
+        lastAppend = durable;
+
+        apply(lsn, stockDeltas, transaction, saleRecord, false);
+        unconfirmed.addLast(new Commit(lsn, transaction, stockDeltas, saleRecord, durable));
+        forgetConfirmed();
+        if (++recordsSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            checkpoint();
+        }
+        return durable;
+    }
+
+    /**
+     * Takes a sale whose journal append failed back out of the in-memory stores (stock,
+     * sales and rollup), so that it is neither counted nor saved by a checkpoint. The
+     * caller holds the stock locks of the sale's products. No-op for a sale that was
+     * never applied or did not fail.
+     */
+    public synchronized void rollBackSale(SalesTransaction transaction) {
+        Commit failed = null;
+        for (Commit commit : unconfirmed) {
+            if (commit.transaction == transaction && commit.failed()) {
+                failed = commit;
+                break;
+            }
+        }
+        if (failed == null) {
+            return;
+        }
+        unconfirmed.remove(failed);
+        productDAO.revertStockDeltas(failed.stockDeltas, failed.lsn);
+        // Rollup before sales, as in apply: the sales version bump invalidates cached reports
+        rollupDAO.revertTransaction(transaction);
+        salesDAO.revertRecord(transaction, failed.saleRecord);
+
+        // Save the stores now, so their checkpoint LSN passes the failed record: if it did reach
+        // the journal after all (e.g. only the fsync failed), replay must not bring it back
+        checkpoint();
+    }
+
+    /**
+     * Drops confirmed sales from the front of the unconfirmed queue, and lets ProductDAO
+     * save the stock of every record before the first one still in it.
+     */
+    private void forgetConfirmed() {
+        while (!unconfirmed.isEmpty() && unconfirmed.peekFirst().durable.isDone()
+                && !unconfirmed.peekFirst().failed()) {
+            unconfirmed.pollFirst();
+        }
+        productDAO.confirmStockDeltas(unconfirmed.isEmpty() ? lastLsn : unconfirmed.peekFirst().lsn - 1);
+    }
+
+    private boolean hasFailedCommits() {
+        for (Commit commit : unconfirmed) {
+            if (commit.failed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues every store's pending changes for writing and then the trimming of the
+     * journal. The PersistenceExecutor runs these in order, so records are only removed
+     * from the journal after the stores' files contain them; if the app dies in between,
+     * the next replay simply skips the records they already contain.
+     *
+     * Waits for the queued appends first: a sale whose append failed must be rolled back
+     * before the stores are saved, so while one is still applied the checkpoint is put off
+     * until rollBackSale.
+     */
+    public synchronized void checkpoint() {
+        try {
+            lastAppend.join();
+        } catch (RuntimeException e) {
+            // Reported to the sale's register, which rolls it back
+        }
+        forgetConfirmed();
+        if (hasFailedCommits()) {
+            return;
+        }
+        salesDAO.checkpoint();
+        rollupDAO.checkpoint();
+        productDAO.checkpoint();
+        long checkpointLsn = lastLsn;
+        PersistenceExecutor.getInstance().execute(() -> trimThrough(checkpointLsn));
+        recordsSinceCheckpoint = 0;
+    }
+
+    /**
+     * Removes the records up to and including the given LSN from the journal. Runs on
+     * the persistence thread; sales committed since the checkpoint are kept.
+     */
+    private synchronized void trimThrough(long checkpointLsn) {
+        // The checkpoint's writes ran before this task; if one of them (or any earlier write)
+        // failed, the stores' files may lack these records, so keep them for the next replay
+        if (PersistenceExecutor.getInstance().hasFailedWrites()) {
+            System.err.println("Not trimming " + JOURNAL_PATH + ": a checkpoint write failed; "
+                    + "the journal is replayed on the next start");
+            return;
+        }
+        // Records still queued would be lost when the file is replaced: let them land first
+        try {
+            lastAppend.join();
+        } catch (RuntimeException e) {
+            // A failed append was already reported to its committer
+        }
+        List<byte[]> remaining = new ArrayList<>();
+        try (FileStorageUtil.FrameReader reader = FileStorageUtil.openFrames(JOURNAL_PATH)) {
+            byte[] payload;
+            while ((payload = reader.next()) != null) {
+                try {
+                    BinaryReader in = new BinaryReader(payload);
+                    in.readByte();
+                    if (in.readVarLong() > checkpointLsn) {
+                        remaining.add(payload);
+                    }
+                } catch (IOException e) {
+                    // Unreadable records were already skipped by replay
+                }
+            }
+        }
+        FileStorageUtil.writeFrames(remaining, JOURNAL_PATH);
+    }
+
+    /**
+     * @param durable True during replay; false for a new record whose append is in flight.
+     */
+    private void apply(long lsn, Map<String, Integer> stockDeltas, SalesTransaction transaction, byte[] saleRecord,
+                       boolean durable) {
+        productDAO.applyStockDeltas(stockDeltas, lsn, durable);
+
+        // Rollup before sales: applyRecord bumps the sales version that stamps cached reports,
+        // so a report computed under the new version already sees this sale in the rollup
+        rollupDAO.applyTransaction(transaction, lsn);
+        if (lsn > salesDAO.getAppliedLsn()) {
+            salesDAO.applyRecord(transaction, saleRecord, lsn);
+        }
+    }
+
+    /**
+     * Re-applies the journal's records to the stores.
+     * @return The number of records read.
+     */
+    private int replay() {
+        int count = 0;
+        try (FileStorageUtil.FrameReader reader = FileStorageUtil.recoverFrames(JOURNAL_PATH)) {
+            byte[] payload;
+            while ((payload = reader.next()) != null) {
+                try {
+                    BinaryReader in = new BinaryReader(payload);
+                    if (in.readByte() != TAG_SALE) {
+                        throw new IOException("Unknown journal record type");
+                    }
+                    long lsn = in.readVarLong();
+                    int deltaCount = in.readVarInt();
+                    Map<String, Integer> stockDeltas = new LinkedHashMap<>();
+                    for (int i = 0; i < deltaCount; i++) {
+                        stockDeltas.put(in.readString(), (int) in.readSignedVarLong());
+                    }
+                    byte[] saleRecord = in.readBytes();
+                    SalesTransaction transaction = salesDAO.decodeRecord(saleRecord);
+
+                    apply(lsn, stockDeltas, transaction, saleRecord, true);
+                    lastLsn = Math.max(lastLsn, lsn);
+                    count++;
+                } catch (IOException e) {
+                    // The frame passed its checksum, so this is not a torn write: skip it
+                    System.err.println("Skipping unreadable journal record: " + e.getMessage());
+                }
+            }
+        }
+        if (count > 0) {
+            System.out.println("Replayed " + count + " journaled sales from " + JOURNAL_PATH);
+        }
+        return count;
+    }
+}
@@ -8,6 +8,8 @@ import com.tracker.model.User;
 import com.tracker.model.ShopKeeper;
 import com.tracker.model.Staff;
 import com.tracker.dao.FileStorageUtil;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -15,6 +17,8 @@ import java.util.Optional;
 public class UserDAO {
 
     private static final String FILE_PATH = "data/users.dat";
+    private static final Timer LOAD_TIMER = Metrics.timer("dao.users.load");
+    private static final Timer SAVE_TIMER = Metrics.timer("dao.users.save");
     private List<User> users;
     private int nextUserId = 1;
 
@@ -26,7 +30,9 @@ public class UserDAO {
      * Loads user data from file and bootstraps initial users if the file is empty.
      */
     public void loadUsers() {
+        long start = System.nanoTime();
         this.users = FileStorageUtil.loadData(FILE_PATH);
+        LOAD_TIMER.record(System.nanoTime() - start);
         
         // Ensure initial data exists if the file is empty (Bootstrap)
         if (this.users.isEmpty()) {
@@ -49,7 +55,9 @@ public class UserDAO {
      * Saves the current list of users to the local file.
      */
     public void saveUsers() {
-        FileStorageUtil.saveData(this.users, FILE_PATH);
+        long start = System.nanoTime();
+        PersistenceExecutor.getInstance().saveData(this.users, FILE_PATH);
+        SAVE_TIMER.record(System.nanoTime() - start);
     }
     
     public void add(User newUser) {
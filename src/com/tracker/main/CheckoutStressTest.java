@@ -0,0 +1,121 @@
+package com.tracker.main;
+
+import com.tracker.model.Product;
+import com.tracker.model.ShopKeeper;
+import com.tracker.model.Staff;
+import com.tracker.model.User;
+import com.tracker.service.DataContext;
+import com.tracker.service.InventoryService;
+import com.tracker.service.SalesService;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Command-line stress test for concurrent checkout.
+ * Many registers (threads) sell one hot product until it runs out; every cart also
+ * contains one unit of a well-stocked product. Afterwards it checks that nothing was
+ * oversold and that no cart was half applied.
+ *
+ * Usage: java com.tracker.main.CheckoutStressTest [threads] [hotStock]
+ * Run it from an empty working directory: it creates its own data/ store there.
+ */
+public class CheckoutStressTest {
+
+    private static final String HOT_ID = "HOT-1";
+    private static final int COLD_PRODUCTS = 4;
+    private static final int COLD_STOCK = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int hotStock = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        if (new File("data").exists()) {
+            System.err.println("Refusing to run: ./data exists. Run from an empty directory.");
+            System.exit(1);
+        }
+
+        DataContext context = DataContext.getInstance();
+        InventoryService inventory = context.getInventoryService();
+        SalesService sales = context.getSalesService();
+        User owner = new ShopKeeper(1, "owner", "owner", "Stress Owner");
+
+        inventory.addOrUpdateProduct(owner, new Product(HOT_ID, "Hot Item", "Stress", 1.00, 2.00, 0), hotStock);
+        for (int i = 0; i < COLD_PRODUCTS; i++) {
+            inventory.addOrUpdateProduct(owner, new Product(coldId(i), "Cold Item " + i, "Stress", 1.00, 2.00, 0), COLD_STOCK);
+        }
+        int salesBefore = context.getSalesDAO().getTransactionCount();
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            User cashier = new Staff(100 + t, "register" + t, "pw", "Register " + t);
+            List<SalesService.SaleRequest> cart = List.of(
+                    new SalesService.SaleRequest(HOT_ID, 1),
+                    new SalesService.SaleRequest(coldId(t % COLD_PRODUCTS), 1));
+            new Thread(() -> {
+                try {
+                    start.await();
+                    while (true) {
+                        String result = sales.recordSaleTransaction(cashier, cart, "Cash");
+                        if (result.startsWith("Sale recorded")) {
+                            sold.incrementAndGet();
+                        } else if (result.startsWith("Error: Insufficient stock")) {
+                            rejected.incrementAndGet();
+                            return; // Sold out
+                        } else {
+                            failed.incrementAndGet();
+                            System.err.println(result);
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "register-" + t).start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        int hotLeft = inventory.getProductById(HOT_ID).get().getStockQuantity();
+        int coldSold = 0;
+        for (int i = 0; i < COLD_PRODUCTS; i++) {
+            coldSold += COLD_STOCK - inventory.getProductById(coldId(i)).get().getStockQuantity();
+        }
+        int recorded = context.getSalesDAO().getTransactionCount() - salesBefore;
+
+        System.out.printf("%d registers, %d hot units: %d sales in %.2f s (%.0f sales/s)%n",
+                threads, hotStock, sold.get(), seconds, sold.get() / seconds);
+        boolean passed = check("hot product sold exactly its stock", sold.get() == hotStock && hotLeft == 0,
+                "sold " + sold.get() + ", left " + hotLeft);
+        passed &= check("every cart applied all of its lines", coldSold == sold.get(),
+                "cold units sold " + coldSold);
+        passed &= check("every sale recorded once", recorded == sold.get(), "recorded " + recorded);
+        passed &= check("no failed commits", failed.get() == 0, failed.get() + " failed");
+
+        DataContext.shutdown();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static String coldId(int i) {
+        return "COLD-" + i;
+    }
+
+    private static boolean check(String name, boolean ok, String detail) {
+        System.out.println((ok ? "PASS " : "FAIL ") + name + " (" + detail + ")");
+        return ok;
+    }
+}
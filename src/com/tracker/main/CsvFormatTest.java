@@ -0,0 +1,93 @@
+package com.tracker.main;
+
+import com.tracker.service.CsvWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Command-line check that CsvWriter.money writes exactly what String.format("%.2f")
+ * wrote in the previous exporter, for edge cases (half-cent ties, negative zero,
+ * large amounts) and for random amounts at several magnitudes.
+ *
+ * Usage: java com.tracker.main.CsvFormatTest [randomValues]   (default 2,000,000)
+ * Writes no files.
+ */
+public class CsvFormatTest {
+
+    private static final double[] EDGE_CASES = {
+            0, -0.0, 0.005, 0.015, -0.005, -0.004, 0.994, 0.995, 1.005, 2.675, 38.035, 64.975,
+            1234.565, 99999.995, -64.975, 1e15, 1e15 + 0.125, 123456789012345.67, 1e20, -1e20,
+            Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        int edgeMismatches = 0;
+        String firstEdge = "none";
+        for (double value : EDGE_CASES) {
+            if (!matches(value)) {
+                if (edgeMismatches++ == 0) {
+                    firstEdge = describe(value);
+                }
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        int mismatches = 0;
+        String first = "none";
+        for (int i = 0; i < count; i++) {
+            double value;
+            switch (i % 4) {
+                case 0: // Prices with a half-cent or a thousandth, the classic rounding ties
+                    value = random.nextInt(10_000_000) / 1000.0;
+                    break;
+                case 1: // Sums of prices, as in report totals
+                    value = random.nextInt(100_000) / 100.0 + random.nextInt(100_000) / 100.0 * random.nextInt(1, 7);
+                    break;
+                case 2: // Profit or loss, either sign
+                    value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(9));
+                    break;
+                default: // Any magnitude
+                    value = random.nextDouble() * Math.pow(10, random.nextInt(-3, 19));
+                    break;
+            }
+            if (!matches(value)) {
+                if (mismatches++ == 0) {
+                    first = describe(value);
+                }
+            }
+        }
+
+        boolean passed = check("edge cases match %.2f", edgeMismatches == 0,
+                edgeMismatches + " of " + EDGE_CASES.length + " differ, first: " + firstEdge);
+        passed &= check("random amounts match %.2f", mismatches == 0,
+                mismatches + " of " + count + " differ, first: " + first);
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean matches(double value) throws IOException {
+        return csv(value).equals(String.format(Locale.ROOT, "%.2f", value));
+    }
+
+    private static String csv(double value) throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        writer.money(value);
+        writer.endRow();
+        return out.toString().trim();
+    }
+
+    private static String describe(double value) throws IOException {
+        return value + " -> " + csv(value) + ", %.2f gives " + String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static boolean check(String name, boolean ok, String detail) {
+        System.out.println((ok ? "PASS " : "FAIL ") + name + " (" + detail + ")");
+        return ok;
+    }
+}
@@ -0,0 +1,420 @@
+package com.tracker.main;
+
+import com.tracker.dao.DailyRollupDAO;
+import com.tracker.dao.FileStorageUtil;
+import com.tracker.dao.PersistenceExecutor;
+import com.tracker.dao.ProductCodec;
+import com.tracker.dao.SalesDAO;
+import com.tracker.model.IdGenerator;
+import com.tracker.model.Product;
+import com.tracker.model.Purchase;
+import com.tracker.model.Sale;
+import com.tracker.model.SalesTransaction;
+import com.tracker.model.ShopKeeper;
+import com.tracker.model.Staff;
+import com.tracker.model.User;
+
+import java.io.File;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Command-line generator of a synthetic but realistic store in ./data, written in the
+ * application's own formats (products.dat, the sales segment store, purchases.dat,
+ * users.dat and the daily rollup), for performance work at realistic scale.
+ *
+ * - Product popularity follows a Zipf distribution (a few best sellers, a long tail).
+ * - Sales volume varies by weekday, by season (December peak) and grows slowly over
+ *   the years; within a day, sales follow opening-hour peaks (lunch, after work).
+ * - Baskets hold one to a dozen lines, rung up by the staff member on shift.
+ * - Stock is tracked day by day and restocked twice a week, recording one purchase per
+ *   delivered product, as PurchaseService would.
+ *
+ * Deterministic: every day is generated from its own random stream derived from the
+ * seed, so the same arguments give the same data whatever the thread count. IDs are
+ * built from each record's own time (IdGenerator.idAt, on node GENERATOR_NODE, times
+ * taken as UTC) rather than the clock, so they too are reproducible and time-ordered. Days are
+ * generated in parallel a chunk at a time, while the previous chunk is being written,
+ * so memory use does not grow with the length of the history.
+ *
+ * Usage: java com.tracker.main.DatasetGenerator [lines] [products] [days] [seed] [threads]
+ * Run it from an empty working directory: it creates data/ there.
+ */
+public class DatasetGenerator {
+
+    private static final int CHUNK_DAYS = 32;
+    // IdGenerator node for generated history, kept apart from the default node 0 of live registers
+    private static final int GENERATOR_NODE = IdGenerator.MAX_NODE;
+    // Deliveries are booked in before opening
+    private static final int DELIVERY_HOUR = 7;
+    private static final double ZIPF_EXPONENT = 1.07;
+    private static final int STAFF_COUNT = 6;
+    private static final int CASE_SIZE = 12;
+    private static final double MEAN_QUANTITY = 1.5;
+    // Deliveries arrive on these days; each restocks products below their reorder point
+    private static final Set<DayOfWeek> DELIVERY_DAYS = Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY);
+
+    // Shop open 08:00-21:59; relative share of sales per opening hour
+    private static final int OPENING_HOUR = 8;
+    private static final double[] HOUR_WEIGHTS =
+            {0.4, 0.6, 0.8, 1.0, 1.6, 1.5, 1.0, 0.9, 1.1, 1.5, 1.7, 1.3, 0.8, 0.4};
+    private static final double[] WEEKDAY_WEIGHTS = {0.85, 0.80, 0.90, 0.95, 1.15, 1.40, 0.95}; // Mon..Sun
+
+    private static final String[] CATEGORIES =
+            {"Beverages", "Snacks", "Dairy", "Bakery", "Household", "Personal Care", "Produce", "Frozen"};
+    private static final String[][] NOUNS = {
+            {"Coffee", "Tea", "Cola", "Orange Juice", "Sparkling Water", "Energy Drink"},
+            {"Crisps", "Chocolate Bar", "Pretzels", "Trail Mix", "Cookies", "Popcorn"},
+            {"Milk", "Yoghurt", "Cheddar", "Butter", "Cream", "Feta"},
+            {"Sourdough", "Bagels", "Croissants", "Rye Bread", "Muffins", "Baguette"},
+            {"Dish Soap", "Paper Towels", "Bin Bags", "Laundry Liquid", "Sponges", "Foil"},
+            {"Shampoo", "Toothpaste", "Hand Soap", "Deodorant", "Shower Gel", "Lip Balm"},
+            {"Apples", "Bananas", "Tomatoes", "Spinach", "Carrots", "Avocados"},
+            {"Pizza", "Peas", "Ice Cream", "Fish Fingers", "Berries", "Dumplings"}};
+    private static final double[] CATEGORY_BASE_COST = {1.2, 0.9, 0.8, 1.1, 1.8, 2.2, 0.6, 2.0};
+    private static final String[] BRANDS =
+            {"Hillside", "Northfield", "Golden Gate", "Oakridge", "Bluewater", "Meadow", "Redstone", "Silver Birch"};
+    private static final String[] SIZES = {"Small", "Regular", "Large", "Family", "Twin Pack", "Value"};
+
+    private final long seed;
+    private final long lines;
+    private final int productCount;
+    private final int days;
+    private final LocalDate firstDay;
+    private final int threads;
+
+    // Catalog and demand model (built once, then read by the generator threads)
+    private final List<Product> catalog = new ArrayList<>();
+    private final double[] popularityCdf;   // By popularity rank
+    private final int[] productByRank;
+    private final double[] expectedDailyUnits; // By product index
+    private final long[] linesBefore;        // Sales lines of all days before day d
+    private final User[] staff = new User[STAFF_COUNT];
+
+    public DatasetGenerator(long seed, long lines, int productCount, int days, LocalDate lastDay, int threads) {
+        this.seed = seed;
+        this.lines = lines;
+        this.productCount = productCount;
+        this.days = days;
+        this.firstDay = lastDay.minusDays(days - 1);
+        this.threads = Math.max(1, threads);
+        this.popularityCdf = new double[productCount];
+        this.productByRank = new int[productCount];
+        this.expectedDailyUnits = new double[productCount];
+        this.linesBefore = new long[days + 1];
+    }
+
+    public static void main(String[] args) {
+        long lines = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int products = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 3 * 365;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        if (new File("data").exists()) {
+            System.err.println("Refusing to run: ./data exists. Run from an empty directory.");
+            System.exit(1);
+        }
+        new DatasetGenerator(seed, lines, products, days, LocalDate.now().minusDays(1), threads).generate();
+    }
+
+    /**
+     * Writes the whole dataset to ./data (which should not hold a store yet).
+     */
+    public void generate() {
+        long start = System.nanoTime();
+        new File("data").mkdirs();
+        buildCatalog();
+        planDays();
+
+        SalesDAO salesDAO = new SalesDAO();
+        int[] stock = new int[productCount];
+        int[] target = new int[productCount];
+        for (int i = 0; i < productCount; i++) {
+            target[i] = Math.max(2 * CASE_SIZE, (int) Math.ceil(expectedDailyUnits[i] * 10));
+            stock[i] = target[i];
+        }
+        List<Purchase> purchases = new ArrayList<>();
+        long transactions = 0;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            CompletableFuture<List<List<SalesTransaction>>> next = generateChunk(0, pool);
+            for (int chunkStart = 0; chunkStart < days; chunkStart += CHUNK_DAYS) {
+                List<List<SalesTransaction>> chunk = next.join();
+                if (chunkStart + CHUNK_DAYS < days) {
+                    next = generateChunk(chunkStart + CHUNK_DAYS, pool); // Overlaps with the write below
+                }
+
+                List<SalesTransaction> batch = new ArrayList<>();
+                for (int d = 0; d < chunk.size(); d++) {
+                    List<SalesTransaction> day = chunk.get(d);
+                    for (SalesTransaction transaction : day) {
+                        for (Sale sale : transaction.getSales()) {
+                            stock[indexOf(sale.getProductID())] -= sale.getQuantitySold();
+                        }
+                    }
+                    restock(firstDay.plusDays(chunkStart + d), stock, target, purchases);
+                    batch.addAll(day);
+                    transactions += day.size();
+                }
+                salesDAO.importTransactions(batch);
+                System.out.printf("  %s: %d transactions so far%n", firstDay.plusDays(Math.min(days, chunkStart + CHUNK_DAYS) - 1), transactions);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < productCount; i++) {
+            catalog.get(i).setStockQuantity(stock[i]);
+        }
+        FileStorageUtil.saveBytes(ProductCodec.encode(catalog, 0), "data/products.dat");
+        FileStorageUtil.saveData(purchases, "data/purchases.dat");
+        List<User> users = new ArrayList<>();
+        users.add(new ShopKeeper(1, "admin", "admin123", "Admin User"));
+        users.addAll(Arrays.asList(staff));
+        FileStorageUtil.saveData(users, "data/users.dat");
+
+        // Builds the daily rollup from the new store, so the first start of the app is quick
+        new DailyRollupDAO(salesDAO);
+        PersistenceExecutor.getInstance().flush();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Generated %d sales lines in %d transactions over %d days (%s to %s), "
+                        + "%d products, %d purchases, %d users in %.1f s (%.0f lines/s)%n",
+                lines, transactions, days, firstDay, firstDay.plusDays(days - 1), productCount,
+                purchases.size(), users.size(), seconds, lines / seconds);
+    }
+
+    // --- Catalog and demand ---
+
+    private void buildCatalog() {
+        SplittableRandom random = new SplittableRandom(seed);
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < productCount; i++) {
+            int category = random.nextInt(CATEGORIES.length);
+            String base = BRANDS[random.nextInt(BRANDS.length)] + " "
+                    + NOUNS[category][random.nextInt(NOUNS[category].length)] + " "
+                    + SIZES[random.nextInt(SIZES.length)];
+            String name = base;
+            for (int variant = 2; !names.add(name); variant++) {
+                name = base + " #" + variant;
+            }
+            double cost = Math.round(CATEGORY_BASE_COST[category] * (0.5 + random.nextDouble() * 4) * 100) / 100.0;
+            double price = Math.round(cost * (1.2 + random.nextDouble() * 0.6) * 100) / 100.0;
+            catalog.add(new Product(productId(i), name, CATEGORIES[category], cost, price, 0));
+        }
+
+        // Popularity ranks are a shuffle of the catalog, so best sellers are spread across it
+        for (int i = 0; i < productCount; i++) {
+            productByRank[i] = i;
+        }
+        for (int i = productCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = productByRank[i];
+            productByRank[i] = productByRank[j];
+            productByRank[j] = swap;
+        }
+        double sum = 0;
+        for (int rank = 0; rank < productCount; rank++) {
+            sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            popularityCdf[rank] = sum;
+        }
+        double linesPerDay = (double) lines / days;
+        for (int rank = 0; rank < productCount; rank++) {
+            double share = (popularityCdf[rank] - (rank > 0 ? popularityCdf[rank - 1] : 0)) / sum;
+            expectedDailyUnits[productByRank[rank]] = linesPerDay * share * MEAN_QUANTITY;
+        }
+
+        for (int i = 0; i < STAFF_COUNT; i++) {
+            staff[i] = new Staff(2 + i, "staff" + (i + 1), "staff" + (i + 1) + "23", "Staff Member " + (i + 1));
+        }
+    }
+
+    /**
+     * Splits the requested lines over the days by weekday, season and trend. Cumulative
+     * rounding makes the per-day counts add up to exactly `lines`.
+     */
+    private void planDays() {
+        double[] weights = new double[days];
+        double total = 0;
+        for (int d = 0; d < days; d++) {
+            LocalDate day = firstDay.plusDays(d);
+            double seasonal = 1 + 0.08 * Math.sin(2 * Math.PI * (day.getDayOfYear() - 100) / 365.0)
+                    + 0.35 * Math.exp(-Math.pow((day.getDayOfYear() - 352) / 12.0, 2)); // Christmas rush
+            double trend = 1 + 0.10 * d / 365.0;
+            weights[d] = WEEKDAY_WEIGHTS[day.getDayOfWeek().getValue() - 1] * seasonal * trend;
+            total += weights[d];
+        }
+        double cumulative = 0;
+        for (int d = 0; d < days; d++) {
+            cumulative += weights[d];
+            linesBefore[d + 1] = d + 1 == days ? lines : Math.round(cumulative / total * lines);
+        }
+    }
+
+    // --- Sales ---
+
+    private CompletableFuture<List<List<SalesTransaction>>> generateChunk(int chunkStart, ForkJoinPool pool) {
+        int chunkEnd = Math.min(days, chunkStart + CHUNK_DAYS);
+        return CompletableFuture.supplyAsync(() -> IntStream.range(chunkStart, chunkEnd)
+                .parallel()
+                .mapToObj(this::generateDay)
+                .collect(Collectors.toList()), pool);
+    }
+
+    /**
+     * One day's sales in time order, from the day's own random stream.
+     */
+    private List<SalesTransaction> generateDay(int dayIndex) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + dayIndex);
+        LocalDate day = firstDay.plusDays(dayIndex);
+        long remaining = linesBefore[dayIndex + 1] - linesBefore[dayIndex];
+
+        List<Integer> baskets = new ArrayList<>();
+        while (remaining > 0) {
+            int basket = (int) Math.min(remaining, basketSize(random));
+            remaining -= basket;
+            baskets.add(basket);
+        }
+        // Times are drawn up front and sorted, so IDs can be handed out in time order
+        int[] seconds = new int[baskets.size()];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = sampleSecondOfDay(random);
+        }
+        Arrays.sort(seconds);
+
+        IdClock ids = new IdClock();
+        List<SalesTransaction> transactions = new ArrayList<>(baskets.size());
+        for (int t = 0; t < seconds.length; t++) {
+            int basket = baskets.get(t);
+            int secondOfDay = seconds[t];
+            LocalDateTime when = day.atStartOfDay().plusSeconds(secondOfDay);
+            ids.advanceTo(when.toInstant(ZoneOffset.UTC).toEpochMilli());
+            String transactionId = ids.next();
+            // Morning shift until 15:00, then the evening shift
+            int shift = secondOfDay < 15 * 3600 ? 0 : STAFF_COUNT / 2;
+            User cashier = staff[shift + random.nextInt(STAFF_COUNT / 2)];
+
+            List<Sale> sales = new ArrayList<>(basket);
+            double total = 0;
+            for (int l = 0; l < basket; l++) {
+                Product product = catalog.get(sampleProduct(random));
+                Sale sale = new Sale(ids.next(), product.getProductID(), quantity(random),
+                        product.getSellingPrice(), product.getCostPrice());
+                sales.add(sale);
+                total += sale.getLineTotal();
+            }
+            transactions.add(new SalesTransaction(transactionId, cashier,
+                    random.nextInt(10) < 4 ? "Cash" : "Card", when, when, sales, total));
+        }
+        return transactions;
+    }
+
+    private static int basketSize(SplittableRandom random) {
+        // Geometric: about half the baskets hold one line, mean about 2.2, at most 12
+        int size = 1;
+        while (size < 12 && random.nextDouble() < 0.55) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int quantity(SplittableRandom random) {
+        int roll = random.nextInt(10);
+        return roll < 7 ? 1 : roll < 9 ? 2 : 3 + random.nextInt(4);
+    }
+
+    private static int sampleSecondOfDay(SplittableRandom random) {
+        double total = 0;
+        for (double weight : HOUR_WEIGHTS) {
+            total += weight;
+        }
+        double roll = random.nextDouble() * total;
+        int hour = 0;
+        while (hour < HOUR_WEIGHTS.length - 1 && roll >= HOUR_WEIGHTS[hour]) {
+            roll -= HOUR_WEIGHTS[hour];
+            hour++;
+        }
+        return (OPENING_HOUR + hour) * 3600 + random.nextInt(3600);
+    }
+
+    private int sampleProduct(SplittableRandom random) {
+        double roll = random.nextDouble() * popularityCdf[productCount - 1];
+        int rank = Arrays.binarySearch(popularityCdf, roll);
+        rank = rank >= 0 ? rank : Math.min(productCount - 1, -rank - 1);
+        return productByRank[rank];
+    }
+
+    /**
+     * Hands out IDs for records at given times: consecutive sequence numbers within a
+     * millisecond, moving on to the next millisecond when the sequence runs out.
+     */
+    private static final class IdClock {
+        private long millis = Long.MIN_VALUE;
+        private int sequence;
+
+        void advanceTo(long epochMillis) {
+            if (epochMillis > millis) {
+                millis = epochMillis;
+                sequence = 0;
+            }
+        }
+
+        String next() {
+            if (sequence > IdGenerator.MAX_SEQUENCE) {
+                millis++;
+                sequence = 0;
+            }
+            return IdGenerator.format(IdGenerator.idAt(millis, GENERATOR_NODE, sequence++));
+        }
+    }
+
+    // --- Restocking ---
+
+    /**
+     * On delivery days, tops up every product below half its target stock to the target,
+     * in whole cases, recording one purchase per product (PurchaseService.recordPurchase).
+     */
+    private void restock(LocalDate day, int[] stock, int[] target, List<Purchase> purchases) {
+        if (!DELIVERY_DAYS.contains(day.getDayOfWeek())) {
+            return;
+        }
+        IdClock ids = new IdClock();
+        ids.advanceTo(day.atTime(DELIVERY_HOUR, 0).toInstant(ZoneOffset.UTC).toEpochMilli());
+        for (int i = 0; i < productCount; i++) {
+            if (stock[i] >= target[i] / 2) {
+                continue;
+            }
+            int cases = (target[i] - stock[i] + CASE_SIZE - 1) / CASE_SIZE;
+            int quantity = cases * CASE_SIZE;
+            stock[i] += quantity;
+            Product product = catalog.get(i);
+            purchases.add(new Purchase(ids.next(), product.getProductID(), quantity, product.getCostPrice(),
+                    day, "Supplier " + (1 + i % 8)));
+        }
+    }
+
+    /**
+     * ID of the i-th generated product.
+     */
+    public static String productId(int i) {
+        return String.format("P%06d", i);
+    }
+
+    private static int indexOf(String productId) {
+        return Integer.parseInt(productId.substring(1));
+    }
+}
@@ -1,5 +1,6 @@
 package com.tracker.main;
 
+import com.tracker.service.DataContext;
 import javafx.application.Application; // Correct base class for JavaFX
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -21,6 +22,14 @@ public class Main extends Application {
         showLoginView(); 
     }
 
+    /**
+     * Called by JavaFX when the last window closes: checkpoint journaled sales to the data files.
+     */
+    @Override
+    public void stop() {
+        DataContext.shutdown();
+    }
+
     /**
      * Helper method to load and show the Login View.
      */
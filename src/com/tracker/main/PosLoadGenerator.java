@@ -0,0 +1,144 @@
+package com.tracker.main;
+
+import com.tracker.server.PosServer;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load generator for the POS server: simulates several registers, each logging in
+ * with its own session and recording one-item sales back to back, and reports the
+ * sustained sales per second and the sale latency.
+ *
+ * Usage: java com.tracker.main.PosLoadGenerator [baseUrl] [registers] [seconds] [productId] [username] [password]
+ * Defaults: http://127.0.0.1:8085 8 30 A102 staff1 staff123
+ * The product needs enough stock for the run; sales rejected for stock are counted separately.
+ */
+public class PosLoadGenerator {
+
+    private static final Pattern SESSION = Pattern.compile("\"session\":\"([0-9a-f]+)\"");
+
+    // Latencies of one register's successful sales (only its own thread writes them)
+    private static final class Register {
+        final long[] latencies = new long[1 << 20];
+        int count;
+
+        void record(long nanos) {
+            if (count < latencies.length) {
+                latencies[count++] = nanos;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = arg(args, 0, "http://127.0.0.1:8085");
+        int registers = Integer.parseInt(arg(args, 1, "8"));
+        int seconds = Integer.parseInt(arg(args, 2, "30"));
+        String productId = arg(args, 3, "A102");
+        String username = arg(args, 4, "staff1");
+        String password = arg(args, 5, "staff123");
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Register> all = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(registers);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        for (int r = 0; r < registers; r++) {
+            Register register = new Register();
+            all.add(register);
+            new Thread(() -> {
+                try {
+                    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+                    String session = login(client, baseUrl, username, password);
+                    String body = "payment=Cash&item=" + URLEncoder.encode(productId + ":1", StandardCharsets.UTF_8);
+                    HttpRequest sale = HttpRequest.newBuilder(URI.create(baseUrl + "/sales"))
+                            .header(PosServer.SESSION_HEADER, session)
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = client.send(sale, HttpResponse.BodyHandlers.ofString());
+                        long elapsed = System.nanoTime() - start;
+                        if (response.statusCode() == 200) {
+                            sold.incrementAndGet();
+                            register.record(elapsed);
+                        } else if (response.statusCode() == 409) {
+                            rejected.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    System.err.println("Register stopped: " + e.getMessage());
+                    failed.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }, "register-" + r).start();
+        }
+        done.await();
+
+        long[] latencies = collect(all);
+        Arrays.sort(latencies);
+        System.out.printf("%d registers for %d s: %d sales (%.0f sales/s), %d rejected, %d failed%n",
+                registers, seconds, sold.get(), sold.get() / (double) seconds, rejected.get(), failed.get());
+        if (latencies.length > 0) {
+            System.out.printf("sale latency ms: p50 %.2f  p99 %.2f  max %.2f%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = SESSION.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed: " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static long[] collect(List<Register> registers) {
+        int total = 0;
+        for (Register register : registers) {
+            total += register.count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (Register register : registers) {
+            System.arraycopy(register.latencies, 0, all, offset, register.count);
+            offset += register.count;
+        }
+        return all;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1e6;
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return args.length > index ? args[index] : defaultValue;
+    }
+}
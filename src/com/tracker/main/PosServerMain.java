@@ -0,0 +1,48 @@
+package com.tracker.main;
+
+import com.tracker.server.PosServer;
+import com.tracker.service.DataContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Command-line entry point for the headless multi-register POS server (see PosServer).
+ *
+ * Usage: java com.tracker.main.PosServerMain [port] [bindAddress]   (default 8085 127.0.0.1)
+ * By default only registers on this machine can connect. To serve registers on the shop
+ * LAN, pass the LAN address of this machine (or 0.0.0.0 for every interface); the
+ * protocol is plain HTTP, so only do that on a trusted network.
+ * Stop it with Ctrl+C; pending sales are checkpointed to the data files on exit.
+ */
+public class PosServerMain {
+
+    private static final int DEFAULT_PORT = 8085;
+    private static final String DEFAULT_BIND_ADDRESS = "127.0.0.1";
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String bindAddress = args.length > 1 ? args[1] : DEFAULT_BIND_ADDRESS;
+
+        // Small responses are written as separate header and body packets; without TCP_NODELAY
+        // each one waits out the client's delayed ACK (~40 ms per sale). This process only runs
+        // the server, so the JVM-wide setting is ours to make (unless given on the command line).
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        PosServer server = new PosServer(DataContext.getInstance(), new InetSocketAddress(bindAddress, port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            DataContext.shutdown();
+            System.out.println("POS server stopped.");
+        }, "pos-server-shutdown"));
+
+        server.start();
+        InetSocketAddress address = server.getAddress();
+        System.out.println("POS server listening on " + address.getAddress().getHostAddress() + ":" + address.getPort());
+        if (!address.getAddress().isLoopbackAddress()) {
+            System.out.println("Warning: plain HTTP is reachable from the network; use it on a trusted LAN only.");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.tracker.main;
+
+import com.tracker.dao.DailyRollupDAO;
+import com.tracker.dao.PersistenceExecutor;
+import com.tracker.dao.ProductDAO;
+import com.tracker.dao.SalesDAO;
+import com.tracker.dao.TransactionJournal;
+
+/**
+ * Command-line entry point that regenerates the daily sales rollup (data/rollup/)
+ * from the sales store. Use it if the rollup files were deleted or damaged.
+ * The stores are opened the way DataContext opens them, journal replay included,
+ * so the rebuilt rollup covers every sale the app will load.
+ */
+public class RebuildRollup {
+
+    public static void main(String[] args) {
+        ProductDAO productDAO = new ProductDAO();
+        SalesDAO salesDAO = new SalesDAO();
+        // Opened as it is: rebuilt once below, after the replay
+        DailyRollupDAO rollupDAO = new DailyRollupDAO(salesDAO, false);
+        // Moves sales that were committed but not yet checkpointed into the sales store
+        TransactionJournal journal = new TransactionJournal(productDAO, salesDAO, rollupDAO);
+        rollupDAO.rebuildFrom(salesDAO);
+        journal.checkpoint();
+        PersistenceExecutor.getInstance().flush();
+        System.out.println("Daily rollup rebuilt from " + salesDAO.getTransactionCount() + " sales transactions.");
+    }
+}
@@ -0,0 +1,119 @@
+package com.tracker.main;
+
+import com.tracker.dao.FileStorageUtil;
+import com.tracker.dao.ProductCodec;
+import com.tracker.model.Product;
+import com.tracker.service.Cart;
+import com.tracker.service.DataContext;
+import com.tracker.service.SalesService;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Command-line benchmark for the register's scan mode (SalesService.scanItem).
+ * Creates a catalog of synthetic SKUs, then times scans of random codes (a quarter
+ * typed in lower case) into carts of 30 items, and checks the 99th percentile
+ * against the 1 ms target.
+ *
+ * Usage: java com.tracker.main.ScanBenchmark [skus] [scans]
+ * Run it from an empty working directory: it creates its own data/ store there.
+ */
+public class ScanBenchmark {
+
+    private static final int CART_SIZE = 30;
+    private static final int WARMUP_SCANS = 200_000;
+    private static final long TARGET_NANOS = 1_000_000;
+
+    public static void main(String[] args) {
+        int skus = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int scans = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        if (new File("data").exists()) {
+            System.err.println("Refusing to run: ./data exists. Run from an empty directory.");
+            System.exit(1);
+        }
+
+        // Write the catalog directly; adding 100k products one by one would rewrite it every time
+        List<Product> catalog = new ArrayList<>(skus);
+        for (int i = 0; i < skus; i++) {
+            catalog.add(new Product(sku(i), "Product " + i, "Bench", 1.00, 1.99, Integer.MAX_VALUE / 2));
+        }
+        new File("data").mkdirs();
+        FileStorageUtil.saveBytes(ProductCodec.encode(catalog, 0), "data/products.dat");
+
+        long loadStart = System.nanoTime();
+        SalesService sales = DataContext.getInstance().getSalesService();
+        System.out.printf("Loaded %d SKUs in %.0f ms%n", skus, (System.nanoTime() - loadStart) / 1e6);
+
+        Random random = new Random(42);
+        String[] codes = new String[1 << 16];
+        for (int i = 0; i < codes.length; i++) {
+            String code = sku(random.nextInt(skus));
+            codes[i] = random.nextInt(4) == 0 ? code.toLowerCase(Locale.ROOT) : code;
+        }
+
+        Cart cart = new Cart();
+        run(sales, cart, codes, WARMUP_SCANS, null);
+        long[] nanos = new long[scans];
+        long failures = run(sales, cart, codes, scans, nanos);
+
+        Arrays.sort(nanos);
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        System.out.printf("%d scans: mean %.2f us, p50 %.2f us, p99 %.2f us, p99.9 %.2f us, max %.2f us%n",
+                scans, total / 1e3 / scans, percentile(nanos, 0.50) / 1e3, percentile(nanos, 0.99) / 1e3,
+                percentile(nanos, 0.999) / 1e3, nanos[nanos.length - 1] / 1e3);
+        boolean passed = check("every scan found its product", failures == 0, failures + " failed");
+        passed &= check("p99 scan under 1 ms", percentile(nanos, 0.99) < TARGET_NANOS,
+                String.format("%.2f us", percentile(nanos, 0.99) / 1e3));
+
+        DataContext.shutdown();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Scans `count` codes into carts of CART_SIZE lines, timing each scan if `nanos` is given.
+     * @return The number of scans that did not succeed.
+     */
+    private static long run(SalesService sales, Cart cart, String[] codes, int count, long[] nanos) {
+        long failures = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % CART_SIZE == 0) {
+                cart.clear();
+            }
+            String code = codes[i & (codes.length - 1)];
+            long start = System.nanoTime();
+            String result = sales.scanItem(cart, code, 1);
+            long elapsed = System.nanoTime() - start;
+            if (nanos != null) {
+                nanos[i] = elapsed;
+            }
+            if (result.startsWith("Error")) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    private static String sku(int i) {
+        return String.format("SKU-%06d", i);
+    }
+
+    private static boolean check(String name, boolean ok, String detail) {
+        System.out.println((ok ? "PASS " : "FAIL ") + name + " (" + detail + ")");
+        return ok;
+    }
+}
@@ -0,0 +1,46 @@
+package com.tracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonic event count. Increments are lock-free and do not contend between
+ * threads (LongAdder).
+ */
+public final class Counter implements CounterMXBean {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    // Count at the last rolling summary; only touched by the reporter
+    private long reported;
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Events since the previous call (for the rolling summary).
+     */
+    synchronized long takeInterval() {
+        long now = count.sum();
+        long interval = now - reported;
+        reported = now;
+        return interval;
+    }
+}
@@ -0,0 +1,8 @@
+package com.tracker.metrics;
+
+/**
+ * JMX view of a Counter (domain com.tracker, type=Counter).
+ */
+public interface CounterMXBean {
+    long getCount();
+}
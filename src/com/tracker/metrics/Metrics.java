@@ -0,0 +1,144 @@
+package com.tracker.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of timers and counters for the hot paths (DAO loads and saves,
+ * sales, purchases, logins, reports). Classes keep the instruments they use in static
+ * fields, so recording never looks anything up:
+ *
+ *   private static final Timer SAVE_TIMER = Metrics.timer("dao.products.save");
+ *   ...
+ *   long start = System.nanoTime();
+ *   saveProducts();
+ *   SAVE_TIMER.record(System.nanoTime() - start);
+ *
+ * Once start() has been called (DataContext does), every instrument is visible as a
+ * platform MBean under the com.tracker domain (JConsole, VisualVM, jcmd) and a summary
+ * of the last interval is logged periodically.
+ */
+public final class Metrics {
+
+    /** Seconds between rolling summaries; 0 turns the summary off. */
+    public static final String INTERVAL_PROPERTY = "tracker.metrics.interval";
+    private static final long DEFAULT_INTERVAL_SECONDS = 300;
+
+    // Sorted by name so the summary groups related instruments
+    private static final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+    private static ScheduledExecutorService reporter;
+    private static volatile boolean exposed;
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name) {
+        Timer created = new Timer(name);
+        Timer timer = timers.putIfAbsent(name, created);
+        if (timer == null) {
+            timer = created;
+            if (exposed) {
+                register("Timer", name, timer);
+            }
+        }
+        return timer;
+    }
+
+    public static Counter counter(String name) {
+        Counter created = new Counter(name);
+        Counter counter = counters.putIfAbsent(name, created);
+        if (counter == null) {
+            counter = created;
+            if (exposed) {
+                register("Counter", name, counter);
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Registers the MBeans and starts the rolling summary (see INTERVAL_PROPERTY).
+     * Both happen on a background thread, so startup does not wait for the platform
+     * MBean server. Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.execute(Metrics::exposeAll);
+
+        long interval = Long.getLong(INTERVAL_PROPERTY, DEFAULT_INTERVAL_SECONDS);
+        if (interval > 0) {
+            reporter.scheduleAtFixedRate(Metrics::logSummary, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Logs every instrument that saw activity since the previous summary: counts, and
+     * mean, p50, p99, p99.9 and max latency per timer.
+     */
+    public static void logSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Timer timer : timers.values()) {
+            Timer.Snapshot interval = timer.takeInterval();
+            if (interval.getCount() > 0) {
+                summary.append(String.format("  %-36s %8d calls  mean %s  p50 %s  p99 %s  p99.9 %s  max %s%n",
+                        timer.getName(), interval.getCount(), format(interval.getMeanNanos()),
+                        format(interval.getPercentileNanos(0.50)), format(interval.getPercentileNanos(0.99)),
+                        format(interval.getPercentileNanos(0.999)), format(interval.getMaxNanos())));
+            }
+        }
+        for (Counter counter : counters.values()) {
+            long interval = counter.takeInterval();
+            if (interval > 0) {
+                summary.append(String.format("  %-36s %8d%n", counter.getName(), interval));
+            }
+        }
+        if (summary.length() > 0) {
+            System.out.print("Metrics since last summary:\n" + summary);
+        }
+    }
+
+    private static void exposeAll() {
+        exposed = true;
+        // Instruments created from here on register themselves; register the earlier ones
+        timers.forEach((name, timer) -> register("Timer", name, timer));
+        counters.forEach((name, counter) -> register("Counter", name, counter));
+    }
+
+    private static synchronized void register(String type, String name, Object bean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.tracker:type=" + type + ",name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering metric " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static String format(double nanos) {
+        if (nanos >= 1e9) {
+            return String.format("%.2f s", nanos / 1e9);
+        }
+        if (nanos >= 1e6) {
+            return String.format("%.2f ms", nanos / 1e6);
+        }
+        return String.format("%.1f us", nanos / 1e3);
+    }
+}
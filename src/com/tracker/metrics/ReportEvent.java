@@ -0,0 +1,64 @@
+package com.tracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.time.LocalDate;
+
+/**
+ * JFR event: one report produced by ReportService (text report or record stream,
+ * which the CSV exports use). Reports read the daily rollup, so the work done is
+ * measured in rollup days scanned.
+ */
+@Name("com.tracker.Report")
+@Label("Report")
+@Category({"Sales Tracker", "Reports"})
+@Description("A report generated from the daily sales rollup")
+@StackTrace(false)
+public final class ReportEvent extends jdk.jfr.Event {
+
+    @Label("Report Type")
+    private String reportType;
+
+    @Label("Start Date")
+    private String startDate;
+
+    @Label("End Date")
+    private String endDate;
+
+    @Label("Span Days")
+    private int spanDays;
+
+    @Label("Spans")
+    @Description("Periods in the breakdown; 0 when answered from the cache")
+    private long spans;
+
+    @Label("Rollup Days Scanned")
+    @Description("Days of sales read from the rollup; 0 when answered from the cache")
+    private long daysScanned;
+
+    @Label("Cached")
+    private boolean cached;
+
+    public ReportEvent(String reportType, LocalDate startDate, LocalDate endDate) {
+        this.reportType = reportType;
+        this.startDate = String.valueOf(startDate);
+        this.endDate = String.valueOf(endDate);
+    }
+
+    public void setSpans(int spanDays, long spans) {
+        this.spanDays = spanDays;
+        this.spans = spans;
+    }
+
+    public void addDaysScanned(long days) {
+        this.daysScanned += days;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+}
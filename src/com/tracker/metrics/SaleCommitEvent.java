@@ -0,0 +1,42 @@
+package com.tracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: one sale committed by SalesService, from taking the stock locks until
+ * its journal record is on disk.
+ */
+@Name("com.tracker.SaleCommit")
+@Label("Sale Commit")
+@Category({"Sales Tracker", "Sales"})
+@Description("A sale from stock reservation to durable journal record")
+@StackTrace(false)
+public final class SaleCommitEvent extends jdk.jfr.Event {
+
+    @Label("Transaction ID")
+    private String transactionId;
+
+    @Label("Lines")
+    private int lines;
+
+    @Label("Total")
+    private double total;
+
+    @Label("Payment Method")
+    private String paymentMethod;
+
+    public void finish(String transactionId, int lines, double total, String paymentMethod) {
+        end();
+        if (shouldCommit()) {
+            this.transactionId = transactionId;
+            this.lines = lines;
+            this.total = total;
+            this.paymentMethod = paymentMethod;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.tracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: one read of a data file by FileStorageUtil (whole file, or a stream of
+ * frames from open to close). Recording settings for all tracker events: jfr/tracker.jfc.
+ */
+@Name("com.tracker.StorageLoad")
+@Label("Storage Load")
+@Category({"Sales Tracker", "Storage"})
+@Description("A data file read by FileStorageUtil")
+@StackTrace(true)
+public final class StorageLoadEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    private String file;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Records")
+    @Description("Objects or frames read; 0 for raw bytes")
+    private long records;
+
+    /**
+     * Ends the event and records it if the recording wants it.
+     */
+    public void finish(String file, long bytes, long records) {
+        end();
+        if (shouldCommit()) {
+            this.file = file;
+            this.bytes = bytes;
+            this.records = records;
+            commit();
+        }
+    }
+}
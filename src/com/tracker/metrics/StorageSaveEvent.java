@@ -0,0 +1,50 @@
+package com.tracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: one write of a data file by FileStorageUtil, including the wait for the
+ * group commit (fsync). Writes inside a WriteBatch only queue; `batched` marks them.
+ */
+@Name("com.tracker.StorageSave")
+@Label("Storage Save")
+@Category({"Sales Tracker", "Storage"})
+@Description("A data file replaced or appended to by FileStorageUtil")
+@StackTrace(true)
+public final class StorageSaveEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    private String file;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Records")
+    @Description("Objects or frames written; 0 for raw bytes")
+    private long records;
+
+    @Label("Append")
+    private boolean append;
+
+    @Label("Batched")
+    @Description("Queued in a WriteBatch and written when the batch closes")
+    private boolean batched;
+
+    public void finish(String file, long bytes, long records, boolean append, boolean batched) {
+        end();
+        if (shouldCommit()) {
+            this.file = file;
+            this.bytes = bytes;
+            this.records = records;
+            this.append = append;
+            this.batched = batched;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.tracker.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency histogram for one operation. Recording is lock-free and allocation-free:
+ * one atomic increment of a bucket plus two LongAdder updates, cheap enough for the
+ * register's hot path.
+ *
+ * Buckets are log-linear: 16 linear sub-buckets per power of two, so every percentile
+ * is within about 6% of the true value, from nanoseconds up to hours, in a fixed
+ * 1,000 buckets.
+ */
+public final class Timer implements TimerMXBean {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    // State at the last rolling summary; only touched by the reporter
+    private long[] reportedBuckets = new long[BUCKETS];
+    private long reportedCount;
+    private long reportedNanos;
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one operation that took `nanos` (from System.nanoTime differences).
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Runs the operation and records how long it took, also if it throws.
+     */
+    public <T> T time(Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Every operation recorded since startup.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new Snapshot(counts, count.sum(), totalNanos.sum());
+    }
+
+    /**
+     * The operations recorded since the previous call (for the rolling summary).
+     */
+    synchronized Snapshot takeInterval() {
+        Snapshot total = snapshot();
+        long[] interval = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            interval[i] = total.counts[i] - reportedBuckets[i];
+        }
+        Snapshot result = new Snapshot(interval, total.count - reportedCount, total.totalNanos - reportedNanos);
+        reportedBuckets = total.counts;
+        reportedCount = total.count;
+        reportedNanos = total.totalNanos;
+        return result;
+    }
+
+    // --- TimerMXBean ---
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return snapshot().getMeanNanos() / 1e3;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return snapshot().getPercentileNanos(0.50) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return snapshot().getPercentileNanos(0.99) / 1e3;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return snapshot().getPercentileNanos(0.999) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1e3;
+    }
+
+    // --- Buckets ---
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Middle of the bucket's value range.
+     */
+    static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lower + width / 2;
+    }
+
+    /**
+     * Immutable copy of the histogram at one point in time.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+
+        Snapshot(long[] counts, long count, long totalNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @param quantile Between 0 and 1, e.g. 0.99 for p99.
+         */
+        public long getPercentileNanos(double quantile) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return valueOf(i);
+                }
+            }
+            return valueOf(counts.length - 1);
+        }
+
+        /**
+         * The largest recorded value, to bucket precision.
+         */
+        public long getMaxNanos() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return valueOf(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tracker.metrics;
+
+/**
+ * JMX view of a Timer (domain com.tracker, type=Timer). Times are in microseconds,
+ * measured since the application started.
+ */
+public interface TimerMXBean {
+    long getCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+}
@@ -0,0 +1,31 @@
+package com.tracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: one screen (FXML view and its controller) loaded by MainController.
+ */
+@Name("com.tracker.ViewLoad")
+@Label("View Load")
+@Category({"Sales Tracker", "UI"})
+@StackTrace(false)
+public final class ViewLoadEvent extends jdk.jfr.Event {
+
+    @Label("FXML")
+    private String fxml;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    public void finish(String fxml, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.fxml = fxml;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.tracker.model;
+
+import java.io.Serializable;
+
+/**
+ * One row of the daily sales rollup: how much of one product was sold on one day.
+ * Maintained incrementally as sales are recorded so reports do not have to
+ * re-read every Sale line item.
+ */
+public class DailyProductTotal implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String productID;
+    private int quantity;
+    private double revenue;
+    private double cost;
+
+    public DailyProductTotal(String productID) {
+        this.productID = productID;
+    }
+
+    public DailyProductTotal(DailyProductTotal other) {
+        this.productID = other.productID;
+        this.quantity = other.quantity;
+        this.revenue = other.revenue;
+        this.cost = other.cost;
+    }
+
+    // Getters
+    public String getProductID() { return productID; }
+    public int getQuantity() { return quantity; }
+    public double getRevenue() { return revenue; }
+    public double getCost() { return cost; }
+
+    /**
+     * Adds one sale line to this day's totals.
+     */
+    public void add(Sale sale) {
+        this.quantity += sale.getQuantity();
+        this.revenue += sale.getLineTotal();
+        this.cost += sale.getLineCost();
+    }
+
+    /**
+     * Takes one sale line back out of this day's totals (a sale rolled back after a failed commit).
+     */
+    public void remove(Sale sale) {
+        this.quantity -= sale.getQuantity();
+        this.revenue -= sale.getLineTotal();
+        this.cost -= sale.getLineCost();
+    }
+}
@@ -0,0 +1,92 @@
+package com.tracker.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One day of the daily sales rollup: transaction-level revenue and COGS for the day,
+ * plus per-product totals. Maintained incrementally as sales are recorded.
+ */
+public class DailySales implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final LocalDate day;
+    private double revenue; // Sum of SalesTransaction.getCalculatedTotal()
+    private double cost;    // Sum of SalesTransaction.getTotalCostOfGoodsSold()
+    private final Map<String, DailyProductTotal> products = new HashMap<>();
+
+    public DailySales(LocalDate day) {
+        this.day = day;
+    }
+
+    // Getters
+    public LocalDate getDay() { return day; }
+    public double getRevenue() { return revenue; }
+    public double getCost() { return cost; }
+    public Map<String, DailyProductTotal> getProducts() { return products; }
+
+    /**
+     * Adds one committed transaction to this day's totals.
+     */
+    public void addTransaction(SalesTransaction transaction) {
+        this.revenue += transaction.getCalculatedTotal();
+        this.cost += transaction.getTotalCostOfGoodsSold();
+        for (Sale sale : transaction.getSales()) {
+            products.computeIfAbsent(sale.getProductID(), DailyProductTotal::new).add(sale);
+        }
+    }
+
+    /**
+     * Returns a copy of this day with one more transaction added, leaving this object unchanged,
+     * so a day already handed to a report can be read without locking while sales continue.
+     * Only the product totals the transaction touches are copied.
+     */
+    public DailySales withTransaction(SalesTransaction transaction) {
+        DailySales copy = new DailySales(day);
+        copy.revenue = this.revenue + transaction.getCalculatedTotal();
+        copy.cost = this.cost + transaction.getTotalCostOfGoodsSold();
+        copy.products.putAll(this.products);
+        for (Sale sale : transaction.getSales()) {
+            DailyProductTotal existing = copy.products.get(sale.getProductID());
+            DailyProductTotal updated = existing != null ? new DailyProductTotal(existing)
+                                                         : new DailyProductTotal(sale.getProductID());
+            updated.add(sale);
+            copy.products.put(sale.getProductID(), updated);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this day with one transaction taken back out (see withTransaction),
+     * for a sale rolled back after its commit failed. Products left with no sales are dropped.
+     */
+    public DailySales withoutTransaction(SalesTransaction transaction) {
+        DailySales copy = new DailySales(day);
+        copy.revenue = this.revenue - transaction.getCalculatedTotal();
+        copy.cost = this.cost - transaction.getTotalCostOfGoodsSold();
+        copy.products.putAll(this.products);
+        for (Sale sale : transaction.getSales()) {
+            DailyProductTotal existing = copy.products.get(sale.getProductID());
+            if (existing == null) {
+                continue;
+            }
+            DailyProductTotal updated = new DailyProductTotal(existing);
+            updated.remove(sale);
+            if (updated.getQuantity() <= 0) {
+                copy.products.remove(sale.getProductID());
+            } else {
+                copy.products.put(sale.getProductID(), updated);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * True if no sales are left in this day.
+     */
+    public boolean isEmpty() {
+        return products.isEmpty();
+    }
+}
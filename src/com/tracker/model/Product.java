@@ -15,7 +15,9 @@ public class Product implements Serializable {
     private String category;
     private double costPrice;
     private double sellingPrice;
-    private int stockQuantity; // Corresponds to the 'stock' attribute
+    // Corresponds to the 'stock' attribute. Changed under the product's stock lock
+    // (see StockLocks); volatile so registers on other threads see the current level.
+    private volatile int stockQuantity;
 
     // Constructor
     public Product(String productID, String name, String category, double costPrice, double sellingPrice, int initialStock) {
@@ -47,6 +49,7 @@ public class Product implements Serializable {
      * Updates the stock quantity. 
      * Positive value increases stock (Purchase).
      * Negative value decreases stock (Sale).
+     * Callers hold the product's stock lock, so the read-modify-write is not interleaved.
      */
     public void updateStock(int quantityChange) {
         this.stockQuantity += quantityChange;
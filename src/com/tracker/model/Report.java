@@ -17,7 +17,7 @@ public class Report implements Serializable {
     private String reportContent; 
 
     public Report(String reportType, LocalDate startDate, LocalDate endDate) {
-        this.reportID = java.util.UUID.randomUUID().toString();
+        this.reportID = IdGenerator.getDefault().next();
         this.reportType = reportType;
         this.startDate = startDate;
         this.endDate = endDate;
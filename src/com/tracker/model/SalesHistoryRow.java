@@ -0,0 +1,39 @@
+package com.tracker.model;
+
+/**
+ * One line of the Sales History table: a sale item with the context of its transaction.
+ * Built per displayed row, so paging through the history never modifies the stored Sale objects.
+ */
+public class SalesHistoryRow {
+
+    // --- Binds to the SalesHistoryView columns via PropertyValueFactory ---
+    private final String transactionID;
+    private final String timestamp;
+    private final String productID;
+    private final String productName;
+    private final int quantitySold;
+    private final double unitSalePrice;
+    private final String recordedBy;
+
+    public SalesHistoryRow(SalesTransaction transaction, Sale sale, String productName) {
+        this.transactionID = transaction.getTransactionID();
+        this.timestamp = transaction.getFormattedTimestamp();
+        this.productID = sale.getProductID();
+        this.productName = productName != null ? productName : "";
+        this.quantitySold = sale.getQuantitySold();
+        this.unitSalePrice = sale.getUnitSalePrice();
+        this.recordedBy = transaction.getUser() != null
+                ? transaction.getUser().getUsername()
+                : "Unknown User (Legacy)";
+    }
+
+    // Getters
+    public String getTransactionID() { return transactionID; }
+    public String getTimestamp() { return timestamp; }
+    public String getProductID() { return productID; }
+    public String getProductName() { return productName; }
+    public int getQuantitySold() { return quantitySold; }
+    public double getUnitSalePrice() { return unitSalePrice; }
+    public double getTotalRevenue() { return quantitySold * unitSalePrice; }
+    public String getRecordedBy() { return recordedBy; }
+}
@@ -29,6 +29,21 @@ public class SalesTransaction implements Serializable {
         this.sales = new ArrayList<>();
     }
 
+    /**
+     * Full constructor for loading transactions from persistence (binary sales codec).
+     * Keeps the stored total as-is so legacy records read back exactly as they were saved.
+     */
+    public SalesTransaction(String transactionID, User user, String paymentMethod, LocalDateTime dateTime,
+                            LocalDateTime timestamp, List<Sale> sales, double calculatedTotal) {
+        this.transactionID = transactionID;
+        this.user = user;
+        this.dateTime = dateTime;
+        this.paymentMethod = paymentMethod;
+        this.timestamp = timestamp;
+        this.sales = sales;
+        this.calculatedTotal = calculatedTotal;
+    }
+
     // Corresponds to addSale(Sale sale) in the diagram
     public void addSale(Sale sale) {
         this.sales.add(sale);
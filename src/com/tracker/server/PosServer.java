@@ -0,0 +1,307 @@
+package com.tracker.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.tracker.model.Product;
+import com.tracker.model.User;
+import com.tracker.service.AuthenticationService;
+import com.tracker.service.DataContext;
+import com.tracker.service.InventoryService;
+import com.tracker.service.SalesService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless multi-register mode: serves the Record Sale use case, product lookup and
+ * stock queries over HTTP so several thin register clients on the LAN can share one
+ * inventory. All registers use the same DataContext services as the desktop app.
+ *
+ * The server speaks plain HTTP (passwords and session tokens are not encrypted), so it
+ * listens on the loopback interface unless it is given another address explicitly;
+ * only expose it on a trusted shop network.
+ *
+ * Endpoints (request bodies are form-encoded, responses are JSON):
+ *   POST /login     username, password      -> {"session": ..., "role": ..., "name": ...}
+ *   POST /logout
+ *   GET  /products/{id}                     -> one product
+ *   GET  /products?name=...                 -> one product, by exact name
+ *   GET  /stock                             -> all products with their stock levels
+ *   POST /sales     payment, item=ID:QTY (repeated) -> {"result": ...}
+ * Every endpoint except /login needs the X-Session header returned by /login.
+ */
+public class PosServer {
+
+    public static final String SESSION_HEADER = "X-Session";
+
+    private final InventoryService inventoryService;
+    private final SalesService salesService;
+    private final AuthenticationService authenticationService;
+    private final PosSessions sessions = new PosSessions();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * A server on the loopback interface only (registers on the same machine).
+     */
+    public PosServer(DataContext context, int port) throws IOException {
+        this(context, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * @param address Where to listen, e.g. the shop LAN address; 0.0.0.0 listens on every interface.
+     */
+    public PosServer(DataContext context, InetSocketAddress address) throws IOException {
+        this.inventoryService = context.getInventoryService();
+        this.salesService = context.getSalesService();
+        this.authenticationService = new AuthenticationService();
+
+        this.server = HttpServer.create(address, 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+
+        server.createContext("/login", handler(this::login));
+        server.createContext("/logout", handler(this::logout));
+        server.createContext("/products", handler(this::products));
+        server.createContext("/stock", handler(this::stock));
+        server.createContext("/sales", handler(this::sales));
+    }
+
+    public void start() {
+        sessions.startSweeper();
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, giving running ones up to two seconds to finish.
+     */
+    public void stop() {
+        server.stop(2);
+        executor.shutdown();
+        sessions.stopSweeper();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * One virtual thread per request where the JDK has them (Java 21+). On older JDKs
+     * a cached pool also gives each concurrent request its own thread.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // --- Endpoints ---
+
+    private Response login(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return Response.error(405, "Use POST");
+        }
+        Map<String, List<String>> form = readForm(exchange);
+        Optional<User> user = authenticationService.authenticate(first(form, "username"), first(form, "password"));
+        if (user.isEmpty()) {
+            return Response.error(401, "Invalid username or password");
+        }
+        String token = sessions.open(user.get());
+        return new Response(200, "{\"session\":" + quote(token)
+                + ",\"role\":" + quote(user.get().getRole())
+                + ",\"name\":" + quote(user.get().getName()) + "}");
+    }
+
+    private Response logout(HttpExchange exchange) {
+        sessions.close(exchange.getRequestHeaders().getFirst(SESSION_HEADER));
+        return new Response(200, "{\"result\":\"Logged out\"}");
+    }
+
+    private Response products(HttpExchange exchange) {
+        if (currentUser(exchange).isEmpty()) {
+            return Response.error(401, "Log in first");
+        }
+        String path = exchange.getRequestURI().getPath();
+        Optional<Product> product;
+        if (path.length() > "/products/".length()) {
+            product = inventoryService.getProductById(decode(path.substring("/products/".length())));
+        } else {
+            String name = first(parseQuery(exchange.getRequestURI().getRawQuery()), "name");
+            product = inventoryService.getProductByName(name);
+        }
+        return product.map(p -> new Response(200, json(p)))
+                .orElseGet(() -> Response.error(404, "Product not found"));
+    }
+
+    private Response stock(HttpExchange exchange) {
+        if (currentUser(exchange).isEmpty()) {
+            return Response.error(401, "Log in first");
+        }
+        StringBuilder body = new StringBuilder("[");
+        for (Product product : inventoryService.viewCurrentStock()) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            body.append(json(product));
+        }
+        return new Response(200, body.append(']').toString());
+    }
+
+    private Response sales(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return Response.error(405, "Use POST");
+        }
+        Optional<User> user = currentUser(exchange);
+        if (user.isEmpty()) {
+            return Response.error(401, "Log in first");
+        }
+
+        Map<String, List<String>> form = readForm(exchange);
+        List<SalesService.SaleRequest> items = new ArrayList<>();
+        for (String item : form.getOrDefault("item", List.of())) {
+            int colon = item.lastIndexOf(':');
+            try {
+                int quantity = colon < 0 ? 1 : Integer.parseInt(item.substring(colon + 1));
+                if (quantity <= 0) {
+                    return Response.error(400, "Quantity must be greater than zero: " + item);
+                }
+                items.add(new SalesService.SaleRequest(colon < 0 ? item : item.substring(0, colon), quantity));
+            } catch (NumberFormatException e) {
+                return Response.error(400, "Invalid item (expected ID:QTY): " + item);
+            }
+        }
+        if (items.isEmpty()) {
+            return Response.error(400, "No items in the sale");
+        }
+
+        String payment = Optional.ofNullable(first(form, "payment")).orElse("Cash");
+        String result = salesService.recordSaleTransaction(user.get(), items, payment);
+        int status = result.startsWith("Sale recorded") ? 200
+                : result.startsWith("Access Denied") ? 403
+                : result.startsWith("Error: Sale could not be saved") ? 500
+                : 409; // Unknown product or insufficient stock
+        return new Response(status, "{\"result\":" + quote(result) + "}");
+    }
+
+    private Optional<User> currentUser(HttpExchange exchange) {
+        return sessions.get(exchange.getRequestHeaders().getFirst(SESSION_HEADER));
+    }
+
+    // --- HTTP plumbing ---
+
+    private interface Endpoint {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + quote(message) + "}");
+        }
+    }
+
+    private static HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            Response response;
+            try {
+                response = endpoint.handle(exchange);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+                response = Response.error(500, "Internal error");
+            }
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        };
+    }
+
+    private static Map<String, List<String>> readForm(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        return parseQuery(new String(body, StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, List<String>> parseQuery(String query) {
+        Map<String, List<String>> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = decode(eq < 0 ? pair : pair.substring(0, eq));
+            String value = eq < 0 ? "" : decode(pair.substring(eq + 1));
+            params.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+
+    private static String first(Map<String, List<String>> params, String key) {
+        List<String> values = params.get(key);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String json(Product product) {
+        return "{\"id\":" + quote(product.getProductID())
+                + ",\"name\":" + quote(product.getName())
+                + ",\"category\":" + quote(product.getCategory())
+                + ",\"sellingPrice\":" + product.getSellingPrice()
+                + ",\"stock\":" + product.getStockQuantity() + "}";
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.tracker.server;
+
+import com.tracker.model.User;
+
+import java.security.SecureRandom;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sessions of the register clients connected to the POS server.
+ * Replaces the desktop app's single static AuthenticationService.activeUser: every
+ * register logs in on its own and sends its session token with each request.
+ * Registers that never log out are swept out once they have been idle too long
+ * (startSweeper), so a long-running server does not accumulate sessions.
+ */
+public class PosSessions {
+
+    // A register that has been idle this long must log in again
+    private static final long IDLE_TIMEOUT_MILLIS = 8 * 60 * 60 * 1000L;
+    private static final long SWEEP_INTERVAL_MINUTES = 10;
+
+    private static final class Session {
+        final User user;
+        volatile long lastSeen;
+
+        Session(User user) {
+            this.user = user;
+            this.lastSeen = System.currentTimeMillis();
+        }
+    }
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * Creates a session for an authenticated user.
+     * @return The session token the client sends back in the X-Session header.
+     */
+    public String open(User user) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder(32);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        sessions.put(token.toString(), new Session(user));
+        return token.toString();
+    }
+
+    /**
+     * Returns the user of a live session, refreshing its idle timer.
+     */
+    public Optional<User> get(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        if (now - session.lastSeen > IDLE_TIMEOUT_MILLIS) {
+            sessions.remove(token);
+            return Optional.empty();
+        }
+        session.lastSeen = now;
+        return Optional.of(session.user);
+    }
+
+    public void close(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes every session that has been idle longer than the timeout.
+     * @return The number of sessions removed.
+     */
+    public int removeExpired() {
+        long now = System.currentTimeMillis();
+        int before = sessions.size();
+        sessions.values().removeIf(session -> now - session.lastSeen > IDLE_TIMEOUT_MILLIS);
+        return before - sessions.size();
+    }
+
+    /**
+     * Sweeps expired sessions every few minutes on a background thread, until stopSweeper().
+     */
+    public synchronized void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pos-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::removeExpired, SWEEP_INTERVAL_MINUTES, SWEEP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+}
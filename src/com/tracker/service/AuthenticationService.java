@@ -1,6 +1,9 @@
 package com.tracker.service;
 
 import com.tracker.dao.UserDAO;
+import com.tracker.metrics.Counter;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
 import com.tracker.model.ShopKeeper;
 import com.tracker.model.Staff;
 import com.tracker.model.User;
@@ -18,13 +21,12 @@ public class AuthenticationService {
     
     // Represents the 'Session' lifeline: stores the currently logged-in user
     private static User activeUser; 
+    private static final Timer LOGIN_TIMER = Metrics.timer("auth.login");
+    private static final Counter LOGIN_FAILURES = Metrics.counter("auth.login.failed");
 
     public AuthenticationService() {
-        this.userDAO = new UserDAO();
-        // activeUser is static, so only initialize if it's null
-        if (activeUser == null) {
-            userDAO.loadUsers(); // Ensure users are loaded/bootstrapped on startup
-        }
+        // Users are loaded/bootstrapped once by the shared DataContext
+        this.userDAO = DataContext.getInstance().getUserDAO();
     }
     /**
      * Allows the ShopKeeper to create a new Staff or ShopKeeper account.
@@ -36,7 +38,7 @@ public class AuthenticationService {
      * @return True if the user was successfully added.
      */
     public static boolean addUser(User creatingUser, String newUsername, String newPassword, String role) {
-    	UserDAO userDAO = new UserDAO(); 
+    	UserDAO userDAO = DataContext.getInstance().getUserDAO(); 
         
         // 1. RBAC Check
         if (creatingUser == null || !creatingUser.getRole().equals("SHOPKEEPER")) {
@@ -78,7 +80,7 @@ public class AuthenticationService {
     public User login(String username, String password) {
         
         // 1. Call 'validateCredentials' via the DAO layer
-        Optional<User> foundUser = userDAO.findByUsernameAndPassword(username, password);
+        Optional<User> foundUser = authenticate(username, password);
 
         if (foundUser.isPresent()) {
             // Success branch: 2. 'createSession' (by setting activeUser)
@@ -93,6 +95,22 @@ public class AuthenticationService {
         }
     }
 
+    /**
+     * Corresponds to 'validateCredentials' without creating the desktop session.
+     * Used where each client has its own session (e.g. the POS server).
+     */
+    public Optional<User> authenticate(String username, String password) {
+        long start = System.nanoTime();
+        Optional<User> user = username == null || password == null
+                ? Optional.empty()
+                : userDAO.findByUsernameAndPassword(username, password);
+        LOGIN_TIMER.record(System.nanoTime() - start);
+        if (user.isEmpty()) {
+            LOGIN_FAILURES.increment();
+        }
+        return user;
+    }
+
     /**
      * Clears the active session. Corresponds to the 'logout' method.
      */
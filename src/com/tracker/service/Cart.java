@@ -0,0 +1,105 @@
+package com.tracker.service;
+
+import com.tracker.model.Product;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The register's open cart: one line per product, in the order first added.
+ * Lines are keyed by product ID, so adding a scanned item merges in O(1), and the
+ * total is kept up to date on every change instead of being summed again.
+ * Not thread-safe; each register (SalesController) owns one.
+ */
+public class Cart {
+
+    /**
+     * One product in the cart. The price is the selling price when first added.
+     */
+    public static final class Line {
+        private final String productID;
+        private final String name;
+        private final double unitPrice;
+        private int quantity;
+
+        Line(String productID, String name, double unitPrice) {
+            this.productID = productID;
+            this.name = name;
+            this.unitPrice = unitPrice;
+        }
+
+        public String getProductID() { return productID; }
+        public String getName() { return name; }
+        public double getUnitPrice() { return unitPrice; }
+        public int getQuantity() { return quantity; }
+        public double getTotal() { return quantity * unitPrice; }
+    }
+
+    private final Map<String, Line> lines = new LinkedHashMap<>();
+    // Kept in cents so adding and removing lines never accumulates rounding error
+    private long totalCents;
+    private Line lastChanged;
+
+    /**
+     * Adds `quantity` units of the product, merging with its existing line.
+     * @return The product's line after the change.
+     */
+    public Line add(Product product, int quantity) {
+        Line line = lines.computeIfAbsent(product.getProductID(),
+                id -> new Line(id, product.getName(), product.getSellingPrice()));
+        line.quantity += quantity;
+        totalCents += Math.round(line.unitPrice * 100) * quantity;
+        lastChanged = line;
+        return line;
+    }
+
+    /**
+     * Units of the product already in the cart (0 if none).
+     */
+    public int getQuantity(String productId) {
+        Line line = lines.get(productId);
+        return line != null ? line.quantity : 0;
+    }
+
+    /**
+     * The line changed by the latest add (e.g. by SalesService.scanItem), or null.
+     */
+    public Line getLastChanged() {
+        return lastChanged;
+    }
+
+    public double getTotal() {
+        return totalCents / 100.0;
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    public List<Line> getLines() {
+        return new ArrayList<>(lines.values());
+    }
+
+    /**
+     * The cart as sale request lines for SalesService.recordSaleTransaction.
+     */
+    public List<SalesService.SaleRequest> toRequests() {
+        List<SalesService.SaleRequest> requests = new ArrayList<>(lines.size());
+        for (Line line : lines.values()) {
+            requests.add(new SalesService.SaleRequest(line.productID, line.quantity));
+        }
+        return requests;
+    }
+
+    public void clear() {
+        lines.clear();
+        totalCents = 0;
+        lastChanged = null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.tracker.service;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Minimal streaming CSV writer (RFC 4180 quoting, "\n" line endings).
+ * Each row is assembled in one reusable buffer and handed to the Writer when it ends,
+ * so memory use does not depend on the number of rows. Numbers and dates are
+ * formatted without String.format.
+ */
+public class CsvWriter implements Flushable, Closeable {
+
+    private final Writer out;
+    private final StringBuilder row = new StringBuilder(128);
+    private boolean firstField = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes UTF-8 straight to a channel (e.g. a FileChannel), through the channel writer's own buffer.
+     */
+    public CsvWriter(WritableByteChannel channel) {
+        this(Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Text field; quoted only when it contains a comma, quote or line break. Null is written as an empty field.
+     */
+    public CsvWriter field(String value) {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            row.append(value);
+            return this;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+        return this;
+    }
+
+    public CsvWriter field(long value) {
+        separator();
+        row.append(value);
+        return this;
+    }
+
+    /**
+     * ISO date (yyyy-MM-dd).
+     */
+    public CsvWriter field(LocalDate date) {
+        separator();
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            row.append(date);
+            return this;
+        }
+        appendPadded(year, 4);
+        row.append('-');
+        appendPadded(date.getMonthValue(), 2);
+        row.append('-');
+        appendPadded(date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    /**
+     * Amount with exactly two decimals, the same text as String.format(Locale.ROOT, "%.2f", value).
+     * Like "%.2f", it rounds the shortest decimal form of the double half up (38.035 gives
+     * 38.04), which multiplying by 100 would not: 38.035 * 100 is 3803.4999... in binary.
+     * Checked against "%.2f" by com.tracker.main.CsvFormatTest.
+     */
+    public CsvWriter money(double value) {
+        separator();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            row.append(value);
+            return this;
+        }
+        // The sign is written separately so amounts that round to zero keep it, as "%.2f" does (-0.00)
+        if (Double.doubleToRawLongBits(value) < 0) {
+            row.append('-');
+        }
+        row.append(BigDecimal.valueOf(Math.abs(value)).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        return this;
+    }
+
+    /**
+     * Ends the current row and passes it to the underlying Writer.
+     */
+    public void endRow() throws IOException {
+        row.append('\n');
+        out.append(row);
+        row.setLength(0);
+        firstField = true;
+    }
+
+    /**
+     * Writes a complete row of text fields (e.g. the header).
+     */
+    public void row(String... fields) throws IOException {
+        for (String field : fields) {
+            field(field);
+        }
+        endRow();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separator() {
+        if (!firstField) {
+            row.append(',');
+        }
+        firstField = false;
+    }
+
+    private void appendPadded(int value, int width) {
+        for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (value < limit) {
+                row.append('0');
+            }
+        }
+        row.append(value);
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package com.tracker.service;
+
+import com.tracker.dao.DailyRollupDAO;
+import com.tracker.dao.PersistenceExecutor;
+import com.tracker.dao.ProductDAO;
+import com.tracker.dao.PurchaseDAO;
+import com.tracker.dao.SalesDAO;
+import com.tracker.dao.TransactionJournal;
+import com.tracker.dao.UserDAO;
+import com.tracker.metrics.Metrics;
+
+/**
+ * Application-scoped data context. Loads each data store exactly once and hands the
+ * same DAOs and services to every controller, so switching screens costs no I/O and
+ * all screens see one consistent view of products, sales, purchases and users.
+ */
+public final class DataContext {
+
+    private static DataContext instance;
+
+    // Data stores (each .dat file is deserialized once per process)
+    private final ProductDAO productDAO;
+    private final SalesDAO salesDAO;
+    private final DailyRollupDAO rollupDAO;
+    private final TransactionJournal journal;
+    private final PurchaseDAO purchaseDAO;
+    private final UserDAO userDAO;
+
+    // Services wired to the shared stores
+    private final InventoryService inventoryService;
+    private final SalesService salesService;
+    private final PurchaseService purchaseService;
+    private final ReportService reportService;
+
+    private DataContext() {
+        this.productDAO = new ProductDAO();
+        this.salesDAO = new SalesDAO();
+        this.rollupDAO = new DailyRollupDAO(salesDAO);
+        // Replays sales that were committed but not yet checkpointed into the stores above
+        this.journal = new TransactionJournal(productDAO, salesDAO, rollupDAO);
+        this.purchaseDAO = new PurchaseDAO();
+        this.userDAO = new UserDAO();
+        this.userDAO.loadUsers();
+
+        this.inventoryService = new InventoryService(productDAO);
+        this.salesService = new SalesService(inventoryService, salesDAO, journal);
+        this.purchaseService = new PurchaseService(inventoryService, purchaseDAO);
+        this.reportService = new ReportService(salesDAO, productDAO, rollupDAO);
+
+        // MBeans under com.tracker and a periodic summary in the log
+        Metrics.start();
+    }
+
+    /**
+     * Returns the process-wide context, loading the data stores on first use.
+     */
+    public static synchronized DataContext getInstance() {
+        if (instance == null) {
+            instance = new DataContext();
+        }
+        return instance;
+    }
+
+    /**
+     * Checkpoints the transaction journal if the context was ever loaded and waits for
+     * all background writes to reach disk, then logs a last metrics summary.
+     * Called when the application exits so the next start has nothing to replay.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.journal.checkpoint();
+        }
+        PersistenceExecutor.getInstance().flush();
+        if (instance != null) {
+            Metrics.logSummary();
+        }
+    }
+
+    // DAO getters
+    public ProductDAO getProductDAO() { return productDAO; }
+    public SalesDAO getSalesDAO() { return salesDAO; }
+    public DailyRollupDAO getRollupDAO() { return rollupDAO; }
+    public TransactionJournal getJournal() { return journal; }
+    public PurchaseDAO getPurchaseDAO() { return purchaseDAO; }
+    public UserDAO getUserDAO() { return userDAO; }
+
+    // Service getters
+    public InventoryService getInventoryService() { return inventoryService; }
+    public SalesService getSalesService() { return salesService; }
+    public PurchaseService getPurchaseService() { return purchaseService; }
+    public ReportService getReportService() { return reportService; }
+}
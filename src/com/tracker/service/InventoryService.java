@@ -2,6 +2,7 @@ package com.tracker.service;
 
 import com.tracker.dao.ProductDAO;
 import java.util.ArrayList;
+import java.util.Collection;
 import com.tracker.model.Product;
 import com.tracker.model.User;
 import java.util.List;
@@ -15,9 +16,18 @@ import java.util.stream.Collectors;
 public class InventoryService {
 
     private final ProductDAO productDAO;
+    // Guards stock levels against concurrent sales, purchases and edits
+    private final StockLocks stockLocks = new StockLocks();
 
+    /**
+     * Uses the shared product store from the DataContext.
+     */
     public InventoryService() {
-        this.productDAO = new ProductDAO();
+        this(DataContext.getInstance().getProductDAO());
+    }
+
+    public InventoryService(ProductDAO productDAO) {
+        this.productDAO = productDAO;
     }
     
     // --- Use Case: Add Product ---
@@ -77,6 +87,7 @@ public class InventoryService {
         else {
             Product existingProduct = existingProductById.get();
             
+            StockLocks.Held held = stockLocks.lock(List.of(existingProduct.getProductID()));
             try {
                 // A) Update stock: Use the explicit 'stockChange' amount provided.
                 existingProduct.updateStock(stockChange); 
@@ -92,6 +103,8 @@ public class InventoryService {
             } catch (Exception e) {
                 System.err.println("Error updating product: " + e.getMessage());
                 return false;
+            } finally {
+                held.unlock();
             }
         }
     }
@@ -113,14 +126,19 @@ public class InventoryService {
         
         Product product = productOpt.get();
         
-        // ALT [product found] -> checkStock
-        if (product.getStockQuantity() > 0) {
-            // ALT [stock > 0]
-            return "Error: cannot remove, stock available (" + product.getStockQuantity() + " units).";
-        }
+        StockLocks.Held held = stockLocks.lock(List.of(product.getProductID()));
+        try {
+            // ALT [product found] -> checkStock
+            if (product.getStockQuantity() > 0) {
+                // ALT [stock > 0]
+                return "Error: cannot remove, stock available (" + product.getStockQuantity() + " units).";
+            }
 
-        // ALT [stock = 0] -> deleteProduct
-        productDAO.remove(productId);
+            // ALT [stock = 0] -> deleteProduct
+            productDAO.remove(productId);
+        } finally {
+            held.unlock();
+        }
         return "Product removed successfully.";
     }
     
@@ -135,6 +153,23 @@ public class InventoryService {
     public Optional<Product> getProductById(String productId) {
         return productDAO.findById(productId);
     }
+
+    /**
+     * Resolves a scanned SKU/barcode: the product whose ID is exactly the code, else
+     * the one matching it ignoring case. Hash lookups only (see ProductRepository).
+     */
+    public Optional<Product> findByCode(String code) {
+        Optional<Product> exact = productDAO.getProductById(code);
+        return exact.isPresent() ? exact : productDAO.findById(code);
+    }
+    
+    /**
+     * Locks the stock of the given products (by canonical product ID) until the returned
+     * handle is unlocked. Hold it from checking stock until the change is applied.
+     */
+    public StockLocks.Held lockStock(Collection<String> productIds) {
+        return stockLocks.lock(productIds);
+    }
     
     // Utility method to save changes made to a product (e.g., stock update after sale/purchase)
     public void persistChanges() {
@@ -145,10 +180,8 @@ public class InventoryService {
             return Optional.empty();
         }
         
-        // FIX: Call the non-static method on the instance variable 'productDAO'
-        return this.productDAO.getAllProducts().stream() 
-                .filter(p -> p.getName().trim().equalsIgnoreCase(name.trim()))
-                .findFirst();
+        // Indexed lookup on the normalized (trimmed, case-folded) name
+        return this.productDAO.getProductByName(name);
     }
     
     /**
@@ -163,14 +196,19 @@ public class InventoryService {
         
         String lowerCaseQuery = query.trim().toLowerCase();
         
-        // 1. Get all products (using the DAO's method)
-        List<Product> allProducts = productDAO.getAllProducts(); 
-        
-        // 2. Filter the list by name
-        return allProducts.stream()
+        // The search index also matches IDs; keep the name matches only
+        return productDAO.searchProducts(query, Integer.MAX_VALUE).stream()
             .filter(p -> p.getName().toLowerCase().contains(lowerCaseQuery))
             .collect(Collectors.toList());
     }
+
+    /**
+     * Autocomplete: up to `limit` products whose ID or name starts with or contains
+     * the query (ignoring case), best matches first. Served from the in-memory index.
+     */
+    public List<Product> searchProducts(String query, int limit) {
+        return productDAO.searchProducts(query, limit);
+    }
     
     public List<Product> getAllProducts() {
         return productDAO.getAllProducts();
@@ -1,22 +1,34 @@
 package com.tracker.service;
 
 import com.tracker.dao.PurchaseDAO;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.Timer;
+import com.tracker.model.IdGenerator;
 import com.tracker.model.Product;
 import com.tracker.model.Purchase;
 import com.tracker.model.User;
 import java.time.LocalDate;
-import java.util.UUID;
+import java.util.List;
 
 /**
  * Executes the business logic for the Record Purchase use case.
  */
 public class PurchaseService {
 
+    private static final Timer PURCHASE_TIMER = Metrics.timer("purchases.recordPurchase");
+
     private final PurchaseDAO purchaseDAO;
     private final InventoryService inventoryService;
 
+    /**
+     * Uses the shared purchase store from the DataContext.
+     */
     public PurchaseService(InventoryService inventoryService) {
-        this.purchaseDAO = new PurchaseDAO();
+        this(inventoryService, DataContext.getInstance().getPurchaseDAO());
+    }
+
+    public PurchaseService(InventoryService inventoryService, PurchaseDAO purchaseDAO) {
+        this.purchaseDAO = purchaseDAO;
         this.inventoryService = inventoryService;
     }
 
@@ -25,6 +37,10 @@ public class PurchaseService {
      * Only ShopKeeper can perform this action.
      */
     public String recordPurchase(User user, String productId, int quantity, double costPrice, String supplierName) {
+        return PURCHASE_TIMER.time(() -> addPurchase(user, productId, quantity, costPrice, supplierName));
+    }
+
+    private String addPurchase(User user, String productId, int quantity, double costPrice, String supplierName) {
         // Enforce role-based access control
         if (user == null || !user.getRole().equals("SHOPKEEPER")) {
             return "Access Denied: Only ShopKeeper can record purchases.";
@@ -46,14 +62,19 @@ public class PurchaseService {
             return "Error: Product ID " + productId + " not found in inventory. Add it first.";
         }
 
-        // 2. Update Product/Inventory (Adds Stock)
-        product.updateStock(quantity);
-        // Important: Update product cost price (FR-3 includes recording cost price)
-        product.setCostPrice(costPrice); 
+        // 2. Update Product/Inventory (Adds Stock) while holding the product's stock lock
+        StockLocks.Held held = inventoryService.lockStock(List.of(product.getProductID()));
+        try {
+            product.updateStock(quantity);
+            // Important: Update product cost price (FR-3 includes recording cost price)
+            product.setCostPrice(costPrice); 
+        } finally {
+            held.unlock();
+        }
         
         // 3. Record Purchase Transaction
         Purchase purchase = new Purchase(
-            UUID.randomUUID().toString(),
+            IdGenerator.getDefault().next(),
             productId,
             quantity,
             costPrice,
@@ -61,7 +82,7 @@ public class PurchaseService {
             supplierName 
         );
         
-        // 4. Persist
+        // 4. Persist (written in the background; both snapshots are taken now)
         inventoryService.persistChanges(); // Save updated stock/price
         purchaseDAO.addPurchase(purchase); // Save purchase record
         
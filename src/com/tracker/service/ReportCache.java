@@ -0,0 +1,159 @@
+package com.tracker.service;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Results of recent report requests, so re-viewing or exporting an unchanged report
+ * does not scan the rollup again.
+ * There is one entry per report (its span results); ReportService renders both the text
+ * view and the CSV records from it, so a view followed by an export of the same report,
+ * or the other way round, is a hit.
+ * Entries are keyed on (kind, start, end, span, topN) and stamped with the SalesDAO
+ * version they were computed from; an entry from an older version is a miss. The least
+ * recently used entries are evicted once the estimated size exceeds the budget.
+ */
+public class ReportCache {
+
+    public enum Kind { PNL, BEST_SELLING }
+
+    // Rough heap cost of one cached record (object, dates, strings) and of an entry itself
+    private static final long RECORD_BYTES = 160;
+    private static final long ENTRY_BYTES = 200;
+
+    private static final class Key {
+        final Kind kind;
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final int spanDays;
+        final int topN;
+
+        Key(Kind kind, LocalDate startDate, LocalDate endDate, int spanDays, int topN) {
+            this.kind = kind;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.spanDays = spanDays;
+            this.topN = topN;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return kind == other.kind && spanDays == other.spanDays && topN == other.topN
+                    && startDate.equals(other.startDate) && endDate.equals(other.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, startDate, endDate, spanDays, topN);
+        }
+    }
+
+    private static final class Entry {
+        final long version;
+        final Object value;
+        final long bytes;
+
+        Entry(long version, Object value, long bytes) {
+            this.version = version;
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long budgetBytes;
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    /**
+     * @param budgetBytes Estimated heap the cached results may use in total.
+     */
+    public ReportCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Returns the cached result if it was computed at the given sales version.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Optional<T> get(Kind kind, LocalDate startDate, LocalDate endDate,
+                                            int spanDays, int topN, long version) {
+        Key key = new Key(kind, startDate, endDate, spanDays, topN);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.version != version) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.of((T) entry.value);
+    }
+
+    /**
+     * Stores a result computed at the given sales version (read before computing it).
+     * Results larger than a quarter of the budget are not cached.
+     */
+    public synchronized void put(Kind kind, LocalDate startDate, LocalDate endDate, int spanDays, int topN,
+                                 long version, Object value, long bytes) {
+        long entryBytes = bytes + ENTRY_BYTES;
+        if (!fits(entryBytes)) {
+            return;
+        }
+        Key key = new Key(kind, startDate, endDate, spanDays, topN);
+        Entry existing = entries.get(key);
+        if (existing != null && existing.version > version) {
+            return; // A newer result got here first
+        }
+        remove(key);
+        entries.put(key, new Entry(version, value, entryBytes));
+        usedBytes += entryBytes;
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Whether a result of this estimated size may be cached at all.
+     */
+    public boolean fits(long bytes) {
+        return bytes <= budgetBytes / 4;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    // --- Size estimates ---
+
+    public static long recordBytes(long recordCount) {
+        return 16 + recordCount * RECORD_BYTES;
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.bytes;
+        }
+    }
+}
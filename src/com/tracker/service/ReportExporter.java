@@ -2,15 +2,103 @@ package com.tracker.service;
 
 import com.tracker.model.BestSellingRecord;
 import com.tracker.model.PnlRecord;
-import java.time.format.DateTimeFormatter;
+import com.tracker.model.User;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
- * Utility class to convert structured report data into CSV format using standard Java operations.
+ * Utility class to convert structured report data into CSV format.
+ * The write* methods stream a report straight to a Writer or channel: each row is written
+ * as soon as its span has been aggregated, so exporting years of daily spans needs no
+ * more memory than a single span.
  */
 public class ReportExporter {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String[] PNL_HEADER =
+            { "Period_Start_Date", "Period_End_Date", "Revenue", "Profit_Loss" };
+    private static final String[] BEST_SELLING_HEADER =
+            { "Period_Start_Date", "Period_End_Date", "Product_ID", "Product_Name", "Quantity_Sold" };
+
+    /**
+     * Streams the P&L report as CSV to the writer. The writer is flushed but not closed.
+     */
+    public void writePnlCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                            int spanDays, Writer out) throws IOException {
+        writePnlCsv(reportService, user, startDate, endDate, spanDays, new CsvWriter(out), ReportProgress.NONE);
+    }
+
+    /**
+     * Streams the P&L report as UTF-8 CSV to the channel (e.g. a FileChannel). The channel is not closed.
+     */
+    public void writePnlCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                            int spanDays, WritableByteChannel channel) throws IOException {
+        writePnlCsv(reportService, user, startDate, endDate, spanDays, new CsvWriter(channel), ReportProgress.NONE);
+    }
+
+    /**
+     * Streams the P&L report to the channel with progress; throws CancellationException once cancelled.
+     */
+    public void writePnlCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                            int spanDays, WritableByteChannel channel, ReportProgress progress) throws IOException {
+        writePnlCsv(reportService, user, startDate, endDate, spanDays, new CsvWriter(channel), progress);
+    }
+
+    private void writePnlCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                             int spanDays, CsvWriter csv, ReportProgress progress) throws IOException {
+        csv.row(PNL_HEADER);
+        try {
+            reportService.streamPnlRecords(user, startDate, endDate, spanDays, progress, record -> writeRow(csv, record));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+    }
+
+    /**
+     * Streams the Best Selling report (span breakdown, then overall summary) as CSV to the writer.
+     * The writer is flushed but not closed.
+     */
+    public void writeBestSellingCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                                    int topN, int spanDays, Writer out) throws IOException {
+        writeBestSellingCsv(reportService, user, startDate, endDate, topN, spanDays, new CsvWriter(out),
+                            ReportProgress.NONE);
+    }
+
+    /**
+     * Streams the Best Selling report as UTF-8 CSV to the channel (e.g. a FileChannel). The channel is not closed.
+     */
+    public void writeBestSellingCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                                    int topN, int spanDays, WritableByteChannel channel) throws IOException {
+        writeBestSellingCsv(reportService, user, startDate, endDate, topN, spanDays, new CsvWriter(channel),
+                            ReportProgress.NONE);
+    }
+
+    /**
+     * Streams the Best Selling report to the channel with progress; throws CancellationException once cancelled.
+     */
+    public void writeBestSellingCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                                    int topN, int spanDays, WritableByteChannel channel, ReportProgress progress)
+            throws IOException {
+        writeBestSellingCsv(reportService, user, startDate, endDate, topN, spanDays, new CsvWriter(channel), progress);
+    }
+
+    private void writeBestSellingCsv(ReportService reportService, User user, LocalDate startDate, LocalDate endDate,
+                                     int topN, int spanDays, CsvWriter csv, ReportProgress progress) throws IOException {
+        csv.row(BEST_SELLING_HEADER);
+        try {
+            reportService.streamBestSellingRecords(user, startDate, endDate, topN, spanDays, progress,
+                    record -> writeRow(csv, record));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+    }
 
     /**
      * Converts a list of P&L records into a CSV formatted String.
@@ -18,21 +106,15 @@ public class ReportExporter {
      * @return The CSV content as a String.
      */
     public String exportPnlToCsv(List<PnlRecord> records) {
-        StringBuilder csvContent = new StringBuilder();
-        
-        // 1. Write Header
-        csvContent.append("Period_Start_Date,Period_End_Date,Revenue,Profit_Loss\n");
-
-        // 2. Write Records
-        for (PnlRecord record : records) {
-            csvContent.append(record.getPeriodStart().format(DATE_FORMATTER)).append(",");
-            csvContent.append(record.getPeriodEnd().format(DATE_FORMATTER)).append(",");
-            
-            // Append formatted currency values (%.2f)
-            csvContent.append(String.format("%.2f", record.getRevenue())).append(",");
-            csvContent.append(String.format("%.2f", record.getProfitLoss())).append("\n");
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+        try {
+            csv.row(PNL_HEADER);
+            records.forEach(record -> writeRow(csv, record));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringWriter never throws
         }
-        return csvContent.toString();
+        return out.toString();
     }
 
     /**
@@ -41,27 +123,41 @@ public class ReportExporter {
      * @return The CSV content as a String.
      */
     public String exportBestSellingToCsv(List<BestSellingRecord> records) {
-        StringBuilder csvContent = new StringBuilder();
-        
-        // 1. Write Header
-        csvContent.append("Period_Start_Date,Period_End_Date,Product_ID,Product_Name,Quantity_Sold\n");
-
-        // 2. Write Records
-        for (BestSellingRecord record : records) {
-            csvContent.append(record.getPeriodStart().format(DATE_FORMATTER)).append(",");
-            csvContent.append(record.getPeriodEnd().format(DATE_FORMATTER)).append(",");
-            csvContent.append(record.getProductId()).append(",");
-            
-            // Minimal CSV sanitation: if the product name contains a comma, enclose it in double quotes.
-            String productName = record.getProductName();
-            if (productName != null && productName.contains(",")) {
-                csvContent.append("\"").append(productName).append("\"").append(",");
-            } else {
-                csvContent.append(productName).append(",");
-            }
-            
-            csvContent.append(record.getQuantitySold()).append("\n");
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+        try {
+            csv.row(BEST_SELLING_HEADER);
+            records.forEach(record -> writeRow(csv, record));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringWriter never throws
+        }
+        return out.toString();
+    }
+
+    // Record consumers cannot throw IOException, so it is tunnelled out and unwrapped above
+
+    private static void writeRow(CsvWriter csv, PnlRecord record) {
+        try {
+            csv.field(record.getPeriodStart())
+               .field(record.getPeriodEnd())
+               .money(record.getRevenue())
+               .money(record.getProfitLoss())
+               .endRow();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRow(CsvWriter csv, BestSellingRecord record) {
+        try {
+            csv.field(record.getPeriodStart())
+               .field(record.getPeriodEnd())
+               .field(record.getProductId())
+               .field(record.getProductName())
+               .field(record.getQuantitySold())
+               .endRow();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return csvContent.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.tracker.service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets a caller follow and cancel a report running on a background thread
+ * (see ReportsController). A report counts two steps per span: aggregating it and
+ * writing it out. Both methods may be called from several threads at once.
+ */
+public interface ReportProgress {
+
+    /**
+     * For callers that neither show progress nor cancel.
+     */
+    ReportProgress NONE = new ReportProgress() {
+        @Override
+        public void update(long done, long total) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void update(long done, long total);
+
+    boolean isCancelled();
+
+    /**
+     * Stops the report by throwing CancellationException if it has been cancelled.
+     */
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Report cancelled");
+        }
+    }
+}
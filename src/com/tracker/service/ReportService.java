@@ -1,9 +1,13 @@
 package com.tracker.service;
 
+import com.tracker.dao.DailyRollupDAO;
 import com.tracker.dao.ProductDAO;
 import com.tracker.dao.SalesDAO;
-import com.tracker.model.SalesTransaction;
-import com.tracker.model.Sale;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.ReportEvent;
+import com.tracker.metrics.Timer;
+import com.tracker.model.DailyProductTotal;
+import com.tracker.model.DailySales;
 import com.tracker.model.Product;
 import com.tracker.model.Report;
 import com.tracker.model.User;
@@ -12,13 +16,16 @@ import com.tracker.model.PnlRecord;
 import com.tracker.model.BestSellingRecord; 
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Executes the business logic for the Generate Report use case (FR-6, FR-7).
@@ -27,13 +34,35 @@ public class ReportService {
 
     private final SalesDAO salesDAO;
     private final ProductDAO productDAO; 
-    
-    // CRITICAL: Set a reasonable limit for the number of periods (spans) to report.
-    private static final int MAX_REPORT_SPANS = 60;
+    // Reports are answered from the daily rollup, not from raw Sale line items
+    private final DailyRollupDAO rollupDAO;
+
+    // Recent report results, invalidated by any sale (SalesDAO version)
+    private static final long CACHE_BUDGET_BYTES = 16L * 1024 * 1024;
+    private final ReportCache cache = new ReportCache(CACHE_BUDGET_BYTES);
+
+    // Ranges with at least this many days of sales are aggregated in parallel
+    private static final int PARALLEL_MIN_DAYS = 120;
+    private volatile ForkJoinPool parallelPool = ForkJoinPool.commonPool();
+
+    // Catalogs larger than this rank the overall best sellers of a streamed export with
+    // Space-Saving counters (fixed memory, counts flagged with their error bound)
+    private static final int APPROXIMATE_TOTALS_ABOVE = 200_000;
+    private static final int APPROXIMATE_TOTALS_COUNTERS = 20_000;
 
-    public ReportService(SalesDAO salesDAO) {
+    // Upper bound for the text report's initial buffer
+    private static final int MAX_INITIAL_REPORT_CHARS = 1 << 20;
+
+    // One timer per report type; cache hits are included, so p50 drops when the cache works
+    private static final Timer PNL_RECORDS_TIMER = Metrics.timer("reports.pnlRecords");
+    private static final Timer BEST_SELLING_RECORDS_TIMER = Metrics.timer("reports.bestSellingRecords");
+    private static final Timer PNL_REPORT_TIMER = Metrics.timer("reports.profitLoss");
+    private static final Timer BEST_SELLING_REPORT_TIMER = Metrics.timer("reports.bestSelling");
+
+    public ReportService(SalesDAO salesDAO, ProductDAO productDAO, DailyRollupDAO rollupDAO) {
         this.salesDAO = salesDAO;
-        this.productDAO = new ProductDAO(); 
+        this.productDAO = productDAO; 
+        this.rollupDAO = rollupDAO;
     }
 
     // Utility to enforce ShopKeeper access
@@ -45,14 +74,79 @@ public class ReportService {
         return true;
     }
     /**
-     * Helper to calculate corrected spanDays, ensuring it is at least 1.
+     * Aggregates the daily rollup rows in range into spans in a single pass.
+     * Cost depends on the number of days and products in the range, not on the number of transactions.
      */
-    
-    private double[] calculatePnlMetrics(List<SalesTransaction> transactions) {
-        double totalRevenue = transactions.stream().mapToDouble(SalesTransaction::getCalculatedTotal).sum();
-        double totalCost = transactions.stream().mapToDouble(SalesTransaction::getTotalCostOfGoodsSold).sum();
-        double profitLoss = totalRevenue - totalCost;
-        return new double[]{totalRevenue, totalCost, profitLoss};
+    private SpanAggregator aggregate(LocalDate startDate, LocalDate endDate, int spanDays, ReportProgress progress,
+                                     ReportEvent event) {
+        SpanAggregator spans = new SpanAggregator(startDate, endDate, spanDays);
+        long totalSteps = 2L * spans.getSpanCount();
+        Collection<DailySales> days = rollupDAO.getDays(startDate, endDate).values();
+        event.setSpans(spanDays, spans.getSpanCount());
+        event.addDaysScanned(days.size());
+        ForkJoinPool pool = parallelPool;
+        if (pool != null && pool.getParallelism() > 1 && days.size() >= PARALLEL_MIN_DAYS) {
+            // Split on span boundaries across the pool; same result as the sequential loop
+            spans.addDaysParallel(new ArrayList<>(days), pool, PARALLEL_MIN_DAYS / 2, progress);
+        } else {
+            int lastSpan = -1;
+            for (DailySales day : days) {
+                progress.checkCancelled();
+                int span = spans.spanIndexOf(day.getDay());
+                if (span != lastSpan) {
+                    progress.update(span, totalSteps);
+                    lastSpan = span;
+                }
+                spans.addDay(day);
+            }
+        }
+        progress.update(spans.getSpanCount(), totalSteps);
+        return spans;
+    }
+
+    /**
+     * Sets the pool that aggregates long report ranges in parallel, or null to always
+     * aggregate on the calling thread. Defaults to the common ForkJoinPool.
+     */
+    public void setParallelPool(ForkJoinPool pool) {
+        this.parallelPool = pool;
+    }
+
+    /**
+     * Drops every cached report result, so the next request is computed again
+     * (benchmarks measuring the uncached path).
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * The topN entries of a product -> quantity map by quantity (descending), via a bounded
+     * heap instead of sorting every product. Ties keep the map's iteration order.
+     * The heap is never larger than the map, however large topN is.
+     */
+    private List<TopK.Ranked> topN(Map<String, Integer> salesByProduct, int topN) {
+        TopK top = TopK.exact(Math.min(topN, salesByProduct.size()));
+        for (Map.Entry<String, Integer> entry : salesByProduct.entrySet()) {
+            top.offer(entry.getKey(), entry.getValue());
+        }
+        return top.results();
+    }
+
+    /**
+     * Product names by ID, read once per report so each ranked row is a map lookup.
+     */
+    private Map<String, String> productNames() {
+        List<Product> products = productDAO.getAllProducts();
+        Map<String, String> names = new HashMap<>(products.size() * 2);
+        for (Product product : products) {
+            names.put(product.getProductID(), product.getName());
+        }
+        return names;
+    }
+
+    private static String productName(Map<String, String> names, String productId) {
+        return names.getOrDefault(productId, "UNKNOWN PRODUCT");
     }
 
     /**
@@ -63,131 +157,333 @@ public class ReportService {
         return Math.max(1, spanDays);
     }
     
-    public List<PnlRecord> getPnlRecords(User user, LocalDate startDate, LocalDate endDate, int spanDays) {
-        if (!checkShopKeeperAccess(user)) {
-            return new ArrayList<>(); 
+    /**
+     * Receives one finished span from forEachSpan. The quantities map belongs to the
+     * span and is not touched again after the call.
+     */
+    private interface SpanListener {
+        void span(LocalDate spanStart, LocalDate spanEnd, double revenue, double cost, Map<String, Integer> quantities);
+    }
+
+    /**
+     * Streaming counterpart of aggregate(): walks the rollup in date order and hands each span
+     * to the listener as soon as its last day has been read (empty spans included). Only the
+     * current span is held in memory, so the cost of a multi-year daily breakdown does not grow
+     * with the number of spans. If totalQuantities is not null, it also receives every
+     * (product ID, quantity) pair of the range, day by day.
+     */
+    private void forEachSpan(LocalDate startDate, LocalDate endDate, int spanDays, ReportProgress progress,
+                             ObjIntConsumer<String> totalQuantities, SpanListener listener, ReportEvent event) {
+        SpanCursor cursor = new SpanCursor(startDate, endDate, spanDays, progress, totalQuantities, listener);
+        event.setSpans(spanDays, cursor.spanCount);
+        rollupDAO.forEachDay(startDate, endDate, day -> {
+            event.addDaysScanned(1);
+            cursor.addDay(day);
+        });
+        cursor.finish();
+    }
+
+    private static final class SpanCursor {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final int spanDays;
+        private final long startEpochDay;
+        private final long spanCount;
+        private final ReportProgress progress;
+        private final ObjIntConsumer<String> totalQuantities;
+        private final SpanListener listener;
+
+        private long span;
+        private double revenue;
+        private double cost;
+        private Map<String, Integer> quantities = new HashMap<>();
+
+        SpanCursor(LocalDate startDate, LocalDate endDate, int spanDays, ReportProgress progress,
+                   ObjIntConsumer<String> totalQuantities, SpanListener listener) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.spanDays = spanDays;
+            this.startEpochDay = startDate.toEpochDay();
+            this.spanCount = Math.max(0, (endDate.toEpochDay() - startEpochDay + spanDays) / spanDays);
+            this.progress = progress;
+            this.totalQuantities = totalQuantities;
+            this.listener = listener;
         }
-        
-        int safeSpanDays = getSafeSpanDays(spanDays);
-        List<SalesTransaction> allTransactions = salesDAO.getTransactionsByDateRange(startDate, endDate);
-        List<PnlRecord> records = new ArrayList<>();
-        
-        LocalDate currentStart = startDate;
-        while (!currentStart.isAfter(endDate)) {
-            LocalDate currentEnd = currentStart.plusDays(safeSpanDays - 1);
-            if (currentEnd.isAfter(endDate)) {
-                currentEnd = endDate; 
+
+        void addDay(DailySales day) {
+            progress.checkCancelled();
+            long offset = day.getDay().toEpochDay() - startEpochDay;
+            if (offset < 0 || day.getDay().isAfter(endDate)) {
+                return;
+            }
+            long daySpan = offset / spanDays;
+            while (span < daySpan) {
+                emit();
             }
+            revenue += day.getRevenue();
+            cost += day.getCost();
+            for (DailyProductTotal total : day.getProducts().values()) {
+                quantities.merge(total.getProductID(), total.getQuantity(), Integer::sum);
+                if (totalQuantities != null) {
+                    totalQuantities.accept(total.getProductID(), total.getQuantity());
+                }
+            }
+        }
 
-            final LocalDate finalEnd = currentEnd;
-            final LocalDate start = currentStart;
-            List<SalesTransaction> spanTransactions = allTransactions.stream()
-                .filter(t -> t.getDateTime() != null)
-                .filter(t -> t.getDateTime().toLocalDate().isAfter(start.minusDays(1)) && 
-                           t.getDateTime().toLocalDate().isBefore(finalEnd.plusDays(1)))
-                .collect(Collectors.toList());
+        void finish() {
+            while (span < spanCount) {
+                emit();
+            }
+        }
 
-            double[] metrics = calculatePnlMetrics(spanTransactions);
-            
-            // Add structured record
-            records.add(new PnlRecord(currentStart, finalEnd, metrics[0], metrics[2]));
+        private void emit() {
+            progress.checkCancelled();
+            LocalDate spanStart = startDate.plusDays(span * spanDays);
+            LocalDate spanEnd = spanStart.plusDays(spanDays - 1);
+            listener.span(spanStart, spanEnd.isAfter(endDate) ? endDate : spanEnd, revenue, cost, quantities);
+            span++;
+            // Streaming aggregates and writes each span in one go: both of its steps are done
+            progress.update(2 * span, 2 * spanCount);
+            revenue = 0;
+            cost = 0;
+            // A fresh map per span (rather than clear()) keeps the order of ties identical to SpanAggregator
+            quantities = new HashMap<>();
+        }
+    }
 
-            currentStart = currentEnd.plusDays(1); 
+    /**
+     * Collects streamed records for the cache until they would exceed the size a single
+     * entry may have; after that only the streaming continues.
+     */
+    private final class CachingSink<T> implements Consumer<T> {
+        private final Consumer<T> sink;
+        private List<T> records = new ArrayList<>();
+
+        CachingSink(Consumer<T> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(T record) {
+            if (records != null) {
+                records.add(record);
+                if (!cache.fits(ReportCache.recordBytes(records.size()))) {
+                    records = null;
+                }
+            }
+            sink.accept(record);
+        }
+
+        /**
+         * The records seen so far, or null if there were too many to cache.
+         */
+        List<T> records() {
+            return records == null ? null : Collections.unmodifiableList(records);
         }
-        
-        return records;
     }
 
     /**
-     * Generates a list of BestSellingRecord objects for CSV export, including all detailed spans
-     * and a final aggregated span for the overall summary.
+     * One computed P&L report. The text view and the CSV records are both rendered from it,
+     * so whichever of the two is produced first answers the other from the cache.
      */
-    public List<BestSellingRecord> getBestSellingRecords(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays) {
+    private static final class PnlResult {
+        final List<PnlRecord> spans;
+        final double totalRevenue;
+        final double totalCost;
+
+        PnlResult(List<PnlRecord> spans, double totalRevenue, double totalCost) {
+            this.spans = spans;
+            this.totalRevenue = totalRevenue;
+            this.totalCost = totalCost;
+        }
+
+        long bytes() {
+            return ReportCache.recordBytes(spans.size());
+        }
+    }
+
+    /**
+     * One computed Best Selling report, shared by the text view and the CSV records like
+     * PnlResult: the ranked records of every span in date order (spans without sales have
+     * none), then the exact overall ranking with plain product names.
+     */
+    private static final class BestSellingResult {
+        final List<BestSellingRecord> spans;
+        final List<BestSellingRecord> overall;
+
+        BestSellingResult(List<BestSellingRecord> spans, List<BestSellingRecord> overall) {
+            this.spans = spans;
+            this.overall = overall;
+        }
+
+        long bytes() {
+            return ReportCache.recordBytes(spans.size() + overall.size());
+        }
+    }
+
+    private static BestSellingRecord overallRecord(BestSellingRecord record, String label) {
+        return new BestSellingRecord(record.getPeriodStart(), record.getPeriodEnd(), record.getProductId(),
+                                     record.getProductName() + label, record.getQuantitySold());
+    }
+
+    /**
+     * Emits the P&L records span by span while the rollup is still being read
+     * (or straight from the cache if the same report was viewed or exported since the last sale).
+     * Nothing is emitted if the user may not generate reports.
+     */
+    public void streamPnlRecords(User user, LocalDate startDate, LocalDate endDate, int spanDays, Consumer<PnlRecord> sink) {
+        streamPnlRecords(user, startDate, endDate, spanDays, ReportProgress.NONE, sink);
+    }
+
+    /**
+     * streamPnlRecords with progress and cancellation (throws CancellationException once cancelled).
+     */
+    public void streamPnlRecords(User user, LocalDate startDate, LocalDate endDate, int spanDays,
+                                 ReportProgress progress, Consumer<PnlRecord> sink) {
+        long start = System.nanoTime();
+        ReportEvent event = new ReportEvent("P&L Records", startDate, endDate);
+        event.begin();
+        try {
+            pnlRecords(user, startDate, endDate, spanDays, progress, sink, event);
+        } finally {
+            event.commit();
+            PNL_RECORDS_TIMER.record(System.nanoTime() - start);
+        }
+    }
+
+    private void pnlRecords(User user, LocalDate startDate, LocalDate endDate, int spanDays,
+                            ReportProgress progress, Consumer<PnlRecord> sink, ReportEvent event) {
         if (!checkShopKeeperAccess(user)) {
-            return new ArrayList<>();
+            return;
         }
-        
         int safeSpanDays = getSafeSpanDays(spanDays);
-        List<SalesTransaction> allTransactions = salesDAO.getTransactionsByDateRange(startDate, endDate);
-        List<BestSellingRecord> records = new ArrayList<>();
-        
-        // --- 1. PERIOD BREAKDOWN RECORDS ---
-        LocalDate currentStart = startDate;
-        
-        while (!currentStart.isAfter(endDate)) {
-            LocalDate currentEnd = currentStart.plusDays(safeSpanDays - 1);
-            if (currentEnd.isAfter(endDate)) {
-                currentEnd = endDate; 
-            }
-            
-            final LocalDate finalEnd = currentEnd;
-            final LocalDate start = currentStart;
-            List<SalesTransaction> spanTransactions = allTransactions.stream()
-                .filter(t -> t.getDateTime() != null)
-                .filter(t -> t.getDateTime().toLocalDate().isAfter(start.minusDays(1)) && 
-                           t.getDateTime().toLocalDate().isBefore(finalEnd.plusDays(1)))
-                .collect(Collectors.toList());
-
-            Map<String, Integer> spanSalesByProduct = spanTransactions.stream()
-                .flatMap(t -> t.getSales().stream())
-                .collect(Collectors.groupingBy(
-                    Sale::getProductID,
-                    Collectors.summingInt(Sale::getQuantity)
-                ));
-
-            List<Map.Entry<String, Integer>> topNSales = spanSalesByProduct.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .limit(topN)
-                .collect(Collectors.toList());
-            
-            for (Map.Entry<String, Integer> entry : topNSales) {
-                Optional<Product> productOpt = productDAO.getProductById(entry.getKey());
-                String productName = productOpt.map(Product::getName).orElse("UNKNOWN PRODUCT");
-                
-                // Add structured record for the period
-                records.add(new BestSellingRecord(
-                    currentStart, 
-                    finalEnd, 
-                    entry.getKey(), 
-                    productName, 
-                    entry.getValue()
-                ));
-            }
+        // Read before computing: a sale during the scan leaves the entry stamped with the older version
+        long version = salesDAO.getVersion();
+        Optional<PnlResult> cached = cache.get(ReportCache.Kind.PNL, startDate, endDate, safeSpanDays, 0, version);
+        if (cached.isPresent()) {
+            event.setCached(true);
+            cached.get().spans.forEach(sink);
+            return;
+        }
 
-            currentStart = currentEnd.plusDays(1);
+        CachingSink<PnlRecord> caching = new CachingSink<>(sink);
+        double[] totals = new double[2];
+        forEachSpan(startDate, endDate, safeSpanDays, progress, null,
+                (spanStart, spanEnd, revenue, cost, quantities) -> {
+            totals[0] += revenue;
+            totals[1] += cost;
+            caching.accept(new PnlRecord(spanStart, spanEnd, revenue, revenue - cost));
+        }, event);
+        if (caching.records() != null) {
+            PnlResult result = new PnlResult(caching.records(), totals[0], totals[1]);
+            cache.put(ReportCache.Kind.PNL, startDate, endDate, safeSpanDays, 0, version, result, result.bytes());
         }
-        
-        // --- 2. OVERALL SUMMARY RECORD (Aggregated) ---
-        
-        Map<String, Integer> totalSalesByProduct = allTransactions.stream()
-            .flatMap(t -> t.getSales().stream())
-            .collect(Collectors.groupingBy(
-                Sale::getProductID,
-                Collectors.summingInt(Sale::getQuantity)
-            ));
-            
-        List<Map.Entry<String, Integer>> overallTopNSales = totalSalesByProduct.entrySet().stream()
-            .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-            .limit(topN)
-            .collect(Collectors.toList());
+    }
 
-        LocalDate overallStart = startDate;
-        LocalDate overallEnd = endDate;
+    /**
+     * Emits the best-selling records of each span as soon as the span is complete, followed by
+     * the overall summary records. Besides the current span only the per-product totals are kept.
+     */
+    public void streamBestSellingRecords(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays,
+                                         Consumer<BestSellingRecord> sink) {
+        streamBestSellingRecords(user, startDate, endDate, topN, spanDays, ReportProgress.NONE, sink);
+    }
 
-        for (Map.Entry<String, Integer> entry : overallTopNSales) {
-            Optional<Product> productOpt = productDAO.getProductById(entry.getKey());
-            String productName = productOpt.map(Product::getName).orElse("UNKNOWN PRODUCT") + " (Overall)";
-            
-            // Add structured record for the overall summary
-            records.add(new BestSellingRecord(
-                overallStart, 
-                overallEnd,   
-                entry.getKey(), 
-                productName, 
-                entry.getValue()
-            ));
+    /**
+     * streamBestSellingRecords with progress and cancellation (throws CancellationException once cancelled).
+     */
+    public void streamBestSellingRecords(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays,
+                                         ReportProgress progress, Consumer<BestSellingRecord> sink) {
+        long start = System.nanoTime();
+        ReportEvent event = new ReportEvent("Best Selling Records", startDate, endDate);
+        event.begin();
+        try {
+            bestSellingRecords(user, startDate, endDate, topN, spanDays, progress, sink, event);
+        } finally {
+            event.commit();
+            BEST_SELLING_RECORDS_TIMER.record(System.nanoTime() - start);
         }
+    }
 
+    private void bestSellingRecords(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays,
+                                    ReportProgress progress, Consumer<BestSellingRecord> sink, ReportEvent event) {
+        if (!checkShopKeeperAccess(user)) {
+            return;
+        }
+        int safeSpanDays = getSafeSpanDays(spanDays);
+        long version = salesDAO.getVersion();
+        Optional<BestSellingResult> cached =
+                cache.get(ReportCache.Kind.BEST_SELLING, startDate, endDate, safeSpanDays, topN, version);
+        if (cached.isPresent()) {
+            event.setCached(true);
+            cached.get().spans.forEach(sink);
+            for (BestSellingRecord record : cached.get().overall) {
+                sink.accept(overallRecord(record, " (Overall)"));
+            }
+            return;
+        }
+        CachingSink<BestSellingRecord> caching = new CachingSink<>(sink);
+        Map<String, String> names = productNames();
+
+        // Overall totals: exact per-product sums, or fixed-size Space-Saving counters for huge catalogs
+        Map<String, Integer> totalQuantities = new HashMap<>();
+        // 100 counters per ranked product (in long, so a huge topN cannot overflow), but never
+        // more than there are products: at that point Space-Saving is exact anyway
+        int counters = (int) Math.min(Math.max(topN * 100L, APPROXIMATE_TOTALS_COUNTERS), names.size());
+        TopK approximateTotals = names.size() > APPROXIMATE_TOTALS_ABOVE
+                ? TopK.spaceSaving(Math.min(topN, counters), counters)
+                : null;
+        ObjIntConsumer<String> totals = approximateTotals != null
+                ? approximateTotals::offer
+                : (productId, quantity) -> totalQuantities.merge(productId, quantity, Integer::sum);
+
+        // --- 1. PERIOD BREAKDOWN RECORDS ---
+        forEachSpan(startDate, endDate, safeSpanDays, progress, totals,
+                (spanStart, spanEnd, revenue, cost, quantities) -> {
+            for (TopK.Ranked entry : topN(quantities, topN)) {
+                caching.accept(new BestSellingRecord(spanStart, spanEnd, entry.getId(),
+                                                     productName(names, entry.getId()), entry.getCount()));
+            }
+        }, event);
+
+        // --- 2. OVERALL SUMMARY RECORD (Aggregated) ---
+        List<TopK.Ranked> ranked = approximateTotals != null
+                ? approximateTotals.results()
+                : topN(totalQuantities, topN);
+        List<BestSellingRecord> overall = new ArrayList<>(ranked.size());
+        boolean exact = true;
+        for (TopK.Ranked entry : ranked) {
+            BestSellingRecord record = new BestSellingRecord(startDate, endDate, entry.getId(),
+                                                             productName(names, entry.getId()), entry.getCount());
+            overall.add(record);
+            // An approximate count is never too low, but may overstate the true one by up to its error
+            exact &= entry.getError() == 0;
+            sink.accept(overallRecord(record, entry.getError() > 0
+                    ? " (Overall, may overcount by up to " + entry.getError() + ")"
+                    : " (Overall)"));
+        }
+        // The text view shows exact totals only, so an approximate ranking is not shared with it
+        if (exact && caching.records() != null) {
+            BestSellingResult result = new BestSellingResult(caching.records(), overall);
+            cache.put(ReportCache.Kind.BEST_SELLING, startDate, endDate, safeSpanDays, topN, version,
+                      result, result.bytes());
+        }
+    }
+
+    public List<PnlRecord> getPnlRecords(User user, LocalDate startDate, LocalDate endDate, int spanDays) {
+        List<PnlRecord> records = new ArrayList<>();
+        streamPnlRecords(user, startDate, endDate, spanDays, records::add);
+        return records;
+    }
+
+    /**
+     * Generates a list of BestSellingRecord objects, including all detailed spans
+     * and a final aggregated span for the overall summary.
+     * CSV export streams the same records instead (see ReportExporter).
+     */
+    public List<BestSellingRecord> getBestSellingRecords(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays) {
+        List<BestSellingRecord> records = new ArrayList<>();
+        streamBestSellingRecords(user, startDate, endDate, topN, spanDays, records::add);
         return records;
     }
 
@@ -197,19 +493,52 @@ public class ReportService {
     
     // --- Use Case: Generate Profit/Loss Report (FR-6) ---
     public Report generateProfitLossReport(User user, LocalDate startDate, LocalDate endDate, int spanDays) {
+        return generateProfitLossReport(user, startDate, endDate, spanDays, ReportProgress.NONE);
+    }
+
+    /**
+     * generateProfitLossReport for background use: reports progress per span and
+     * throws CancellationException promptly once the caller cancels.
+     */
+    public Report generateProfitLossReport(User user, LocalDate startDate, LocalDate endDate, int spanDays,
+                                           ReportProgress progress) {
+        long start = System.nanoTime();
+        ReportEvent event = new ReportEvent("Profit/Loss", startDate, endDate);
+        event.begin();
+        try {
+            return profitLossReport(user, startDate, endDate, spanDays, progress, event);
+        } finally {
+            event.commit();
+            PNL_REPORT_TIMER.record(System.nanoTime() - start);
+        }
+    }
+
+    private Report profitLossReport(User user, LocalDate startDate, LocalDate endDate, int spanDays,
+                                    ReportProgress progress, ReportEvent event) {
         if (!checkShopKeeperAccess(user)) {
             return new Report("Access Denied", startDate, endDate);
         }
 
         int safeSpanDays = getSafeSpanDays(spanDays);
-        List<SalesTransaction> allTransactions = salesDAO.getTransactionsByDateRange(startDate, endDate);
-        
-        // CRITICAL CHECK FOR MEMORY
-        long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
-        long numSpans = (long) Math.ceil((double) totalDays / safeSpanDays);
-        boolean skipBreakdown = numSpans > MAX_REPORT_SPANS;
+        long version = salesDAO.getVersion();
+        Optional<PnlResult> cached = cache.get(ReportCache.Kind.PNL, startDate, endDate, safeSpanDays, 0, version);
+        PnlResult result;
+        if (cached.isPresent()) {
+            event.setCached(true);
+            result = cached.get();
+        } else {
+            SpanAggregator spans = aggregate(startDate, endDate, safeSpanDays, progress, event);
+            List<PnlRecord> records = new ArrayList<>(spans.getSpanCount());
+            for (int span = 0; span < spans.getSpanCount(); span++) {
+                records.add(new PnlRecord(spans.getSpanStart(span), spans.getSpanEnd(span),
+                                          spans.getRevenue(span), spans.getProfitLoss(span)));
+            }
+            result = new PnlResult(Collections.unmodifiableList(records), spans.getTotalRevenue(), spans.getTotalCost());
+            cache.put(ReportCache.Kind.PNL, startDate, endDate, safeSpanDays, 0, version, result, result.bytes());
+        }
         
-        StringBuilder reportBuilder = new StringBuilder(skipBreakdown ? 512 : 16384);
+        // Roughly one 80-char line per span plus the header and summary
+        StringBuilder reportBuilder = new StringBuilder(1024 + result.spans.size() * 80);
         
         final String LINE = "========================================================================\n";
         final String HEADER_FORMAT = "%-30s %15s %15s\n";
@@ -220,52 +549,24 @@ public class ReportService {
                                             startDate.toString(), endDate.toString(), safeSpanDays));
 
         // --- SECTION A: Breakdown Report ---
-        if (skipBreakdown) {
-             reportBuilder.append(LINE);
-             reportBuilder.append(String.format("NOTICE: The date range (%d days) with the chosen span (%d days) results in %d periods.\n", totalDays, safeSpanDays, numSpans));
-             reportBuilder.append(String.format("To prevent OutOfMemoryError, the detailed breakdown is skipped.\n"));
-             reportBuilder.append("Please choose a larger span or shorter date range.\n");
-             reportBuilder.append(LINE);
-        } else {
-            reportBuilder.append(LINE);
-            reportBuilder.append("A. PERIOD BREAKDOWN\n");
-            reportBuilder.append(LINE);
-            
-            reportBuilder.append(String.format(HEADER_FORMAT, "Period", "Revenue ($)", "Profit/(Loss) ($)"));
-            reportBuilder.append(LINE);
-            
-            LocalDate currentStart = startDate;
-            while (!currentStart.isAfter(endDate)) {
-                LocalDate currentEnd = currentStart.plusDays(safeSpanDays - 1);
-                if (currentEnd.isAfter(endDate)) {
-                    currentEnd = endDate; 
-                }
-
-                final LocalDate finalEnd = currentEnd;
-                final LocalDate start = currentStart;
-                List<SalesTransaction> spanTransactions = allTransactions.stream()
-                    .filter(t -> t.getDateTime() != null)
-                    .filter(t -> t.getDateTime().toLocalDate().isAfter(start.minusDays(1)) && 
-                               t.getDateTime().toLocalDate().isBefore(finalEnd.plusDays(1)))
-                    .collect(Collectors.toList());
-
-                double[] metrics = calculatePnlMetrics(spanTransactions);
-                double revenue = metrics[0];
-                double profitLoss = metrics[2];
-
-                String periodLabel = currentStart.isEqual(currentEnd) ? 
-                                        currentStart.toString() : 
-                                        currentStart.toString() + " to " + finalEnd.toString();
-                
-                reportBuilder.append(String.format(DETAIL_FORMAT, 
-                    periodLabel, 
-                    revenue, 
-                    profitLoss
-                ));
-
-                currentStart = currentEnd.plusDays(1); 
-            }
-        } 
+        reportBuilder.append(LINE);
+        reportBuilder.append("A. PERIOD BREAKDOWN\n");
+        reportBuilder.append(LINE);
+        
+        reportBuilder.append(String.format(HEADER_FORMAT, "Period", "Revenue ($)", "Profit/(Loss) ($)"));
+        reportBuilder.append(LINE);
+        
+        int spanCount = result.spans.size();
+        for (int span = 0; span < spanCount; span++) {
+            progress.checkCancelled();
+            progress.update(spanCount + span, 2L * spanCount);
+            PnlRecord record = result.spans.get(span);
+            reportBuilder.append(String.format(DETAIL_FORMAT, 
+                periodLabel(record.getPeriodStart(), record.getPeriodEnd()), 
+                record.getRevenue(), 
+                record.getProfitLoss()
+            ));
+        }
         
         // --- SECTION B: Total Summary ---
         reportBuilder.append("\n\n");
@@ -273,10 +574,9 @@ public class ReportService {
         reportBuilder.append("B. OVERALL SUMMARY\n");
         reportBuilder.append(LINE);
         
-        double[] totalMetrics = calculatePnlMetrics(allTransactions);
-        double totalRevenue = totalMetrics[0];
-        double totalCost = totalMetrics[1];
-        double totalProfitLoss = totalMetrics[2];
+        double totalRevenue = result.totalRevenue;
+        double totalCost = result.totalCost;
+        double totalProfitLoss = totalRevenue - totalCost;
 
         reportBuilder.append(String.format("%-40s %15.2f\n", "TOTAL REVENUE (SALES):", totalRevenue));
         reportBuilder.append(String.format("%-40s %15.2f\n", "TOTAL COST OF GOODS SOLD (COGS):", totalCost));
@@ -286,26 +586,73 @@ public class ReportService {
         reportBuilder.append(String.format("%-40s %15.2f\n", profitLabel + ":", totalProfitLoss));
         reportBuilder.append(LINE);
 
-        Report report = new Report("Profit/Loss", startDate, endDate);
-        report.setReportContent(reportBuilder.toString());
-        return report;
+        return textReport("Profit/Loss", startDate, endDate, reportBuilder.toString());
     }
 
     // --- Use Case: Generate Best Selling Report (FR-7) ---
     public Report generateBestSellingReport(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays) {
+        return generateBestSellingReport(user, startDate, endDate, topN, spanDays, ReportProgress.NONE);
+    }
+
+    /**
+     * generateBestSellingReport for background use: reports progress per span and
+     * throws CancellationException promptly once the caller cancels.
+     */
+    public Report generateBestSellingReport(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays,
+                                            ReportProgress progress) {
+        long start = System.nanoTime();
+        ReportEvent event = new ReportEvent("Best Selling", startDate, endDate);
+        event.begin();
+        try {
+            return bestSellingReport(user, startDate, endDate, topN, spanDays, progress, event);
+        } finally {
+            event.commit();
+            BEST_SELLING_REPORT_TIMER.record(System.nanoTime() - start);
+        }
+    }
+
+    private Report bestSellingReport(User user, LocalDate startDate, LocalDate endDate, int topN, int spanDays,
+                                     ReportProgress progress, ReportEvent event) {
         if (!checkShopKeeperAccess(user)) {
             return new Report("Access Denied", startDate, endDate);
         }
         
         int safeSpanDays = getSafeSpanDays(spanDays);
-        List<SalesTransaction> allTransactions = salesDAO.getTransactionsByDateRange(startDate, endDate);
-        
-        // CRITICAL CHECK FOR MEMORY
-        long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
-        long numSpans = (long) Math.ceil((double) totalDays / safeSpanDays);
-        boolean skipBreakdown = numSpans > MAX_REPORT_SPANS;
+        long version = salesDAO.getVersion();
+        Optional<BestSellingResult> cached =
+                cache.get(ReportCache.Kind.BEST_SELLING, startDate, endDate, safeSpanDays, topN, version);
+        BestSellingResult result;
+        if (cached.isPresent()) {
+            event.setCached(true);
+            result = cached.get();
+        } else {
+            SpanAggregator spans = aggregate(startDate, endDate, safeSpanDays, progress, event);
+            Map<String, String> names = productNames();
+            List<BestSellingRecord> spanRecords = new ArrayList<>();
+            for (int span = 0; span < spans.getSpanCount(); span++) {
+                progress.checkCancelled();
+                for (TopK.Ranked entry : topN(spans.getQuantities(span), topN)) {
+                    spanRecords.add(new BestSellingRecord(spans.getSpanStart(span), spans.getSpanEnd(span),
+                            entry.getId(), productName(names, entry.getId()), entry.getCount()));
+                }
+            }
+            List<BestSellingRecord> overall = new ArrayList<>();
+            for (TopK.Ranked entry : topN(spans.getTotalQuantities(), topN)) {
+                overall.add(new BestSellingRecord(startDate, endDate, entry.getId(),
+                                                  productName(names, entry.getId()), entry.getCount()));
+            }
+            result = new BestSellingResult(Collections.unmodifiableList(spanRecords),
+                                           Collections.unmodifiableList(overall));
+            cache.put(ReportCache.Kind.BEST_SELLING, startDate, endDate, safeSpanDays, topN, version,
+                      result, result.bytes());
+        }
+
+        // Spans without sales have no records, so the periods are walked from the range itself
+        long spanCount = Math.max(0, (endDate.toEpochDay() - startDate.toEpochDay() + safeSpanDays) / safeSpanDays);
 
-        StringBuilder reportBuilder = new StringBuilder(skipBreakdown ? 512 : 16384);
+        // Roughly a period header plus 70 chars per ranked row (capped; the builder grows if needed)
+        long estimatedLength = 1024 + spanCount * 300 + (result.spans.size() + result.overall.size()) * 70L;
+        StringBuilder reportBuilder = new StringBuilder((int) Math.min(estimatedLength, MAX_INITIAL_REPORT_CHARS));
         
         final String LINE = "========================================================================\n";
         final String HEADER_FORMAT = "%-15s %-40s %10s\n";
@@ -315,70 +662,36 @@ public class ReportService {
                                             startDate.toString(), endDate.toString(), safeSpanDays, topN));
         
         // --- SECTION A: Breakdown Report ---
-        if (skipBreakdown) {
-             reportBuilder.append(LINE);
-             reportBuilder.append(String.format("NOTICE: The date range (%d days) with the chosen span (%d days) results in %d periods.\n", totalDays, safeSpanDays, numSpans));
-             reportBuilder.append(String.format("To prevent OutOfMemoryError, the detailed breakdown is skipped.\n"));
-             reportBuilder.append("Please choose a larger span or shorter date range.\n");
-             reportBuilder.append(LINE);
-        } else {
-            LocalDate currentStart = startDate;
+        int next = 0;
+        for (long span = 0; span < spanCount; span++) {
+            progress.checkCancelled();
+            progress.update(spanCount + span, 2L * spanCount);
+            LocalDate currentStart = startDate.plusDays(span * safeSpanDays);
+            LocalDate currentEnd = currentStart.plusDays(safeSpanDays - 1);
+            if (currentEnd.isAfter(endDate)) {
+                currentEnd = endDate;
+            }
             
-            while (!currentStart.isAfter(endDate)) {
-                LocalDate currentEnd = currentStart.plusDays(safeSpanDays - 1);
-                if (currentEnd.isAfter(endDate)) {
-                    currentEnd = endDate; 
-                }
-                
-                String periodLabel = currentStart.isEqual(currentEnd) ? 
-                                        currentStart.toString() : 
-                                        currentStart.toString() + " to " + currentEnd.toString();
-                
-                reportBuilder.append(LINE);
-                reportBuilder.append(String.format("PERIOD: %s\n", periodLabel));
-                reportBuilder.append(LINE);
-
-                final LocalDate finalEnd = currentEnd;
-                final LocalDate start = currentStart;
-                List<SalesTransaction> spanTransactions = allTransactions.stream()
-                    .filter(t -> t.getDateTime() != null) 
-                    .filter(t -> t.getDateTime().toLocalDate().isAfter(start.minusDays(1)) && 
-                               t.getDateTime().toLocalDate().isBefore(finalEnd.plusDays(1)))
-                    .collect(Collectors.toList());
-
-                Map<String, Integer> spanSalesByProduct = spanTransactions.stream()
-                    .flatMap(t -> t.getSales().stream())
-                    .collect(Collectors.groupingBy(
-                        Sale::getProductID,
-                        Collectors.summingInt(Sale::getQuantity)
-                    ));
-
-                List<Map.Entry<String, Integer>> topNSales = spanSalesByProduct.entrySet().stream()
-                    .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                    .limit(topN)
-                    .collect(Collectors.toList());
+            reportBuilder.append(LINE);
+            reportBuilder.append(String.format("PERIOD: %s\n", periodLabel(currentStart, currentEnd)));
+            reportBuilder.append(LINE);
+
+            if (next == result.spans.size() || !result.spans.get(next).getPeriodStart().isEqual(currentStart)) {
+                reportBuilder.append("No sales recorded in this period.\n\n");
+            } else {
+                reportBuilder.append(String.format(HEADER_FORMAT, "ID", "Name", "Qty Sold"));
+                reportBuilder.append("--------------------------------------------------------------------\n");
                 
-                if (topNSales.isEmpty()) {
-                    reportBuilder.append("No sales recorded in this period.\n\n");
-                } else {
-                    reportBuilder.append(String.format(HEADER_FORMAT, "ID", "Name", "Qty Sold"));
-                    reportBuilder.append("--------------------------------------------------------------------\n");
-                    
-                    for (Map.Entry<String, Integer> entry : topNSales) {
-                        Optional<Product> productOpt = productDAO.getProductById(entry.getKey());
-                        String productName = productOpt.map(Product::getName).orElse("UNKNOWN PRODUCT");
-                        
-                        reportBuilder.append(String.format(HEADER_FORMAT, 
-                                                            entry.getKey(), 
-                                                            productName, 
-                                                            entry.getValue()));
-                    }
-                    reportBuilder.append("\n");
+                while (next < result.spans.size() && result.spans.get(next).getPeriodStart().isEqual(currentStart)) {
+                    BestSellingRecord record = result.spans.get(next++);
+                    reportBuilder.append(String.format(HEADER_FORMAT, 
+                                                        record.getProductId(), 
+                                                        record.getProductName(), 
+                                                        record.getQuantitySold()));
                 }
-
-                currentStart = currentEnd.plusDays(1);
+                reportBuilder.append("\n");
             }
-        } 
+        }
         
         // --- SECTION B: Overall Summary ---
         reportBuilder.append("\n\n");
@@ -386,38 +699,31 @@ public class ReportService {
         reportBuilder.append("B. OVERALL TOP " + topN + " PRODUCTS (FULL PERIOD)\n");
         reportBuilder.append(LINE);
 
-        Map<String, Integer> totalSalesByProduct = allTransactions.stream()
-            .flatMap(t -> t.getSales().stream())
-            .collect(Collectors.groupingBy(
-                Sale::getProductID,
-                Collectors.summingInt(Sale::getQuantity)
-            ));
-            
-        List<Map.Entry<String, Integer>> overallTopNSales = totalSalesByProduct.entrySet().stream()
-            .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-            .limit(topN)
-            .collect(Collectors.toList());
-
-        if (overallTopNSales.isEmpty()) {
+        if (result.overall.isEmpty()) {
             reportBuilder.append("No sales recorded in the entire period.\n");
         } else {
             reportBuilder.append(String.format(HEADER_FORMAT, "ID", "Name", "Total Qty Sold"));
             reportBuilder.append("--------------------------------------------------------------------\n");
             
-            for (Map.Entry<String, Integer> entry : overallTopNSales) {
-                Optional<Product> productOpt = productDAO.getProductById(entry.getKey());
-                String productName = productOpt.map(Product::getName).orElse("UNKNOWN PRODUCT");
-                
+            for (BestSellingRecord record : result.overall) {
                 reportBuilder.append(String.format(HEADER_FORMAT, 
-                                                    entry.getKey(), 
-                                                    productName, 
-                                                    entry.getValue()));
+                                                    record.getProductId(), 
+                                                    record.getProductName(), 
+                                                    record.getQuantitySold()));
             }
         }
         reportBuilder.append(LINE);
 
-        Report report = new Report("Best Selling", startDate, endDate);
-        report.setReportContent(reportBuilder.toString());
+        return textReport("Best Selling", startDate, endDate, reportBuilder.toString());
+    }
+
+    private static String periodLabel(LocalDate start, LocalDate end) {
+        return start.isEqual(end) ? start.toString() : start.toString() + " to " + end.toString();
+    }
+
+    private static Report textReport(String reportType, LocalDate startDate, LocalDate endDate, String content) {
+        Report report = new Report(reportType, startDate, endDate);
+        report.setReportContent(content);
         return report;
     }
 }
\ No newline at end of file
@@ -1,11 +1,21 @@
 package com.tracker.service;
 
 import com.tracker.dao.SalesDAO;
+import com.tracker.dao.SalesPage;
+import com.tracker.dao.SalesQuery;
+import com.tracker.dao.TransactionJournal;
+import com.tracker.metrics.Counter;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.SaleCommitEvent;
+import com.tracker.metrics.Timer;
 import com.tracker.model.*;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Executes the business logic for the Record Sale use case.
@@ -13,11 +23,27 @@ import java.util.UUID;
  */
 public class SalesService {
 
+    private static final Timer SALE_TIMER = Metrics.timer("sales.recordSaleTransaction");
+    private static final Counter SALES_RECORDED = Metrics.counter("sales.recorded");
+    private static final Counter SALES_REJECTED = Metrics.counter("sales.rejected");
+    private static final Counter SALE_LINES = Metrics.counter("sales.lines");
+
     private final SalesDAO salesDAO;
+    private final TransactionJournal journal;
     private final InventoryService inventoryService; 
+    // Time-ordered IDs: transactions and their lines sort by ID in the order they were sold
+    private final IdGenerator ids = IdGenerator.getDefault();
 
+    /**
+     * Uses the shared sales store and transaction journal from the DataContext.
+     */
     public SalesService(InventoryService inventoryService) {
-        this.salesDAO = new SalesDAO();
+        this(inventoryService, DataContext.getInstance().getSalesDAO(), DataContext.getInstance().getJournal());
+    }
+
+    public SalesService(InventoryService inventoryService, SalesDAO salesDAO, TransactionJournal journal) {
+        this.salesDAO = salesDAO;
+        this.journal = journal;
         this.inventoryService = inventoryService;
     }
 
@@ -26,21 +52,36 @@ public class SalesService {
      * Processes a list of sales items within a single transaction.
      */
     public String recordSaleTransaction(User user, List<SaleRequest> items, String paymentMethod) {
+        long start = System.nanoTime();
+        String result = recordSale(user, items, paymentMethod);
+        SALE_TIMER.record(System.nanoTime() - start);
+        if (result.startsWith("Sale recorded")) {
+            SALES_RECORDED.increment();
+            SALE_LINES.add(items.size());
+        } else {
+            SALES_REJECTED.increment();
+        }
+        return result;
+    }
+
+    private String recordSale(User user, List<SaleRequest> items, String paymentMethod) {
         // Enforce role-based access control (Staff or ShopKeeper)
         if (user == null || !(user.getRole().equals("STAFF") || user.getRole().equals("SHOPKEEPER"))) {
             return "Access Denied: Only Staff and ShopKeeper can record sales.";
         }
 
         SalesTransaction transaction = new SalesTransaction(
-                UUID.randomUUID().toString(), 
+                ids.next(),
                 user, // Pass the active user
                 paymentMethod
             );
         
-        // 1. Pre-Check for Stock and existence
+        // 1. checkIfExists for every line, totalling the quantity per product
+        //    (the same product may appear on several lines of one cart)
+        Map<String, Product> products = new LinkedHashMap<>();
+        Map<String, Integer> requested = new LinkedHashMap<>();
         for (SaleRequest item : items) {
             String productId = item.getProductId();
-            int quantity = item.getQuantity();
 
             // checkIfExists (via inventoryService -> ProductDAO)
             Product product = inventoryService.getProductById(productId)
@@ -50,44 +91,112 @@ public class SalesService {
                 // ALT [product not found]
                 return "Error: Product ID " + productId + " not found.";
             }
+            products.put(product.getProductID(), product);
+            requested.merge(product.getProductID(), item.getQuantity(), Integer::sum);
+        }
 
-            // checkStock (via InventoryService)
-            if (product.getStockQuantity() < quantity) {
-                // ALT [stock < quantity]
-                return "Error: Insufficient stock for " + product.getName() + 
-                       ". Available: " + product.getStockQuantity();
+        SaleCommitEvent event = new SaleCommitEvent();
+        event.begin();
+        CompletableFuture<Void> durable;
+        // 2. Reserve stock all-or-nothing: lock every product in the cart, check them all,
+        //    and change stock only if every line can be served
+        StockLocks.Held held = inventoryService.lockStock(requested.keySet());
+        try {
+            for (Map.Entry<String, Integer> line : requested.entrySet()) {
+                Product product = products.get(line.getKey());
+
+                // checkStock (via InventoryService)
+                if (product.getStockQuantity() < line.getValue()) {
+                    // ALT [stock < quantity]
+                    return "Error: Insufficient stock for " + product.getName() + 
+                           ". Available: " + product.getStockQuantity();
+                }
             }
-        }
-        
-        // 2. Process Transaction (Commit and Update)
-        for (SaleRequest item : items) {
-            Product product = inventoryService.getProductById(item.getProductId()).get(); // Must exist due to pre-check
-            
-            // a) updateStock(productID, stock-quantity)
-            product.updateStock(-item.getQuantity()); 
-            
-            // b) Create Sale Item for the Transaction Record (Saves historical cost/price)
-            Sale sale = new Sale(
-                UUID.randomUUID().toString(),
-                item.getProductId(),
-                item.getQuantity(),
-                product.getSellingPrice(), // Use current selling price
-                product.getCostPrice()     // Use current cost price
-            );
-            transaction.addSale(sale);
+
+            // 3. Process Transaction (Commit and Update)
+            Map<String, Integer> stockDeltas = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> line : requested.entrySet()) {
+                // a) updateStock(productID, stock-quantity), applied when the journal commits
+                stockDeltas.put(line.getKey(), -line.getValue());
+            }
+            for (SaleRequest item : items) {
+                Product product = inventoryService.getProductById(item.getProductId()).get(); // Must exist due to pre-check
+                
+                // b) Create Sale Item for the Transaction Record (Saves historical cost/price)
+                Sale sale = new Sale(
+                    ids.next(),
+                    item.getProductId(),
+                    item.getQuantity(),
+                    product.getSellingPrice(), // Use current selling price
+                    product.getCostPrice()     // Use current cost price
+                );
+                transaction.addSale(sale);
+            }
+
+            // 4. Persist changes: stock levels, insertSaleRecord and the report rollup
+            // are committed together as one journal record, applied before the locks are released
+            durable = journal.commitSale(transaction, stockDeltas);
+        } finally {
+            held.unlock();
         }
 
-        // 3. Persist changes
-        inventoryService.persistChanges(); // Save updated stock levels
-        salesDAO.addTransaction(transaction); // insertSaleRecord
+        // Wait for the record to reach disk outside the locks, so other registers keep selling
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            System.err.println("Error saving sale " + transaction.getTransactionID() + ": " + e.getCause().getMessage());
+            // The sale was applied in memory: take it back before the cashier rings it up again
+            StockLocks.Held relocked = inventoryService.lockStock(requested.keySet());
+            try {
+                journal.rollBackSale(transaction);
+            } finally {
+                relocked.unlock();
+            }
+            return "Error: Sale could not be saved to disk.";
+        }
+        event.finish(transaction.getTransactionID(), items.size(), transaction.getCalculatedTotal(), paymentMethod);
         
         return "Sale recorded successfully. Total: " + transaction.getCalculatedTotal();
     }
     
+    /**
+     * Scan mode of the register: adds the product with this SKU/barcode to the cart.
+     * The code is looked up exactly (ignoring case) in the product ID index, never searched,
+     * so a scan costs a few hash lookups however large the catalog.
+     * @return A result message; on success cart.getLastChanged() is the updated line.
+     */
+    public String scanItem(Cart cart, String code, int quantity) {
+        String scanned = code == null ? "" : code.trim();
+        if (scanned.isEmpty()) {
+            return "Error: Nothing scanned.";
+        }
+        if (quantity <= 0) {
+            return "Error: Invalid quantity.";
+        }
+        Product product = inventoryService.findByCode(scanned).orElse(null);
+        if (product == null) {
+            return "Error: No product with code " + scanned + ".";
+        }
+        int inCart = cart.getQuantity(product.getProductID());
+        if (product.getStockQuantity() < inCart + quantity) {
+            return "Error: Insufficient stock. Available: " + product.getStockQuantity() + ", In Cart: " + inCart;
+        }
+        Cart.Line line = cart.add(product, quantity);
+        return "Scanned " + product.getName() + " (x" + line.getQuantity() + ").";
+    }
+
     public List<SalesTransaction> viewSalesHistory() {
         return salesDAO.getAllTransactions();
     }
 
+    /**
+     * One page of the sales history, read lazily from the store (see SalesHistoryController).
+     * @param cursor Null for the first page, else the previous page's next cursor.
+     */
+    public SalesPage getSalesHistoryPage(SalesQuery query, String cursor, int pageSize) {
+        return salesDAO.getHistoryPage(query, cursor, pageSize);
+    }
+
     // Simple DTO for sales request data
     public static class SaleRequest {
         private final String productId;
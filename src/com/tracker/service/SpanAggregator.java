@@ -0,0 +1,263 @@
+package com.tracker.service;
+
+import com.tracker.model.DailyProductTotal;
+import com.tracker.model.DailySales;
+import com.tracker.model.Sale;
+import com.tracker.model.SalesTransaction;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared aggregation engine for the span-based reports (P&L and Best Selling).
+ * Walks the input once, computes each day's span index from its epoch day, and
+ * accumulates revenue, COGS and per-product quantities per span.
+ * Input is either raw transactions or daily rollup rows (see DailyRollupDAO).
+ */
+public class SpanAggregator {
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int spanDays;
+    private final long startEpochDay;
+    private final int spanCount;
+
+    private final double[] revenue;
+    private final double[] cost;
+    // Per-span product quantities; created lazily so empty spans cost nothing
+    private final Map<String, Integer>[] quantities;
+    private final Map<String, Integer> totalQuantities = new HashMap<>();
+    private double totalRevenue;
+    private double totalCost;
+
+    @SuppressWarnings("unchecked")
+    public SpanAggregator(LocalDate startDate, LocalDate endDate, int spanDays) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.spanDays = Math.max(1, spanDays);
+        this.startEpochDay = startDate.toEpochDay();
+
+        long totalDays = endDate.toEpochDay() - startEpochDay + 1;
+        this.spanCount = (int) Math.max(0, (totalDays + this.spanDays - 1) / this.spanDays);
+
+        this.revenue = new double[spanCount];
+        this.cost = new double[spanCount];
+        this.quantities = (Map<String, Integer>[]) new Map<?, ?>[spanCount];
+    }
+
+    /**
+     * Adds every transaction in the list. Transactions outside the date range
+     * (or without a date) are ignored.
+     */
+    public SpanAggregator addAll(List<SalesTransaction> transactions) {
+        for (SalesTransaction t : transactions) {
+            add(t);
+        }
+        return this;
+    }
+
+    public void add(SalesTransaction transaction) {
+        if (transaction.getDateTime() == null) {
+            return;
+        }
+        int span = spanIndexOf(transaction.getDateTime().toLocalDate());
+        if (span < 0) {
+            return;
+        }
+
+        double transactionRevenue = transaction.getCalculatedTotal();
+        double transactionCost = transaction.getTotalCostOfGoodsSold();
+        revenue[span] += transactionRevenue;
+        cost[span] += transactionCost;
+        totalRevenue += transactionRevenue;
+        totalCost += transactionCost;
+
+        Map<String, Integer> spanQuantities = quantities[span];
+        if (spanQuantities == null) {
+            spanQuantities = new HashMap<>();
+            quantities[span] = spanQuantities;
+        }
+        for (Sale sale : transaction.getSales()) {
+            spanQuantities.merge(sale.getProductID(), sale.getQuantity(), Integer::sum);
+            totalQuantities.merge(sale.getProductID(), sale.getQuantity(), Integer::sum);
+        }
+    }
+
+    /**
+     * Adds one day of the daily rollup. Days outside the date range are ignored.
+     */
+    public void addDay(DailySales day) {
+        int span = spanIndexOf(day.getDay());
+        if (span < 0) {
+            return;
+        }
+
+        revenue[span] += day.getRevenue();
+        cost[span] += day.getCost();
+        totalRevenue += day.getRevenue();
+        totalCost += day.getCost();
+
+        Map<String, Integer> spanQuantities = quantities[span];
+        if (spanQuantities == null) {
+            spanQuantities = new HashMap<>();
+            quantities[span] = spanQuantities;
+        }
+        for (DailyProductTotal total : day.getProducts().values()) {
+            spanQuantities.merge(total.getProductID(), total.getQuantity(), Integer::sum);
+            totalQuantities.merge(total.getProductID(), total.getQuantity(), Integer::sum);
+        }
+    }
+
+    /**
+     * Adds rollup days (in date order) using a ForkJoinPool. The days are split only at span
+     * boundaries, so every span is summed by one task in the same order as addDay would; the
+     * range totals are then summed sequentially in date order. Results are therefore identical
+     * to calling addDay for each day, down to the last bit of every double.
+     * @param minDaysPerTask Ranges with fewer days are not split further.
+     * @param progress Told as spans finish; checked for cancellation every day.
+     */
+    public void addDaysParallel(List<DailySales> days, ForkJoinPool pool, int minDaysPerTask, ReportProgress progress) {
+        AtomicLong spansDone = new AtomicLong();
+        Map<String, Integer> partialTotals = pool.invoke(
+                new SpanTask(days, 0, days.size(), Math.max(1, minDaysPerTask), progress, spansDone));
+
+        for (DailySales day : days) {
+            if (spanIndexOf(day.getDay()) >= 0) {
+                totalRevenue += day.getRevenue();
+                totalCost += day.getCost();
+            }
+        }
+        // Partial totals keep first-occurrence order, so keys enter the map in the same order as with addDay
+        for (Map.Entry<String, Integer> entry : partialTotals.entrySet()) {
+            totalQuantities.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+    }
+
+    /**
+     * Aggregates days [from, to) into their spans (each task owns whole spans, so the arrays are
+     * written without contention) and returns the range's product totals in first-occurrence order.
+     */
+    private final class SpanTask extends RecursiveTask<Map<String, Integer>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<DailySales> days;
+        private final int from;
+        private final int to;
+        private final int minDays;
+        private final ReportProgress progress;
+        private final AtomicLong spansDone;
+
+        SpanTask(List<DailySales> days, int from, int to, int minDays, ReportProgress progress, AtomicLong spansDone) {
+            this.days = days;
+            this.from = from;
+            this.to = to;
+            this.minDays = minDays;
+            this.progress = progress;
+            this.spansDone = spansDone;
+        }
+
+        @Override
+        protected Map<String, Integer> compute() {
+            if (to - from > minDays) {
+                int split = spanBoundaryAfter(from + (to - from) / 2);
+                if (split < to) {
+                    SpanTask right = new SpanTask(days, split, to, minDays, progress, spansDone);
+                    right.fork();
+                    Map<String, Integer> totals = new SpanTask(days, from, split, minDays, progress, spansDone).compute();
+                    // Left then right: associative, and keeps first-occurrence order
+                    right.join().forEach((productId, quantity) -> totals.merge(productId, quantity, Integer::sum));
+                    return totals;
+                }
+            }
+
+            Map<String, Integer> totals = new LinkedHashMap<>();
+            int spansSeen = 0;
+            int lastSpan = -1;
+            for (int i = from; i < to; i++) {
+                progress.checkCancelled();
+                DailySales day = days.get(i);
+                int span = spanIndexOf(day.getDay());
+                if (span < 0) {
+                    continue;
+                }
+                if (span != lastSpan) {
+                    spansSeen++;
+                    lastSpan = span;
+                }
+                revenue[span] += day.getRevenue();
+                cost[span] += day.getCost();
+
+                Map<String, Integer> spanQuantities = quantities[span];
+                if (spanQuantities == null) {
+                    spanQuantities = new HashMap<>();
+                    quantities[span] = spanQuantities;
+                }
+                for (DailyProductTotal total : day.getProducts().values()) {
+                    spanQuantities.merge(total.getProductID(), total.getQuantity(), Integer::sum);
+                    totals.merge(total.getProductID(), total.getQuantity(), Integer::sum);
+                }
+            }
+            // Spans without sales have no days, so aggregation progress tops out below spanCount
+            progress.update(spansDone.addAndGet(spansSeen), 2L * spanCount);
+            return totals;
+        }
+
+        /**
+         * First index at or after i (and before to) whose day starts a different span than the day before it.
+         */
+        private int spanBoundaryAfter(int i) {
+            int previous = spanIndexOf(days.get(i - 1).getDay());
+            while (i < to && spanIndexOf(days.get(i).getDay()) == previous) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Span index for a date, or -1 if the date is outside [startDate, endDate].
+     */
+    public int spanIndexOf(LocalDate date) {
+        long offset = date.toEpochDay() - startEpochDay;
+        if (offset < 0 || date.isAfter(endDate)) {
+            return -1;
+        }
+        return (int) (offset / spanDays);
+    }
+
+    // --- Results ---
+
+    public int getSpanCount() { return spanCount; }
+    public int getSpanDays() { return spanDays; }
+
+    public LocalDate getSpanStart(int span) {
+        return startDate.plusDays((long) span * spanDays);
+    }
+
+    public LocalDate getSpanEnd(int span) {
+        LocalDate end = getSpanStart(span).plusDays(spanDays - 1);
+        return end.isAfter(endDate) ? endDate : end;
+    }
+
+    public double getRevenue(int span) { return revenue[span]; }
+    public double getCost(int span) { return cost[span]; }
+    public double getProfitLoss(int span) { return revenue[span] - cost[span]; }
+
+    /**
+     * Quantity sold per product ID in the given span (empty map if nothing sold).
+     */
+    public Map<String, Integer> getQuantities(int span) {
+        return quantities[span] != null ? quantities[span] : new HashMap<>();
+    }
+
+    public double getTotalRevenue() { return totalRevenue; }
+    public double getTotalCost() { return totalCost; }
+    public double getTotalProfitLoss() { return totalRevenue - totalCost; }
+    public Map<String, Integer> getTotalQuantities() { return totalQuantities; }
+}
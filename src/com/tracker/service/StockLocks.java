@@ -0,0 +1,63 @@
+package com.tracker.service;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks guarding product stock levels.
+ * Each product ID hashes to one of a fixed number of stripes, so registers selling
+ * different products rarely contend, while two checkouts of the same product are
+ * serialized. A cart locks all of its stripes up front (always in ascending stripe
+ * order, so two carts can never deadlock), checks every line, and only then changes stock.
+ */
+public class StockLocks {
+
+    // Power of two so the stripe index is a mask; plenty for the number of registers in a shop
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public StockLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the stripes of all the given products. Release them with the returned
+     * handle's unlock(), in a finally block as with any Lock.
+     */
+    public Held lock(Collection<String> productIds) {
+        int[] stripes = productIds.stream()
+                .mapToInt(StockLocks::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        return new Held(stripes);
+    }
+
+    private static int stripeOf(String productId) {
+        int h = productId.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * The stripes held by one caller.
+     */
+    public final class Held {
+        private final int[] stripes;
+
+        private Held(int[] stripes) {
+            this.stripes = stripes;
+        }
+
+        public void unlock() {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.tracker.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the k product IDs with the highest counts without sorting every product.
+ *
+ * EXACT: offer each ID once with its final count. A bounded min-heap of k slots
+ * (parallel int arrays, no boxing) holds the current top k; ties keep offer order,
+ * the same result as a stable sort by count followed by limit(k).
+ *
+ * SPACE_SAVING: offer a stream of (ID, increment) pairs; IDs may repeat. At most
+ * `capacity` counters are monitored. When a new ID arrives and all counters are in
+ * use, it takes over the smallest counter and inherits its count as error, so a
+ * reported count is never too low and overstates the true count by at most its error.
+ * Memory stays fixed however large the catalog.
+ */
+public class TopK {
+
+    public enum Mode { EXACT, SPACE_SAVING }
+
+    /**
+     * One ranked product. For SPACE_SAVING, the true count lies in [count - error, count].
+     */
+    public static final class Ranked {
+        private final String id;
+        private final int count;
+        private final int error;
+
+        Ranked(String id, int count, int error) {
+            this.id = id;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getId() { return id; }
+        public int getCount() { return count; }
+        public int getError() { return error; }
+    }
+
+    private final Mode mode;
+    private final int k;
+
+    // Min-heap over slots: heap[0] is the weakest entry (lowest count, latest on ties)
+    private final String[] ids;
+    private final int[] counts;
+    private final int[] errors;
+    private final long[] seqs;
+    private final int[] heap;
+    // SPACE_SAVING: where each slot sits in the heap, and which slot monitors an ID
+    private final int[] positions;
+    private final Map<String, Integer> slotOf;
+    private int size;
+    private long nextSeq;
+
+    private TopK(Mode mode, int k, int slots) {
+        this.mode = mode;
+        this.k = Math.max(0, k);
+        this.ids = new String[slots];
+        this.counts = new int[slots];
+        this.errors = new int[slots];
+        this.seqs = new long[slots];
+        this.heap = new int[slots];
+        this.positions = mode == Mode.SPACE_SAVING ? new int[slots] : null;
+        this.slotOf = mode == Mode.SPACE_SAVING ? new HashMap<>(slots * 2) : null;
+    }
+
+    /**
+     * @param k Results to keep. The arrays are allocated at k slots up front, so callers should
+     *          pass no more than the number of IDs they will offer.
+     */
+    public static TopK exact(int k) {
+        return new TopK(Mode.EXACT, k, Math.max(0, k));
+    }
+
+    /**
+     * @param capacity Counters to monitor (at least k). More counters give smaller errors.
+     */
+    public static TopK spaceSaving(int k, int capacity) {
+        return new TopK(Mode.SPACE_SAVING, k, Math.max(Math.max(1, k), capacity));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void offer(String id, int count) {
+        if (mode == Mode.EXACT) {
+            offerExact(id, count);
+        } else {
+            offerIncrement(id, count);
+        }
+    }
+
+    /**
+     * The top k, highest count first (ties in the order the IDs were first offered).
+     */
+    public List<Ranked> results() {
+        Integer[] slots = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = heap[i];
+        }
+        Arrays.sort(slots, (a, b) -> weaker(a, b) ? 1 : weaker(b, a) ? -1 : 0);
+        int n = Math.min(k, size);
+        List<Ranked> ranked = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int slot = slots[i];
+            ranked.add(new Ranked(ids[slot], counts[slot], errors[slot]));
+        }
+        return ranked;
+    }
+
+    // --- EXACT ---
+
+    private void offerExact(String id, int count) {
+        long seq = nextSeq++;
+        if (size < k) {
+            int slot = size++;
+            set(slot, id, count, 0, seq);
+            heap[slot] = slot;
+            siftUp(slot);
+        } else if (k > 0 && count > counts[heap[0]]) {
+            // Equal counts lose to the incumbent, which was offered earlier
+            set(heap[0], id, count, 0, seq);
+            siftDown(0);
+        }
+    }
+
+    // --- SPACE_SAVING ---
+
+    private void offerIncrement(String id, int increment) {
+        Integer monitored = slotOf.get(id);
+        if (monitored != null) {
+            counts[monitored] += increment;
+            siftDown(positions[monitored]);
+            return;
+        }
+        if (size < heap.length) {
+            int slot = size++;
+            set(slot, id, increment, 0, nextSeq++);
+            heap[slot] = slot;
+            positions[slot] = slot;
+            slotOf.put(id, slot);
+            siftUp(slot);
+            return;
+        }
+        // Replace the smallest counter; its count becomes the newcomer's error bound
+        int slot = heap[0];
+        int floor = counts[slot];
+        slotOf.remove(ids[slot]);
+        set(slot, id, floor + increment, floor, nextSeq++);
+        slotOf.put(id, slot);
+        siftDown(0);
+    }
+
+    // --- Heap plumbing ---
+
+    private void set(int slot, String id, int count, int error, long seq) {
+        ids[slot] = id;
+        counts[slot] = count;
+        errors[slot] = error;
+        seqs[slot] = seq;
+    }
+
+    /**
+     * Whether slot a ranks below slot b: lower count, or the same count but offered later.
+     */
+    private boolean weaker(int a, int b) {
+        return counts[a] < counts[b] || (counts[a] == counts[b] && seqs[a] > seqs[b]);
+    }
+
+    private void siftUp(int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!weaker(slot, heap[parent])) {
+                break;
+            }
+            place(index, heap[parent]);
+            index = parent;
+        }
+        place(index, slot);
+    }
+
+    private void siftDown(int index) {
+        int slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && weaker(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!weaker(heap[child], slot)) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, slot);
+    }
+
+    private void place(int index, int slot) {
+        heap[index] = slot;
+        if (positions != null) {
+            positions[slot] = index;
+        }
+    }
+}
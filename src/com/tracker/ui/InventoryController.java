@@ -1,6 +1,7 @@
 package com.tracker.ui;
 
 import com.tracker.model.Product;
+import com.tracker.service.DataContext;
 import com.tracker.service.InventoryService;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -18,7 +19,7 @@ public class InventoryController {
     @FXML private TableColumn<Product, Double> sellCol;
     @FXML private TableColumn<Product, Integer> stockCol;
 
-    private final InventoryService inventoryService = new InventoryService();
+    private final InventoryService inventoryService = DataContext.getInstance().getInventoryService();
 
     @FXML
     public void initialize() {
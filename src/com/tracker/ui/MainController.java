@@ -1,6 +1,7 @@
 package com.tracker.ui;
 
 import com.tracker.main.Main;
+import com.tracker.metrics.ViewLoadEvent;
 import com.tracker.model.User;
 import com.tracker.service.AuthenticationService;
 import javafx.fxml.FXML;
@@ -61,12 +62,17 @@ public class MainController {
     }
 
     private void loadView(String fxmlPath) {
+        // JFR event, so a slow screen switch shows up next to GC and I/O in a recording
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.begin();
         try {
             contentArea.getChildren().clear();
             Node view = FXMLLoader.load(getClass().getResource(fxmlPath));
             VBox.setVgrow(view, javafx.scene.layout.Priority.ALWAYS); // Ensure content scales
             contentArea.getChildren().add(view);
+            event.finish(fxmlPath, true);
         } catch (IOException e) {
+            event.finish(fxmlPath, false);
             System.err.println("Failed to load view: " + fxmlPath);
             e.printStackTrace();
             contentArea.getChildren().add(new Label("Error loading view: " + e.getMessage()));
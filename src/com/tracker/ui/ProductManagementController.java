@@ -2,6 +2,7 @@ package com.tracker.ui;
 
 import com.tracker.model.Product;
 import com.tracker.service.AuthenticationService;
+import com.tracker.service.DataContext;
 import com.tracker.service.InventoryService;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -25,7 +26,7 @@ public class ProductManagementController {
     @FXML private TableColumn<Product, Double> colSell;
     @FXML private TableColumn<Product, Integer> colStock;
 
-    private final InventoryService inventoryService = new InventoryService();
+    private final InventoryService inventoryService = DataContext.getInstance().getInventoryService();
 
     @FXML
     public void initialize() {
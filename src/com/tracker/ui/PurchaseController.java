@@ -1,10 +1,10 @@
 package com.tracker.ui;
 
 import com.tracker.service.AuthenticationService;
+import com.tracker.service.DataContext;
 import com.tracker.service.InventoryService;
 import com.tracker.service.PurchaseService;
 import com.tracker.model.Product; // Import Product
-import com.tracker.dao.ProductDAO; 
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
@@ -20,25 +20,15 @@ public class PurchaseController {
     @FXML private TextField supplierNameField;
     @FXML private Label messageLabel;
     
-    // NOTE: ProductDAO is only used for the helper method; it's better to get the 
-    // functionality via InventoryService if possible, but we'll use it as defined for now.
-    private final ProductDAO productDAO = new ProductDAO(); 
-    
-    private final InventoryService inventoryService = new InventoryService();
-    private final PurchaseService purchaseService = new PurchaseService(inventoryService);
+    private final InventoryService inventoryService = DataContext.getInstance().getInventoryService();
+    private final PurchaseService purchaseService = DataContext.getInstance().getPurchaseService();
     
     // The constructor is now cleaner (Java will auto-initialize fields)
     // public PurchaseController(){ /* this.productDAO = new ProductDAO(); */ } 
 
-    // Helper method should be in InventoryService, but included here for compilation:
+    // Delegates to the indexed name lookup in InventoryService
     public Optional<Product> getProductByName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            return Optional.empty();
-        }
-        // Calls the DAO (ensure ProductDAO has the getAllProducts method implemented)
-        return this.productDAO.getAllProducts().stream() 
-                .filter(p -> p.getName().trim().equalsIgnoreCase(name.trim()))
-                .findFirst();
+        return inventoryService.getProductByName(name);
     }
     
     @FXML
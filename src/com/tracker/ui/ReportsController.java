@@ -1,14 +1,17 @@
 package com.tracker.ui;
 
-import com.tracker.dao.SalesDAO;
-import com.tracker.dao.UserDAO; 
 import com.tracker.model.Report;
 import com.tracker.model.User;
 import com.tracker.service.AuthenticationService;
+import com.tracker.service.DataContext;
 import com.tracker.service.ReportExporter;
+import com.tracker.service.ReportProgress;
 import com.tracker.service.ReportService;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.stage.FileChooser;
@@ -16,7 +19,10 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 
 public class ReportsController {
@@ -26,10 +32,11 @@ public class ReportsController {
     @FXML private TextField topNField;
     @FXML private TextField spanField;
     @FXML private TextArea reportArea;
+    @FXML private ProgressBar reportProgress;
+    @FXML private Button cancelButton;
 
     // Services
-    private final SalesDAO salesDAO = new SalesDAO();
-    private final ReportService reportService = new ReportService(salesDAO);
+    private final ReportService reportService = DataContext.getInstance().getReportService();
     private final ReportExporter reportExporter = new ReportExporter(); // 1. Initialized ReportExporter
     
     // State Variables for Export
@@ -43,6 +50,16 @@ public class ReportsController {
     private int lastSpanDays;
     private int lastTopN;
 
+    // Report and export running in the background (FX thread only). They are independent:
+    // only a new report replaces a running report, whose result would be stale.
+    private Task<Report> runningReport;
+    private Task<Void> runningExport;
+    // The job the progress bar shows and Cancel stops: the most recently started one still running
+    private Task<?> shownJob;
+
+    // Largest accepted Top N; more rows per span than this is not a readable report
+    private static final int MAX_TOP_N = 1000;
+
     @FXML
     public void initialize() {
         startDatePicker.setValue(LocalDate.now().minusMonths(1));
@@ -57,65 +74,148 @@ public class ReportsController {
     private void generateReport(String type) {
         LocalDate startDate = startDatePicker.getValue();
         LocalDate endDate = endDatePicker.getValue();
-        int spanDays = 0;
+        int spanDays;
         int topN = 0;
 
         if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
             reportArea.setText("Error: Please select valid start and end dates.");
             return;
         }
-        
-        reportArea.clear();
-        
+
         try {
-            if (type.equals("P&L")) {
-            	spanDays = Integer.parseInt(spanField.getText());
-                if (spanDays < 1) {
-                    reportArea.setText("Error: Span must be a positive number of days.");
-                    return;
-                }
-                lastGeneratedReport = reportService.generateProfitLossReport(
-                    AuthenticationService.getActiveUser(), startDate, endDate, spanDays
-                );
-                // 2a. Store parameters for P&L
-                this.lastReportType = "P&L";
-                this.lastStartDate = startDate;
-                this.lastEndDate = endDate;
-                this.lastSpanDays = spanDays;
-                this.lastTopN = 0; // Not used for P&L
-
-            } else if (type.equals("BestSelling")) {
+            spanDays = Integer.parseInt(spanField.getText());
+            if (type.equals("BestSelling")) {
                 topN = Integer.parseInt(topNField.getText());
-                spanDays = Integer.parseInt(spanField.getText());
-                if (spanDays < 1) {
-                    reportArea.setText("Error: Span must be a positive number of days.");
-                    return;
+            }
+        } catch (NumberFormatException e) {
+            reportArea.setText("Error: Invalid number for Top N or Span value.");
+            this.lastGeneratedReport = null; // Clear state on error
+            return;
+        }
+        if (spanDays < 1) {
+            reportArea.setText("Error: Span must be a positive number of days.");
+            return;
+        }
+        if (type.equals("BestSelling") && (topN < 1 || topN > MAX_TOP_N)) {
+            reportArea.setText("Error: Top N must be between 1 and " + MAX_TOP_N + ".");
+            this.lastGeneratedReport = null;
+            return;
+        }
+
+        // The report is built on a background thread; the screen stays responsive and the
+        // result is applied here on the FX thread once it is done
+        User user = AuthenticationService.getActiveUser();
+        final int reportSpanDays = spanDays;
+        final int reportTopN = topN;
+        Task<Report> task = new ReportTask<>() {
+            @Override
+            protected Report call() {
+                if (type.equals("P&L")) {
+                    return reportService.generateProfitLossReport(user, startDate, endDate, reportSpanDays, this);
                 }
-                lastGeneratedReport = reportService.generateBestSellingReport(
-                    AuthenticationService.getActiveUser(), startDate, endDate, topN, spanDays
-                );
-                // 2b. Store parameters for Best Selling
-                this.lastReportType = "BestSelling";
-                this.lastStartDate = startDate;
-                this.lastEndDate = endDate;
-                this.lastSpanDays = spanDays;
-                this.lastTopN = topN;
-                
-            } else {
-                return;
+                return reportService.generateBestSellingReport(user, startDate, endDate, reportTopN, reportSpanDays, this);
             }
+        };
 
+        task.setOnSucceeded(event -> {
+            lastGeneratedReport = task.getValue();
             if (lastGeneratedReport.getReportType().equals("Access Denied")) {
                 reportArea.setText("Access Denied: You must be a ShopKeeper to generate reports.");
                 // Clear state if access is denied
-                this.lastGeneratedReport = null; 
-            } else {
-                reportArea.setText(lastGeneratedReport.getReportType() + " Report\n" + lastGeneratedReport.getReportContent());
+                this.lastGeneratedReport = null;
+                return;
             }
-            
-        } catch (NumberFormatException e) {
-            reportArea.setText("Error: Invalid number for Top N or Span value.");
-            this.lastGeneratedReport = null; // Clear state on error
+            // Store parameters for export
+            this.lastReportType = type;
+            this.lastStartDate = startDate;
+            this.lastEndDate = endDate;
+            this.lastSpanDays = reportSpanDays;
+            this.lastTopN = reportTopN; // 0 for P&L (not used)
+            reportArea.setText(lastGeneratedReport.getReportType() + " Report\n" + lastGeneratedReport.getReportContent());
+        });
+        task.setOnFailed(event -> {
+            this.lastGeneratedReport = null;
+            reportArea.setText("Failed to generate report: " + task.getException().getMessage());
+        });
+        task.setOnCancelled(event -> {
+            // A report replaced by a newer one stays quiet; the newer one owns the text area
+            if (runningReport == null || runningReport == task) {
+                reportArea.setText("Report cancelled.");
+            }
+        });
+
+        if (runningReport != null) {
+            runningReport.cancel();
+        }
+        runningReport = task;
+        startJob(task);
+        reportArea.setText("Generating " + (type.equals("P&L") ? "Profit/Loss" : "Best Selling") + " report...");
+    }
+
+    /**
+     * Runs a report or export job in the background and shows its progress.
+     * The caller has already recorded it as runningReport or runningExport.
+     */
+    private void startJob(Task<?> task) {
+        showProgress(task);
+
+        task.runningProperty().addListener((obs, wasRunning, running) -> {
+            if (running) {
+                return;
+            }
+            if (runningReport == task) {
+                runningReport = null;
+            }
+            if (runningExport == task) {
+                runningExport = null;
+            }
+            // A replaced report no longer owns the controls; otherwise hand them to the other job, if any
+            if (shownJob == task) {
+                showProgress(runningExport != null ? runningExport : runningReport);
+            }
+        });
+
+        Thread worker = new Thread(task, "report-worker");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Binds the progress bar and Cancel button to the job, or hides them if it is null.
+     */
+    private void showProgress(Task<?> job) {
+        shownJob = job;
+        reportProgress.progressProperty().unbind();
+        if (job == null) {
+            reportProgress.setVisible(false);
+            cancelButton.setDisable(true);
+            return;
+        }
+        reportProgress.progressProperty().bind(job.progressProperty());
+        reportProgress.setVisible(true);
+        cancelButton.setDisable(false);
+    }
+
+    /**
+     * A background job that is its own ReportProgress: the service's progress goes to the
+     * task (which forwards it to the FX thread), and cancelling the task stops the
+     * aggregation at its next check.
+     */
+    private abstract static class ReportTask<V> extends Task<V> implements ReportProgress {
+        @Override
+        public void update(long done, long total) {
+            updateProgress(done, total);
+        }
+    }
+
+    /**
+     * Cancels the job whose progress is shown: the report or export started last
+     * (the other one, if running, keeps going and takes over the progress bar).
+     */
+    @FXML
+    public void handleCancelReport() {
+        if (shownJob != null) {
+            shownJob.cancel();
         }
     }
 
@@ -135,6 +235,10 @@ public class ReportsController {
             reportArea.setText("Error: Please generate a report first before exporting.");
             return;
         }
+        if (runningExport != null) {
+            reportArea.setText("Error: An export is still running. Wait for it to finish or cancel it first.");
+            return;
+        }
 
         FileChooser fileChooser = new FileChooser();
         String reportName = lastReportType.replace(" ", "_"); 
@@ -147,39 +251,81 @@ public class ReportsController {
         File file = fileChooser.showSaveDialog(stage);
 
         if (file != null) {
-            try {
-                String csvContent;
-                
-                // 1. Generate Structured Data and CSV Content
-                if (lastReportType.equals("P&L")) {
-                    csvContent = reportExporter.exportPnlToCsv(
-                        reportService.getPnlRecords(currentUser, lastStartDate, lastEndDate, lastSpanDays)
-                    );
-                } else if (lastReportType.equals("BestSelling")) {
-                    csvContent = reportExporter.exportBestSellingToCsv(
-                        reportService.getBestSellingRecords(currentUser, lastStartDate, lastEndDate, lastTopN, lastSpanDays)
-                    );
+            if (!lastReportType.equals("P&L") && !lastReportType.equals("BestSelling")) {
+                reportArea.setText("Error: Unknown report type. Cannot export.");
+                return;
+            }
+            // Capture the parameters: a new report may be generated while the export runs
+            User user = currentUser;
+            String reportType = lastReportType;
+            LocalDate startDate = lastStartDate;
+            LocalDate endDate = lastEndDate;
+            int spanDays = lastSpanDays;
+            int topN = lastTopN;
+            Path path = file.toPath();
+
+            Task<Void> task = new ReportTask<>() {
+                @Override
+                protected Void call() throws IOException {
+                    boolean complete = false;
+                    try {
+                        // Stream the CSV straight into the file: rows are written while the spans are aggregated
+                        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                            if (reportType.equals("P&L")) {
+                                reportExporter.writePnlCsv(reportService, user,
+                                        startDate, endDate, spanDays, channel, this);
+                            } else {
+                                reportExporter.writeBestSellingCsv(reportService, user,
+                                        startDate, endDate, topN, spanDays, channel, this);
+                            }
+                        }
+                        complete = !isCancelled();
+                    } finally {
+                        // Failed or cancelled: remove the partial file here, once the channel is closed
+                        // (Windows refuses to delete a file that is still open)
+                        if (!complete) {
+                            deletePartialExport(path);
+                        }
+                    }
+                    return null;
+                }
+            };
+
+            task.setOnSucceeded(event -> {
+                // Success Feedback
+                // Restore the latest report in the text area, unless a new one is still being generated
+                if (runningReport == null && lastGeneratedReport != null) {
+                    reportArea.setText(lastGeneratedReport.getReportType() + " Report\n" + lastGeneratedReport.getReportContent());
+                }
+                // In a real application, you would use a JavaFX Alert here.
+                System.out.println("Success: " + reportType + " Report exported successfully to: " + file.getAbsolutePath());
+            });
+            task.setOnFailed(event -> {
+                Throwable e = task.getException();
+                if (e instanceof IOException) {
+                    // Handle file writing or export processing errors
+                    reportArea.setText("Failed to export CSV: " + e.getMessage());
                 } else {
-                    reportArea.setText("Error: Unknown report type. Cannot export.");
-                    return;
+                    // Handle unexpected errors during data retrieval/export
+                    reportArea.setText("An unexpected error occurred during CSV export: " + e.getMessage());
                 }
+            });
+            task.setOnCancelled(event -> {
+                reportArea.setText("Export cancelled.");
+            });
 
-                // 2. Write CSV Content to the chosen file using standard Java Files utility
-                Files.write(file.toPath(), csvContent.getBytes());
+            runningExport = task;
+            startJob(task);
+            reportArea.setText("Exporting " + reportType + " report to " + file.getName() + "...");
+        }
+    }
 
-                // 3. Success Feedback
-                // Restore original report text area content (in case of an error message)
-                reportArea.setText(lastGeneratedReport.getReportType() + " Report\n" + lastGeneratedReport.getReportContent());
-                // In a real application, you would use a JavaFX Alert here.
-                System.out.println("Success: " + lastReportType + " Report exported successfully to: " + file.getAbsolutePath());
-
-            } catch (IOException e) {
-                // Handle file writing or export processing errors
-                reportArea.setText("Failed to export CSV: " + e.getMessage());
-            } catch (Exception e) {
-                // Handle unexpected errors during data retrieval/export
-                reportArea.setText("An unexpected error occurred during CSV export: " + e.getMessage());
-            }
+    private static void deletePartialExport(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not remove incomplete export " + path + ": " + e.getMessage());
         }
     }
 }
\ No newline at end of file
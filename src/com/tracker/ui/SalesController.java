@@ -2,27 +2,45 @@ package com.tracker.ui;
 
 import com.tracker.model.Product;
 import com.tracker.service.AuthenticationService;
+import com.tracker.service.Cart;
+import com.tracker.service.DataContext;
 import com.tracker.service.InventoryService;
 import com.tracker.service.SalesService;
 import com.tracker.service.SalesService.SaleRequest;
 
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.application.Platform;
+import javafx.util.Duration;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javafx.util.StringConverter;
-import java.util.stream.Collectors;
 
 public class SalesController {
 
+    // Suggestions shown in the dropdown, and how long typing must pause before searching
+    private static final int SUGGESTION_LIMIT = 50;
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(150);
+
+    // Searches run here, one at a time, so typing never waits on the index
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "product-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @FXML private ComboBox<Product> productSearchComboBox;
     @FXML private TextField saleQuantityField;
+    @FXML private TextField scanField;
     @FXML private TextField paymentMethodField;
     @FXML private Label cartMessageLabel;
     @FXML private Label totalLabel;
@@ -33,10 +51,14 @@ public class SalesController {
     @FXML private TableColumn<CartItem, Double> cartPriceCol;
     @FXML private TableColumn<CartItem, Double> cartTotalCol;
 
-    private final InventoryService inventoryService = new InventoryService();
-    private final SalesService salesService = new SalesService(inventoryService);
+    private final InventoryService inventoryService = DataContext.getInstance().getInventoryService();
+    private final SalesService salesService = DataContext.getInstance().getSalesService();
+    // The cart itself (lines and running total) and its table rows, by product ID
+    private final Cart cart = new Cart();
     private final ObservableList<CartItem> cartItems = FXCollections.observableArrayList();
-    private List<Product> cachedAllProducts;
+    private final Map<String, CartItem> cartItemsById = new HashMap<>();
+    // Number of the latest search; results of older searches are dropped (FX thread only)
+    private long searchSeq;
 
     @FXML
     public void initialize() {
@@ -45,7 +67,6 @@ public class SalesController {
             return;
         }
 
-        cachedAllProducts = inventoryService.getAllProducts();
         setupCartTable();
         setupProductSearch();
         cartTable.setItems(cartItems);
@@ -64,33 +85,36 @@ public class SalesController {
             @Override
             public Product fromString(String string) {
                 if (string == null || string.isEmpty()) return null;
-                return cachedAllProducts.stream()
-                        .filter(p -> (p.getName() + " (ID: " + p.getProductID() + ")").equalsIgnoreCase(string)
-                                  || p.getName().equalsIgnoreCase(string)
-                                  || p.getProductID().equalsIgnoreCase(string))
-                        .findFirst().orElse(null);
+                return findTypedProduct(string);
             }
         });
 
         // Use a single ObservableList to avoid replacing the list frequently
-        ObservableList<Product> filteredProducts = FXCollections.observableArrayList(cachedAllProducts);
+        ObservableList<Product> filteredProducts = FXCollections.observableArrayList(
+                inventoryService.searchProducts("", SUGGESTION_LIMIT));
         productSearchComboBox.setItems(filteredProducts);
 
-        // Autocomplete filter
+        // Autocomplete: search once typing pauses, on the search thread, via the product index
+        PauseTransition debounce = new PauseTransition(SEARCH_DEBOUNCE);
+        debounce.setOnFinished(event -> {
+            String query = productSearchComboBox.getEditor().getText();
+            long seq = ++searchSeq;
+            SEARCH_EXECUTOR.execute(() -> {
+                List<Product> matches = inventoryService.searchProducts(query, SUGGESTION_LIMIT);
+                List<Product> shown = matches.isEmpty() ? inventoryService.searchProducts("", SUGGESTION_LIMIT) : matches;
+                Platform.runLater(() -> {
+                    if (seq != searchSeq) {
+                        return; // The user has typed on since
+                    }
+                    filteredProducts.setAll(shown);
+                    productSearchComboBox.hide(); // Hide then show avoids flickering
+                    productSearchComboBox.show();
+                });
+            });
+        });
         productSearchComboBox.getEditor().textProperty().addListener((obs, oldText, newText) -> {
             if (newText == null) return;
-
-            String query = newText.toLowerCase();
-            List<Product> matches = cachedAllProducts.stream()
-                    .filter(p -> p.getName().toLowerCase().contains(query)
-                              || p.getProductID().toLowerCase().contains(query))
-                    .collect(Collectors.toList());
-
-            Platform.runLater(() -> {
-                filteredProducts.setAll(matches.isEmpty() ? cachedAllProducts : matches);
-                productSearchComboBox.hide(); // Hide then show avoids flickering
-                productSearchComboBox.show();
-            });
+            debounce.playFromStart();
         });
 
         // Selection listener
@@ -106,6 +130,24 @@ public class SalesController {
 
 
 
+    /**
+     * The product a typed text names exactly: "Name (ID: X)", a product ID or a product name.
+     */
+    private Product findTypedProduct(String text) {
+        String typed = text.trim();
+        int idStart = typed.lastIndexOf("(ID: ");
+        if (idStart >= 0 && typed.endsWith(")")) {
+            Optional<Product> byLabel = inventoryService.getProductById(typed.substring(idStart + 5, typed.length() - 1))
+                    .filter(p -> typed.equalsIgnoreCase(p.getName() + " (ID: " + p.getProductID() + ")"));
+            if (byLabel.isPresent()) {
+                return byLabel.get();
+            }
+        }
+        return inventoryService.getProductByName(typed)
+                .or(() -> inventoryService.getProductById(typed))
+                .orElse(null);
+    }
+
     private void setupCartTable() {
         cartIDCol.setCellValueFactory(new PropertyValueFactory<>("productID"));
         cartNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
@@ -115,8 +157,25 @@ public class SalesController {
     }
 
     private void updateTotal() {
-        double total = cartItems.stream().mapToDouble(CartItem::getTotal).sum();
-        totalLabel.setText(String.format("$%.2f", total));
+        totalLabel.setText(String.format("$%.2f", cart.getTotal()));
+    }
+
+    /**
+     * Scan mode: a keyboard-wedge scanner types the SKU/barcode into the scan field and
+     * presses Enter. Each scan is an exact ID lookup and an O(1) merge into the cart.
+     */
+    @FXML
+    public void handleScan() {
+        String code = scanField.getText();
+        scanField.clear(); // Ready for the next scan straight away
+        if (code == null || code.trim().isEmpty()) {
+            return;
+        }
+        String result = salesService.scanItem(cart, code, 1);
+        if (!result.startsWith("Error")) {
+            showLine(cart.getLastChanged());
+        }
+        cartMessageLabel.setText(result);
     }
 
     @FXML
@@ -125,10 +184,7 @@ public class SalesController {
         String typedText = productSearchComboBox.getEditor().getText().trim();
 
         if (selectedProduct == null) {
-            selectedProduct = cachedAllProducts.stream()
-                .filter(p -> p.getName().equalsIgnoreCase(typedText)
-                          || p.getProductID().equalsIgnoreCase(typedText))
-                .findFirst().orElse(null);
+            selectedProduct = findTypedProduct(typedText);
         }
 
         if (selectedProduct == null) {
@@ -145,12 +201,7 @@ public class SalesController {
             return;
         }
 
-        Product finalSelectedProduct = selectedProduct; // make a final copy
-
-        int currentInCart = cartItems.stream()
-                .filter(item -> item.getProductID().equals(finalSelectedProduct.getProductID()))
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        int currentInCart = cart.getQuantity(selectedProduct.getProductID());
 
         if (selectedProduct.getStockQuantity() < currentInCart + quantity) {
             cartMessageLabel.setText("Error: Insufficient stock. Available: " 
@@ -158,29 +209,32 @@ public class SalesController {
                                      + ", In Cart: " + currentInCart);
             return;
         }
-        Product finalSelectedProduct1 = selectedProduct; // make a final copy
-
-        Optional<CartItem> existingItem = cartItems.stream()
-            .filter(item -> item.getProductID().equals(finalSelectedProduct1.getProductID()))
-            .findFirst();
-
-        if (existingItem.isPresent()) {
-            existingItem.get().setQuantity(existingItem.get().getQuantity() + quantity);
-            cartTable.refresh();
-        } else {
-            cartItems.add(new CartItem(selectedProduct.getProductID(), selectedProduct.getName(), quantity, selectedProduct.getSellingPrice()));
-        }
 
-        updateTotal();
+        showLine(cart.add(selectedProduct, quantity));
         productSearchComboBox.getSelectionModel().clearSelection();
         productSearchComboBox.getEditor().clear();
         saleQuantityField.clear();
         cartMessageLabel.setText("Item added to cart.");
     }
 
+    /**
+     * Shows a changed cart line: updates its table row (found by product ID) or adds one.
+     */
+    private void showLine(Cart.Line line) {
+        CartItem item = cartItemsById.get(line.getProductID());
+        if (item != null) {
+            item.setQuantity(line.getQuantity());
+        } else {
+            item = new CartItem(line.getProductID(), line.getName(), line.getQuantity(), line.getUnitPrice());
+            cartItemsById.put(line.getProductID(), item);
+            cartItems.add(item);
+        }
+        updateTotal();
+    }
+
     @FXML
     public void handleRecordSale() {
-        if (cartItems.isEmpty()) {
+        if (cart.isEmpty()) {
             cartMessageLabel.setText("Error: Cart is empty.");
             return;
         }
@@ -191,10 +245,7 @@ public class SalesController {
             return;
         }
 
-        List<SaleRequest> requests = new ArrayList<>();
-        for (CartItem item : cartItems) {
-            requests.add(new SaleRequest(item.getProductID(), item.getQuantity()));
-        }
+        List<SaleRequest> requests = cart.toRequests();
 
         String result = salesService.recordSaleTransaction(
             AuthenticationService.getActiveUser(),
@@ -206,7 +257,9 @@ public class SalesController {
             cartMessageLabel.setText(result);
         } else {
             cartMessageLabel.setText(result);
+            cart.clear();
             cartItems.clear();
+            cartItemsById.clear();
             paymentMethodField.clear();
             updateTotal();
         }
@@ -1,78 +1,201 @@
 package com.tracker.ui;
 
-import com.tracker.model.Sale; 
+import com.tracker.dao.SalesPage;
+import com.tracker.dao.SalesQuery;
+import com.tracker.model.Product;
+import com.tracker.model.Sale;
+import com.tracker.model.SalesHistoryRow;
 import com.tracker.model.SalesTransaction;
-import com.tracker.service.InventoryService; // Import the dependency
-import com.tracker.service.SalesService; 
+import com.tracker.service.DataContext;
+import com.tracker.service.InventoryService;
+import com.tracker.service.SalesService;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.fxml.Initializable;
-import javafx.collections.FXCollections;
 import java.net.URL;
-import java.util.ResourceBundle;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import com.tracker.model.User;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Sales History (ShopKeeper). Pages through the sales store instead of loading every
+ * transaction: the first page is fetched when the view opens and the next one when the
+ * table is scrolled near its last row. Filters are applied by the store (see SalesQuery).
+ */
 public class SalesHistoryController implements Initializable {
 
-    // FXML fields remain the same (they are set up to bind to the Sale model)
-    @FXML private TableView<Sale> salesTable;
-    @FXML private TableColumn<Sale, String> colTransactionID;
-    @FXML private TableColumn<Sale, String> colTimestamp;
-    @FXML private TableColumn<Sale, String> colProductID;
-    @FXML private TableColumn<Sale, String> colProductName; // NOTE: This will require a getter in Sale model
-    @FXML private TableColumn<Sale, Integer> colQuantity;
-    @FXML private TableColumn<Sale, Double> colSalePrice;
-    @FXML private TableColumn<Sale, Double> colTotalRevenue;
-    @FXML private TableColumn<Sale, String> colUser; // NOTE: This will require a getter in Sale model
-
-    // FIX 1: Instantiate InventoryService first, then use it for SalesService
-    private final InventoryService inventoryService = new InventoryService();
-    private final SalesService salesService = new SalesService(inventoryService);
+    // Transactions fetched per page, and how close to the last row the next page is requested
+    private static final int PAGE_SIZE = 200;
+    private static final int PREFETCH_ROWS = 50;
+
+    private static final String NEWEST_FIRST = "Newest first";
+    private static final String OLDEST_FIRST = "Oldest first";
+
+    @FXML private TableView<SalesHistoryRow> salesTable;
+    @FXML private TableColumn<SalesHistoryRow, String> colTransactionID;
+    @FXML private TableColumn<SalesHistoryRow, String> colTimestamp;
+    @FXML private TableColumn<SalesHistoryRow, String> colProductID;
+    @FXML private TableColumn<SalesHistoryRow, String> colProductName;
+    @FXML private TableColumn<SalesHistoryRow, Integer> colQuantity;
+    @FXML private TableColumn<SalesHistoryRow, Double> colSalePrice;
+    @FXML private TableColumn<SalesHistoryRow, Double> colTotalRevenue;
+    @FXML private TableColumn<SalesHistoryRow, String> colUser;
+
+    // Filter bar
+    @FXML private DatePicker fromDatePicker;
+    @FXML private DatePicker toDatePicker;
+    @FXML private TextField productFilterField;
+    @FXML private TextField userFilterField;
+    @FXML private ComboBox<String> sortComboBox;
+    @FXML private Label statusLabel;
+
+    // Shared, already-loaded services from the application DataContext
+    private final SalesService salesService = DataContext.getInstance().getSalesService();
+    private final InventoryService inventoryService = DataContext.getInstance().getInventoryService();
+
+    // Paging state (FX thread only)
+    private SalesQuery query = SalesQuery.newestFirst();
+    private String nextCursor;
+    private boolean endReached;
+    private Task<List<SalesHistoryRow>> pageJob;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        // Map columns to the 'Sale' model properties (case-sensitive)
+        // Map columns to the 'SalesHistoryRow' properties (case-sensitive)
         colTransactionID.setCellValueFactory(new PropertyValueFactory<>("transactionID"));
         colTimestamp.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
         colProductID.setCellValueFactory(new PropertyValueFactory<>("productID"));
-        colProductName.setCellValueFactory(new PropertyValueFactory<>("productName")); 
+        colProductName.setCellValueFactory(new PropertyValueFactory<>("productName"));
         colQuantity.setCellValueFactory(new PropertyValueFactory<>("quantitySold"));
         colSalePrice.setCellValueFactory(new PropertyValueFactory<>("unitSalePrice"));
         colTotalRevenue.setCellValueFactory(new PropertyValueFactory<>("totalRevenue"));
-        colUser.setCellValueFactory(new PropertyValueFactory<>("recordedBy")); // Ensure these getters exist in Sale model
+        colUser.setCellValueFactory(new PropertyValueFactory<>("recordedBy"));
+
+        sortComboBox.getItems().setAll(NEWEST_FIRST, OLDEST_FIRST);
+        sortComboBox.setValue(NEWEST_FIRST);
+
+        // Rows are only created for the visible part of the table, so a row near the
+        // end being filled means the user has scrolled there: fetch the next page
+        salesTable.setRowFactory(table -> new TableRow<SalesHistoryRow>() {
+            @Override
+            protected void updateItem(SalesHistoryRow item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && getIndex() >= table.getItems().size() - PREFETCH_ROWS) {
+                    loadNextPage();
+                }
+            }
+        });
 
-        loadSalesData();
+        reload();
     }
 
-    private void loadSalesData() {
+    @FXML
+    private void handleApplyFilters() {
+        SalesQuery newQuery = OLDEST_FIRST.equals(sortComboBox.getValue())
+                ? SalesQuery.oldestFirst()
+                : SalesQuery.newestFirst();
+        if (fromDatePicker.getValue() != null && toDatePicker.getValue() != null
+                && fromDatePicker.getValue().isAfter(toDatePicker.getValue())) {
+            statusLabel.setText("Error: 'From' date must not be after 'To' date.");
+            return;
+        }
+        query = newQuery.withDateRange(fromDatePicker.getValue(), toDatePicker.getValue())
+                .withProductId(productFilterField.getText())
+                .withUsername(userFilterField.getText());
+        reload();
+    }
+
+    @FXML
+    private void handleClearFilters() {
+        fromDatePicker.setValue(null);
+        toDatePicker.setValue(null);
+        productFilterField.clear();
+        userFilterField.clear();
+        sortComboBox.setValue(NEWEST_FIRST);
+        query = SalesQuery.newestFirst();
+        reload();
+    }
+
+    /**
+     * Drops the loaded rows and starts again from the first page of the current query.
+     */
+    private void reload() {
+        if (pageJob != null) {
+            pageJob.cancel();
+            pageJob = null;
+        }
         salesTable.getItems().clear();
-        
-        List<SalesTransaction> transactions = salesService.viewSalesHistory();
-        
-        List<Sale> allSalesRecords = transactions.stream()
-            // Map each SalesTransaction to its internal list of Sale objects
-            .flatMap(transaction -> {
-                // FIX: Safely retrieve the username
-                User recordedUser = transaction.getUser();
-                String recordedByName = (recordedUser != null) 
-                    ? recordedUser.getUsername() 
-                    : "Unknown User (Legacy)";
-
-                transaction.getSales().forEach(sale -> {
-                    sale.setTimestamp(transaction.getFormattedTimestamp()); 
-                    
-                    // FIX: Use the safely retrieved name
-                    sale.setRecordedBy(recordedByName); 
-                    
-                    sale.setTransactionID(transaction.getTransactionID()); 
-                });
-                return transaction.getSales().stream();
-            })
-            .collect(Collectors.toList());
-            
-        salesTable.setItems(FXCollections.observableArrayList(allSalesRecords));
+        nextCursor = null;
+        endReached = false;
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (pageJob != null || endReached) {
+            return; // A page is already on its way, or there is nothing more
+        }
+        final SalesQuery pageQuery = query;
+        final String cursor = nextCursor;
+        final String[] cursorAfter = new String[1];
+
+        Task<List<SalesHistoryRow>> task = new Task<List<SalesHistoryRow>>() {
+            @Override
+            protected List<SalesHistoryRow> call() {
+                SalesPage page = salesService.getSalesHistoryPage(pageQuery, cursor, PAGE_SIZE);
+                cursorAfter[0] = page.getNextCursor();
+                return toRows(page.getTransactions());
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (pageJob != task) {
+                return; // Superseded by a reload
+            }
+            pageJob = null;
+            nextCursor = cursorAfter[0];
+            endReached = nextCursor == null;
+            salesTable.getItems().addAll(task.getValue());
+            statusLabel.setText(salesTable.getItems().size() + " sale lines loaded"
+                    + (endReached ? "." : " (scroll down for more)."));
+        });
+        task.setOnFailed(event -> {
+            if (pageJob != task) {
+                return;
+            }
+            pageJob = null;
+            System.err.println("Error loading sales history: " + task.getException().getMessage());
+            statusLabel.setText("Error: Sales history could not be loaded.");
+        });
+
+        pageJob = task;
+        statusLabel.setText("Loading...");
+        Thread worker = new Thread(task, "sales-history-page");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * One table row per sale item (background thread).
+     */
+    private List<SalesHistoryRow> toRows(List<SalesTransaction> transactions) {
+        List<SalesHistoryRow> rows = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        for (SalesTransaction transaction : transactions) {
+            for (Sale sale : transaction.getSales()) {
+                String name = names.computeIfAbsent(sale.getProductID(),
+                        id -> inventoryService.getProductById(id).map(Product::getName).orElse(""));
+                rows.add(new SalesHistoryRow(transaction, sale, name));
+            }
+        }
+        return rows;
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import com.tracker.model.ShopKeeper;
 import com.tracker.model.Staff;
 import com.tracker.model.User;
 import com.tracker.service.AuthenticationService;
+import com.tracker.service.DataContext;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -36,7 +37,7 @@ public class StaffManagementController {
     @FXML private TableColumn<User, String> roleColumn;
     @FXML private TableColumn<User, Void> actionsColumn; 
 
-    private final UserDAO userDAO = new UserDAO();
+    private final UserDAO userDAO = DataContext.getInstance().getUserDAO();
     private ObservableList<User> userList;
     private User editingUser = null; 
 